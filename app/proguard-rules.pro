@@ -12,10 +12,31 @@
 #   public *;
 #}
 
-# Uncomment this to preserve the line number information for
-# debugging stack traces.
-#-keepattributes SourceFile,LineNumberTable
+# Preserve the line number information for debugging stack traces.
+-keepattributes SourceFile,LineNumberTable
 
-# If you keep the line number information, uncomment this to
-# hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+# Hide the original source file name.
+-renamesourcefileattribute SourceFile
+
+# Firebase Realtime Database (CustomClassMapper) reads and writes these models by
+# reflection, matching getters/setters and public fields by name. Generic signatures
+# are needed so Map<String, Boolean> fields deserialize with the right types.
+-keepattributes Signature,*Annotation*,InnerClasses,EnclosingMethod
+-keep class com.example.peekeventproject.Event {
+    public <init>();
+    public <methods>;
+    <fields>;
+}
+-keep class com.example.peekeventproject.SignUp$User {
+    public <init>();
+    public <fields>;
+}
+
+# Event is passed between activities as a Serializable extra.
+-keepclassmembers class * implements java.io.Serializable {
+    static final long serialVersionUID;
+    private void writeObject(java.io.ObjectOutputStream);
+    private void readObject(java.io.ObjectInputStream);
+    java.lang.Object writeReplace();
+    java.lang.Object readResolve();
+}
\ No newline at end of file
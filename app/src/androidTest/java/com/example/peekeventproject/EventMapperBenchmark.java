@@ -0,0 +1,74 @@
+package com.example.peekeventproject;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.firebase.database.DataSnapshot;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares EventMapper against Firebase's reflective getValue(Event.class)
+ * on a 10k-event snapshot (20 RSVPs each), the same loop EventLoader runs.
+ */
+@RunWith(AndroidJUnit4.class)
+public class EventMapperBenchmark {
+
+    private static final int EVENT_COUNT = 10_000;
+    private static DataSnapshot eventsSnapshot;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @BeforeClass
+    public static void buildSnapshot() throws InterruptedException {
+        eventsSnapshot = SnapshotFixtures.offlineSnapshot("mapper",
+                SnapshotFixtures.eventsNode(EVENT_COUNT, 20));
+        assertEquals(EVENT_COUNT, eventsSnapshot.getChildrenCount());
+    }
+
+    @AfterClass
+    public static void purgeFixtures() {
+        SnapshotFixtures.purge();
+    }
+
+    @Test
+    public void eventMapper() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (DataSnapshot child : eventsSnapshot.getChildren()) {
+                EventMapper.fromSnapshot(child);
+            }
+        }
+    }
+
+    @Test
+    public void reflectiveGetValue() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (DataSnapshot child : eventsSnapshot.getChildren()) {
+                child.getValue(Event.class);
+            }
+        }
+    }
+
+    @Test
+    public void mapperMatchesGetValue() {
+        DataSnapshot child = eventsSnapshot.getChildren().iterator().next();
+        Event mapped = EventMapper.fromSnapshot(child);
+        Event reflected = child.getValue(Event.class);
+
+        assertEquals(reflected.getEventId(), mapped.getEventId());
+        assertEquals(reflected.getTitle(), mapped.getTitle());
+        assertEquals(reflected.getDate(), mapped.getDate());
+        assertEquals(reflected.getAttendeeCount(), mapped.getAttendeeCount());
+        assertEquals(reflected.getRsvpList(), mapped.getRsvpList());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.peekeventproject;
+
+import android.util.Log;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Heap of a 20k-event feed whose repeated strings go through StringPool, against the same feed
+ * holding one copy per event (what every decode of the wire format produces without the pool).
+ * Heap numbers are logged under "FeedMemory".
+ */
+@RunWith(AndroidJUnit4.class)
+public class FeedMemoryBenchmark {
+
+    private static final String TAG = "FeedMemory";
+    private static final int EVENT_COUNT = 20_000;
+
+    private static final String[] CATEGORIES = {"Music", "Art", "Technology", "Food", "Sports", "Comedy"};
+    private static final String[] ZONES = {"Stage A", "Main Gate", "Parking Lot", "Food Court", "VIP Lounge", "Hall B"};
+    private static final String[] TIMES = {
+            "09:00 AM - 12:00 PM", "02:00 PM - 05:00 PM", "07:00 PM - 11:00 PM", "06:00 PM - 09:00 PM"};
+
+    private static String[][] fields; // Per event: ID, title, category, date, time, location, zone, image URL, geohash
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @BeforeClass
+    public static void buildFixtures() {
+        fields = new String[EVENT_COUNT][];
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            fields[i] = new String[]{
+                    "-N" + Integer.toString(i * 7919, 36), "Event " + i, CATEGORIES[i % CATEGORIES.length],
+                    String.format("%02d/%02d/2026", (i % 28) + 1, (i % 12) + 1), TIMES[i % TIMES.length],
+                    "Venue " + (i % 400) + ", Nairobi", ZONES[i % ZONES.length],
+                    "https://example.com/events/" + i + ".jpg", "kzf0" + Integer.toString(i, 32)};
+        }
+    }
+
+    @Test
+    public void retainedHeap() {
+        long before = SnapshotFixtures.usedHeapAfterGc();
+        List<EventSummary> copied = feed(false);
+        long copiedBytes = SnapshotFixtures.usedHeapAfterGc() - before;
+        assertEquals(EVENT_COUNT, copied.size()); // Keeps the feed reachable until measured
+        copied.clear();
+
+        before = SnapshotFixtures.usedHeapAfterGc();
+        List<EventSummary> pooled = feed(true);
+        long pooledBytes = SnapshotFixtures.usedHeapAfterGc() - before;
+        assertEquals(EVENT_COUNT, pooled.size());
+
+        Log.i(TAG, EVENT_COUNT + " events: own copies " + copiedBytes / EVENT_COUNT + " B/event, pooled "
+                + pooledBytes / EVENT_COUNT + " B/event");
+        assertTrue("Pooling should save at least a quarter of the feed's heap", pooledBytes * 4 < copiedBytes * 3);
+    }
+
+    /**
+     * Cost of one pool lookup on a decode thread (a hit, the common case).
+     */
+    @Test
+    public void canonical() {
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            StringPool.canonical(fields[i][5]);
+            i = (i + 1) % EVENT_COUNT;
+        }
+    }
+
+    private static List<EventSummary> feed(boolean pool) {
+        List<EventSummary> feed = new ArrayList<>(EVENT_COUNT);
+        for (String[] f : fields) {
+            feed.add(new EventSummary(copy(f[0]), copy(f[1]), copy(f[2]),
+                    decoded(f[3], pool), decoded(f[4], pool), decoded(f[5], pool), decoded(f[6], pool),
+                    copy(f[7]), 3, 0, 1L, 2L, -1.28, 36.82, copy(f[8])));
+        }
+        return feed;
+    }
+
+    private static String decoded(String value, boolean pool) {
+        return pool ? StringPool.canonical(copy(value)) : copy(value);
+    }
+
+    // A new instance, as a JSON or wire decoder produces for every value
+    private static String copy(String value) {
+        return new String(value.toCharArray());
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.peekeventproject;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * RSVP throughput on one event versus the number of concurrent clients, against the
+ * Firebase emulator: a single attendeeCount, sharded counting, and the automatic switch.
+ * Each client is a separate FirebaseApp (its own connection), so transactions really race.
+ * The shard mode cache is per process, so in AUTO all simulated clients see a switch at once
+ * (real devices learn it on their next first RSVP to the event).
+ * Results are logged under "RsvpContention".
+ *
+ * Start the emulators from the repository root (uses database.rules.json):
+ *   firebase emulators:start --only database,auth
+ * then run with the host the device reaches them on (10.0.2.2 from the Android emulator):
+ *   ./gradlew :app:connectedAndroidTest
+ *       -Pandroid.testInstrumentationRunnerArguments.class=com.example.peekeventproject.RsvpContentionBenchmark
+ *       -Pandroid.testInstrumentationRunnerArguments.firebaseEmulatorHost=10.0.2.2
+ * Skipped when no host is given.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RsvpContentionBenchmark {
+
+    private static final String TAG = "RsvpContention";
+    private static final int DATABASE_PORT = 9000;
+    private static final int AUTH_PORT = 9099;
+    private static final int[] CLIENT_COUNTS = {1, 2, 4, 8, 16};
+    private static final int RSVPS_PER_CLIENT = 20;
+
+    private enum Mode { SINGLE, SHARDED, AUTO }
+
+    private static final List<FirebaseDatabase> clients = new ArrayList<>();
+
+    @BeforeClass
+    public static void connectClients() throws Exception {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        String host = arguments.getString("firebaseEmulatorHost");
+        assumeTrue("Pass firebaseEmulatorHost to run against the emulator", host != null);
+
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        FirebaseOptions options = FirebaseApp.getInstance().getOptions();
+        int maxClients = CLIENT_COUNTS[CLIENT_COUNTS.length - 1];
+        for (int i = 0; i < maxClients; i++) {
+            FirebaseApp app = FirebaseApp.initializeApp(context, options, "rsvp-client-" + i);
+            FirebaseAuth auth = FirebaseAuth.getInstance(app);
+            auth.useEmulator(host, AUTH_PORT);
+            Tasks.await(auth.signInAnonymously(), 30, TimeUnit.SECONDS); // Rules require auth != null
+
+            FirebaseDatabase database = FirebaseDatabase.getInstance(app);
+            database.useEmulator(host, DATABASE_PORT);
+            clients.add(database);
+        }
+    }
+
+    @Test
+    public void singleCounter() throws Exception {
+        measure(Mode.SINGLE);
+    }
+
+    @Test
+    public void shardedCounter() throws Exception {
+        measure(Mode.SHARDED);
+    }
+
+    @Test
+    public void automaticSwitch() throws Exception {
+        measure(Mode.AUTO);
+    }
+
+    private void measure(Mode mode) throws Exception {
+        StringBuilder report = new StringBuilder(mode + " RSVPs/s by clients:");
+        for (int clientCount : CLIENT_COUNTS) {
+            String eventId = "contention-" + mode + "-" + clientCount + "-" + System.currentTimeMillis();
+            createEvent(eventId);
+
+            List<AttendeeCounter> counters = new ArrayList<>();
+            for (int i = 0; i < clientCount; i++) {
+                int threshold = mode == Mode.SINGLE ? Integer.MAX_VALUE : AttendeeCounter.CONTENTION_THRESHOLD;
+                counters.add(new AttendeeCounter(clients.get(i), threshold));
+            }
+            if (mode == Mode.SHARDED) {
+                counters.get(0).enableSharding(eventId);
+            }
+
+            long elapsedMs = runClients(counters, eventId);
+            int expected = clientCount * RSVPS_PER_CLIENT;
+            assertEquals("Every RSVP must be counted exactly once", expected, readTotal(counters.get(0), eventId));
+
+            report.append(String.format(Locale.US, " %d=%.1f", clientCount, expected * 1000.0 / elapsedMs));
+        }
+        Log.i(TAG, report.toString());
+    }
+
+    /**
+     * Every client adds RSVPS_PER_CLIENT attendees one after another, all clients at once.
+     * @return wall time until the last increment committed
+     */
+    private static long runClients(List<AttendeeCounter> counters, String eventId) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(counters.size());
+        AtomicInteger failures = new AtomicInteger();
+
+        for (AttendeeCounter counter : counters) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < RSVPS_PER_CLIENT; i++) {
+                        if (!addOne(counter, eventId)) failures.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        long startedAt = SystemClock.elapsedRealtime();
+        start.countDown();
+        if (!done.await(5, TimeUnit.MINUTES)) {
+            throw new AssertionError("Clients did not finish");
+        }
+        assertEquals("Failed increments", 0, failures.get());
+        return Math.max(1, SystemClock.elapsedRealtime() - startedAt);
+    }
+
+    private static boolean addOne(AttendeeCounter counter, String eventId) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        boolean[] committed = {false};
+        counter.add(eventId, 1, new AttendeeCounter.Callback() {
+            @Override
+            public void onCommitted(int newTotal) {
+                committed[0] = true;
+                latch.countDown();
+            }
+
+            @Override
+            public void onEventMissing() {
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(DatabaseError error) {
+                Log.w(TAG, "Increment failed: " + error.getMessage());
+                latch.countDown();
+            }
+        });
+        return latch.await(60, TimeUnit.SECONDS) && committed[0];
+    }
+
+    private static void createEvent(String eventId) throws Exception {
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventId", eventId);
+        event.put("title", "Contention test");
+        event.put("attendeeCount", 0);
+        Tasks.await(clients.get(0).getReference("events").child(eventId).setValue(event), 30, TimeUnit.SECONDS);
+    }
+
+    private static int readTotal(AttendeeCounter counter, String eventId) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        int[] total = {-1};
+        counter.readTotal(eventId, new AttendeeCounter.TotalCallback() {
+            @Override
+            public void onTotal(Integer value) {
+                total[0] = value != null ? value : -1;
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(DatabaseError error) {
+                latch.countDown();
+            }
+        });
+        latch.await(60, TimeUnit.SECONDS);
+        return total[0];
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.peekeventproject;
+
+import android.util.Log;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.firebase.database.DataSnapshot;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Memory and speed of RsvpSet on large events (20k RSVPs), against the
+ * HashMap<String, Boolean> Event used before. Heap numbers are logged under "RsvpMemory".
+ */
+@RunWith(AndroidJUnit4.class)
+public class RsvpMemoryBenchmark {
+
+    private static final String TAG = "RsvpMemory";
+    private static final int RSVP_COUNT = 20_000;
+    private static final int COPIES = 20; // Enough copies for the difference to stand out from GC noise
+
+    private static String[] userIds;
+    private static DataSnapshot largeEventSnapshot;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @BeforeClass
+    public static void buildFixtures() throws InterruptedException {
+        userIds = new String[RSVP_COUNT];
+        for (int i = 0; i < RSVP_COUNT; i++) {
+            userIds[i] = "user-" + i;
+        }
+        Map<String, Object> events = SnapshotFixtures.eventsNode(1, RSVP_COUNT);
+        largeEventSnapshot = SnapshotFixtures.offlineSnapshot("rsvps", events)
+                .getChildren().iterator().next();
+    }
+
+    @AfterClass
+    public static void purgeFixtures() {
+        SnapshotFixtures.purge();
+    }
+
+    /**
+     * Retained heap of the RSVP structures only; the user ID strings are shared by both.
+     */
+    @Test
+    public void retainedHeap() {
+        long before = SnapshotFixtures.usedHeapAfterGc();
+        List<Map<String, Boolean>> maps = new ArrayList<>();
+        for (int c = 0; c < COPIES; c++) {
+            Map<String, Boolean> map = new HashMap<>();
+            for (String userId : userIds) {
+                map.put(userId, true);
+            }
+            maps.add(map);
+        }
+        long mapBytes = (SnapshotFixtures.usedHeapAfterGc() - before) / COPIES;
+        assertEquals(COPIES, maps.size()); // Keeps the maps reachable until measured
+        maps.clear();
+
+        before = SnapshotFixtures.usedHeapAfterGc();
+        List<RsvpSet> sets = new ArrayList<>();
+        for (int c = 0; c < COPIES; c++) {
+            sets.add(RsvpSet.fromUnsorted(userIds.clone(), RSVP_COUNT));
+        }
+        long setBytes = (SnapshotFixtures.usedHeapAfterGc() - before) / COPIES;
+        assertEquals(COPIES, sets.size());
+
+        Log.i(TAG, RSVP_COUNT + " RSVPs: HashMap " + mapBytes + " B, RsvpSet " + setBytes + " B");
+        assertTrue("RsvpSet should need well under half the heap of a HashMap",
+                setBytes * 3 < mapBytes);
+    }
+
+    @Test
+    public void decodeLargeEvent() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            EventMapper.fromSnapshot(largeEventSnapshot);
+        }
+    }
+
+    @Test
+    public void lookup() {
+        Event event = EventMapper.fromSnapshot(largeEventSnapshot);
+        assertEquals(RSVP_COUNT, event.rsvps().size());
+
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            event.hasUserRsvpd(userIds[i]);
+            i = (i + 7919) % RSVP_COUNT; // Jump around instead of walking the array in order
+        }
+    }
+
+    @Test
+    public void toggle() {
+        Event event = EventMapper.fromSnapshot(largeEventSnapshot);
+        String userId = "user-new";
+
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            event.addRsvp(userId);
+            event.removeRsvp(userId);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.peekeventproject;
+
+import android.content.Context;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds real DataSnapshots for benchmarks without a server.
+ * The data is written to a FirebaseApp of its own (APP_NAME) that is taken offline before it
+ * ever connects; Firebase serves the pending write back from its local cache, which yields a
+ * genuine snapshot to decode. The app's default database is never touched, and nothing written
+ * here can reach a server: benchmarks call purge() from @AfterClass to drop the queued writes.
+ * The memory benchmarks also measure retained heap with usedHeapAfterGc().
+ */
+final class SnapshotFixtures {
+
+    private static final String[] CATEGORIES = {"Music", "Art", "Technology", "Food", "Sports"};
+    private static final String[] ZONES = {"Stage A", "Main Gate", "Parking Lot", "Food Court"};
+    private static final String APP_NAME = "benchmark-fixtures";
+
+    private SnapshotFixtures() {
+    }
+
+    /**
+     * Raw "events" node with eventCount events, each carrying rsvpsPerEvent RSVPs.
+     */
+    static Map<String, Object> eventsNode(int eventCount, int rsvpsPerEvent) {
+        Map<String, Object> events = new HashMap<>();
+        for (int i = 0; i < eventCount; i++) {
+            Map<String, Object> event = new HashMap<>();
+            String id = "event-" + i;
+            event.put("eventId", id);
+            event.put("title", "Event " + i);
+            event.put("category", CATEGORIES[i % CATEGORIES.length]);
+            event.put("description", "Description for event " + i);
+            event.put("date", String.format("%02d/%02d/2030", (i % 28) + 1, (i % 12) + 1));
+            event.put("time", "07:00 PM - 11:00 PM");
+            event.put("location", "Venue " + (i % 50));
+            event.put("zone", ZONES[i % ZONES.length]);
+            event.put("attendeeCount", rsvpsPerEvent);
+            event.put("creatorId", "creator-" + (i % 100));
+
+            Map<String, Object> rsvpList = new HashMap<>();
+            for (int r = 0; r < rsvpsPerEvent; r++) {
+                rsvpList.put("user-" + r, true);
+            }
+            event.put("rsvpList", rsvpList);
+            events.put(id, event);
+        }
+        return events;
+    }
+
+    /**
+     * Writes value under a scratch path while offline and returns the snapshot Firebase raises for it.
+     */
+    static DataSnapshot offlineSnapshot(String path, Object value) throws InterruptedException {
+        DatabaseReference ref = offlineDatabase().getReference("benchmarkScratch").child(path);
+        ref.setValue(value);
+
+        final DataSnapshot[] result = new DataSnapshot[1];
+        CountDownLatch latch = new CountDownLatch(1);
+        ref.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                result[0] = snapshot;
+                latch.countDown();
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                latch.countDown();
+            }
+        });
+
+        if (!latch.await(60, TimeUnit.SECONDS) || result[0] == null) {
+            throw new IllegalStateException("Local snapshot for " + path + " was not delivered");
+        }
+        return result[0];
+    }
+
+    /**
+     * Drops the writes offlineSnapshot queued, so they are never sent and free their memory.
+     */
+    static void purge() {
+        offlineDatabase().purgeOutstandingWrites();
+    }
+
+    /**
+     * Heap in use once garbage has been collected; the difference of two calls is what the code
+     * in between retained. Several rounds, since one gc() may leave finalizable objects behind.
+     */
+    static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            runtime.gc();
+            runtime.runFinalization();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * The fixtures' database: a separate FirebaseApp with the project's options, kept offline.
+     */
+    private static synchronized FirebaseDatabase offlineDatabase() {
+        FirebaseApp app;
+        try {
+            app = FirebaseApp.getInstance(APP_NAME);
+        } catch (IllegalStateException notCreatedYet) {
+            Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+            app = FirebaseApp.initializeApp(context, FirebaseApp.getInstance().getOptions(), APP_NAME);
+        }
+        FirebaseDatabase database = FirebaseDatabase.getInstance(app);
+        database.goOffline(); // Before the first reference, so it never opens a connection
+        return database;
+    }
+}
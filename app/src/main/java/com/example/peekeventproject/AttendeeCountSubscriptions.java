@@ -0,0 +1,215 @@
+package com.example.peekeventproject;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * AttendeeCountSubscriptions shares live attendee counts between screens.
+ * - Listens only to the "events/{id}/attendeeCount" leaf, the small "attendeeShards" node and,
+ *   for events with a capacity, the seat holders (see AttendeeCounter), never the whole event
+ *   (no rsvpList download).
+ * - One Firebase listener per event, reference-counted across all screens that subscribe to it.
+ * - Updates are batched and delivered at most MAX_UPDATES_PER_SECOND times per second,
+ *   so a burst of RSVPs on a busy event does not rebind the UI for every single change.
+ *
+ * Main thread only (Firebase delivers callbacks there too).
+ */
+public final class AttendeeCountSubscriptions {
+
+    /**
+     * Receives throttled attendee count updates.
+     */
+    public interface CountListener {
+        void onAttendeeCountChanged(String eventId, int newCount);
+    }
+
+    private static final int MAX_UPDATES_PER_SECOND = 4;
+    private static final long MIN_FLUSH_INTERVAL_MS = 1000 / MAX_UPDATES_PER_SECOND;
+
+    private static AttendeeCountSubscriptions instance;
+
+    private final DatabaseReference eventsRef;
+    private final Map<String, Subscription> subscriptions = new HashMap<>(); // eventId → shared listener
+    private final Map<String, Integer> pendingCounts = new LinkedHashMap<>(); // Changes not delivered yet
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+    private boolean flushScheduled = false;
+    private long lastFlushAt = 0;
+
+    private AttendeeCountSubscriptions() {
+        eventsRef = FirebaseDatabase.getInstance().getReference("events");
+    }
+
+    public static synchronized AttendeeCountSubscriptions getInstance() {
+        if (instance == null) {
+            instance = new AttendeeCountSubscriptions();
+        }
+        return instance;
+    }
+
+    /**
+     * Subscribes a listener to an event's count. Attaches a Firebase listener only for the
+     * first subscriber; later subscribers immediately get the last known count.
+     */
+    public void subscribe(String eventId, CountListener listener) {
+        if (BuildConfig.USE_SEEDED_EVENTS) return; // Seeded events have no backend to listen to
+
+        Subscription subscription = subscriptions.get(eventId);
+        if (subscription == null) {
+            subscription = new Subscription(eventId);
+            subscriptions.put(eventId, subscription);
+            subscription.attach();
+        }
+
+        if (subscription.listeners.add(listener) && subscription.lastCount != null) {
+            listener.onAttendeeCountChanged(eventId, subscription.lastCount);
+        }
+    }
+
+    /**
+     * Removes a listener; the Firebase listener is detached once nobody is left.
+     */
+    public void unsubscribe(String eventId, CountListener listener) {
+        Subscription subscription = subscriptions.get(eventId);
+        if (subscription == null) return;
+
+        subscription.listeners.remove(listener);
+        if (subscription.listeners.isEmpty()) {
+            subscription.detach();
+            subscriptions.remove(eventId);
+            pendingCounts.remove(eventId);
+        }
+    }
+
+    /**
+     * Removes a listener from every event it subscribed to (e.g. when a screen stops).
+     */
+    public void unsubscribeAll(CountListener listener) {
+        List<String> eventIds = new ArrayList<>(subscriptions.keySet());
+        for (String eventId : eventIds) {
+            unsubscribe(eventId, listener);
+        }
+    }
+
+    private void onCountReceived(String eventId, int count) {
+        pendingCounts.put(eventId, count);
+        if (flushScheduled) return; // Will be picked up by the scheduled flush
+
+        flushScheduled = true;
+        long wait = Math.max(0, lastFlushAt + MIN_FLUSH_INTERVAL_MS - SystemClock.uptimeMillis());
+        handler.postDelayed(flushRunnable, wait);
+    }
+
+    /**
+     * Delivers every pending count in one batch.
+     */
+    private void flush() {
+        flushScheduled = false;
+        lastFlushAt = SystemClock.uptimeMillis();
+
+        List<Map.Entry<String, Integer>> batch = new ArrayList<>(pendingCounts.entrySet());
+        pendingCounts.clear();
+
+        for (Map.Entry<String, Integer> entry : batch) {
+            Subscription subscription = subscriptions.get(entry.getKey());
+            if (subscription == null) continue; // Unsubscribed meanwhile
+
+            // Copy, listeners may unsubscribe while being notified
+            for (CountListener listener : new ArrayList<>(subscription.listeners)) {
+                listener.onAttendeeCountChanged(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Firebase listeners shared by every subscriber of one event: one on the attendeeCount leaf,
+     * one on its shards and one on its seats (an absent node costs nothing). The count is their sum.
+     */
+    private final class Subscription {
+        private final String eventId;
+        private final Set<CountListener> listeners = new LinkedHashSet<>();
+        private Integer lastCount; // null until the first value arrives
+        private Integer base;      // null until attendeeCount arrives
+        private int shardSum = 0;
+        private int seatSum = 0;
+
+        private final ValueEventListener baseListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                base = EventMapper.asInt(snapshot.getValue());
+                update();
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                // Counts are best-effort; the card keeps its last value
+            }
+        };
+
+        private final ValueEventListener shardsListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                shardSum = AttendeeCounter.sumShards(snapshot, -1);
+                update();
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                // Same as above
+            }
+        };
+
+        private final ValueEventListener seatsListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                seatSum = AttendeeCounter.countSeats(snapshot, -1);
+                update();
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                // Same as above
+            }
+        };
+
+        Subscription(String eventId) {
+            this.eventId = eventId;
+        }
+
+        void attach() {
+            eventsRef.child(eventId).child("attendeeCount").addValueEventListener(baseListener);
+            eventsRef.child(eventId).child("attendeeShards").addValueEventListener(shardsListener);
+            eventsRef.child(eventId).child(AttendeeCounter.SEATS_NODE).addValueEventListener(seatsListener);
+        }
+
+        void detach() {
+            eventsRef.child(eventId).child("attendeeCount").removeEventListener(baseListener);
+            eventsRef.child(eventId).child("attendeeShards").removeEventListener(shardsListener);
+            eventsRef.child(eventId).child(AttendeeCounter.SEATS_NODE).removeEventListener(seatsListener);
+        }
+
+        private void update() {
+            if (base == null) return;
+            int count = AttendeeCounter.total(base, shardSum + seatSum);
+            if (lastCount != null && lastCount == count) return;
+
+            lastCount = count;
+            onCountReceived(eventId, count);
+        }
+    }
+}
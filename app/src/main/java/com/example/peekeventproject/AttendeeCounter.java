@@ -0,0 +1,598 @@
+package com.example.peekeventproject;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The attendee count of an event, which may be split into shards when the event is busy.
+ * - Normal events: one integer at "events/{id}/attendeeCount". RSVPs move it with
+ *   writeWithCount (a server-side increment written together with the rsvpList entry); add()
+ *   changes it with a transaction.
+ * - Hot events: once a transaction on that integer keeps losing to other clients
+ *   (CONTENTION_THRESHOLD retries), "events/{id}/attendeeShardCount" is set to SHARD_COUNT and
+ *   every client adds to a random "events/{id}/attendeeShards/{n}" instead, so concurrent
+ *   RSVPs rarely touch the same value.
+ * - The count is always attendeeCount + the sum of attendeeShards (a missing shard is 0), so
+ *   switching needs no migration and readers do not need to know the mode.
+ * - The feed summary's attendeeCount holds the last total as a cached value.
+ * - Events with a capacity are created sharded and record every seat with its holder:
+ *   "events/{id}/attendeeSeats/{n}/{userId}" → true, at most seatsInShard per shard. reserveSeat
+ *   adds the user to one shard in a transaction that only commits below that bound, so the total
+ *   never exceeds the capacity however many clients race, and they mostly race on different shards.
+ * - Because a seat names its holder, an admission that stopped halfway (crash, failed rsvpList
+ *   write) finds and reuses its seat on the next try, and releaseSeat removes the seat together
+ *   with the rsvpList entry in one update, so seats cannot leak. The count is
+ *   attendeeCount + attendeeShards + the seats; counted shards written before seats had holders
+ *   still count toward each shard's bound and go down as those users leave.
+ *
+ * Callbacks run on the main thread (Firebase delivers them there).
+ */
+final class AttendeeCounter {
+
+    static final int SHARD_COUNT = 10;
+    static final int CONTENTION_THRESHOLD = 3;
+    static final String SEATS_NODE = "attendeeSeats";
+
+    interface Callback {
+        void onCommitted(int newTotal);
+        void onEventMissing();               // The event was deleted; nothing was written
+        void onError(DatabaseError error);
+    }
+
+    /**
+     * Result of reserveSeat.
+     */
+    interface SeatCallback {
+        void onSeated(int newTotal, boolean newSeat); // newSeat false: the user already held a seat
+        void onFull();                       // Every shard was at its bound; nothing was written
+        void onEventMissing();
+        void onError(DatabaseError error);
+    }
+
+    /**
+     * Result of releaseSeat; onCommitted receives the total without the seat.
+     */
+    interface ReleaseCallback extends Callback {
+        void onNoSeat();                     // The user held no recorded seat; nothing was written
+    }
+
+    interface CapacityCallback {
+        void onCapacity(int capacity);       // 0 = unlimited
+        void onError(DatabaseError error);
+    }
+
+    interface TotalCallback {
+        void onTotal(Integer total);         // null if the event does not exist
+        void onError(DatabaseError error);
+    }
+
+    /**
+     * How an event counts: shard count (0 = not sharded) and capacity (0 = unlimited).
+     */
+    private static final class Mode {
+        final int shards;
+        final int capacity;
+
+        Mode(int shards, int capacity) {
+            this.shards = shards;
+            this.capacity = capacity;
+        }
+    }
+
+    private interface ModeCallback {
+        void onMode(Mode mode);
+    }
+
+    private interface ErrorCallback {
+        void onError(DatabaseError error);
+    }
+
+    // eventId → Mode; learned once per process (capacity is fixed, events never go back to one value)
+    private static final Map<String, Mode> modes = new ConcurrentHashMap<>();
+    private static final Random random = new Random();
+
+    private final DatabaseReference eventsRef;
+    private final int contentionThreshold;
+
+    AttendeeCounter() {
+        this(FirebaseDatabase.getInstance(), CONTENTION_THRESHOLD);
+    }
+
+    /**
+     * @param database instance to write through (the contention benchmark uses one per simulated client)
+     * @param contentionThreshold lost races before switching to shards; Integer.MAX_VALUE never switches
+     */
+    AttendeeCounter(FirebaseDatabase database, int contentionThreshold) {
+        eventsRef = database.getReference("events");
+        this.contentionThreshold = contentionThreshold;
+    }
+
+    /**
+     * Adds delta (+1 or -1) to the event's count.
+     * Events with a capacity must take seats with reserveSeat; -1 is fine for either.
+     */
+    void add(String eventId, int delta, Callback callback) {
+        withMode(eventId, mode -> addWithMode(eventId, mode.shards, delta, callback), callback::onError);
+    }
+
+    /**
+     * Writes paths under "events/{eventId}" (e.g. a user's rsvpList entry) and moves the count by
+     * delta in the same multi-path update, so the entry and the count change together or not at all.
+     * The count moves with ServerValue.increment, which the server applies without transaction
+     * retries; a base that drifts below zero is clamped by total(). Nothing is written if the
+     * event does not exist (the update would recreate it).
+     * onCommitted receives the total read before the write plus delta (a concurrent change may
+     * make it one off; the next write corrects the summary).
+     */
+    void writeWithCount(String eventId, Map<String, Object> paths, int delta, Callback callback) {
+        withMode(eventId, mode -> readCount(eventId, new CountReader() {
+            @Override
+            public void onRead(Count count) {
+                if (!count.eventExists()) {
+                    callback.onEventMissing();
+                    return;
+                }
+                Map<String, Object> update = new HashMap<>(paths);
+                update.put(mode.shards > 0 ? "attendeeShards/" + random.nextInt(mode.shards) : "attendeeCount",
+                        ServerValue.increment(delta));
+                eventsRef.child(eventId).updateChildren(update, (error, ref) -> {
+                    if (error != null) {
+                        callback.onError(error);
+                    } else {
+                        callback.onCommitted(count.total(delta));
+                    }
+                });
+            }
+
+            @Override
+            public void onError(DatabaseError error) {
+                callback.onError(error);
+            }
+        }), callback::onError);
+    }
+
+    /**
+     * Takes a seat of an event with a capacity for the user: reuses the seat the user already holds
+     * (a replayed RSVP, or a promotion that stopped after taking it), otherwise tries the shards
+     * that had room, starting at a random one, until a transaction commits below its shard's bound.
+     */
+    void reserveSeat(String eventId, String userId, SeatCallback callback) {
+        withMode(eventId, mode -> {
+            if (mode.capacity <= 0 || mode.shards <= 0) {
+                callback.onFull(); // Only events with a capacity have seats; nothing to take
+                return;
+            }
+            readCount(eventId, new CountReader() {
+                @Override
+                public void onRead(Count count) {
+                    if (!count.eventExists()) {
+                        callback.onEventMissing();
+                        return;
+                    }
+                    if (count.seatOf(userId) >= 0) {
+                        callback.onSeated(count.total(0), false);
+                        return;
+                    }
+                    List<Integer> open = new ArrayList<>();
+                    for (int shard = 0; shard < mode.shards; shard++) {
+                        if (count.taken(shard) < seatsInShard(mode.capacity, mode.shards, shard)) open.add(shard);
+                    }
+                    if (open.isEmpty()) {
+                        callback.onFull();
+                        return;
+                    }
+                    int start = open.get(random.nextInt(open.size()));
+                    reserveInShard(eventId, userId, mode, count, start, mode.shards, callback);
+                }
+
+                @Override
+                public void onError(DatabaseError error) {
+                    callback.onError(error);
+                }
+            });
+        }, callback::onError);
+    }
+
+    /**
+     * Removes the user's seat and writes paths under "events/{eventId}" (e.g. removing the
+     * rsvpList entry) in the same update, so a seat is never freed without its holder leaving.
+     */
+    void releaseSeat(String eventId, String userId, Map<String, Object> paths, ReleaseCallback callback) {
+        readCount(eventId, new CountReader() {
+            @Override
+            public void onRead(Count count) {
+                if (!count.eventExists()) {
+                    callback.onEventMissing();
+                    return;
+                }
+                int shard = count.seatOf(userId);
+                if (shard < 0) {
+                    callback.onNoSeat();
+                    return;
+                }
+                Map<String, Object> update = new HashMap<>(paths);
+                update.put(SEATS_NODE + "/" + shard + "/" + userId, null);
+                eventsRef.child(eventId).updateChildren(update, (error, ref) -> {
+                    if (error != null) {
+                        callback.onError(error);
+                    } else {
+                        callback.onCommitted(count.total(-1));
+                    }
+                });
+            }
+
+            @Override
+            public void onError(DatabaseError error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Reads the event's capacity (cached with the shard mode).
+     */
+    void readCapacity(String eventId, CapacityCallback callback) {
+        withMode(eventId, mode -> callback.onCapacity(mode.capacity), callback::onError);
+    }
+
+    /**
+     * Reads the current total (attendeeCount plus all shards and seats).
+     */
+    void readTotal(String eventId, TotalCallback callback) {
+        readCount(eventId, new CountReader() {
+            @Override
+            public void onRead(Count count) {
+                callback.onTotal(count.eventExists() ? count.total(0) : null);
+            }
+
+            @Override
+            public void onError(DatabaseError error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Switches an event to sharded counting for every client (idempotent).
+     */
+    void enableSharding(String eventId) {
+        modes.put(eventId, new Mode(SHARD_COUNT, 0)); // Only unlimited events switch; capacity events start sharded
+        eventsRef.child(eventId).child("attendeeShardCount").setValue(SHARD_COUNT);
+    }
+
+    /**
+     * Sum of the shard children, leaving out one shard (pass -1 to include all).
+     */
+    static int sumShards(DataSnapshot shards, int skipShard) {
+        int sum = 0;
+        for (DataSnapshot shard : shards.getChildren()) {
+            if (String.valueOf(skipShard).equals(shard.getKey())) continue;
+            sum += EventMapper.asInt(shard.getValue());
+        }
+        return sum;
+    }
+
+    /**
+     * Seats taken in the seat shards, leaving out one shard (pass -1 to include all).
+     */
+    static int countSeats(DataSnapshot seats, int skipShard) {
+        int count = 0;
+        for (DataSnapshot shard : seats.getChildren()) {
+            if (String.valueOf(skipShard).equals(shard.getKey())) continue;
+            count += (int) shard.getChildrenCount();
+        }
+        return count;
+    }
+
+    static int total(int base, int shardSum) {
+        return Math.max(0, base + shardSum); // A shard alone may go negative; the total may not
+    }
+
+    /**
+     * Shard count for a new event with this capacity (written as attendeeShardCount).
+     */
+    static int seatShardCount(int capacity) {
+        return Math.min(SHARD_COUNT, capacity);
+    }
+
+    /**
+     * Seats held by one shard; the shares add up to exactly the capacity.
+     */
+    static int seatsInShard(int capacity, int shards, int shard) {
+        return capacity / shards + (shard < capacity % shards ? 1 : 0);
+    }
+
+    /**
+     * Multi-path update that sets an event's count from its attendees (EventIndexChecker recounts
+     * from the rsvpList, e.g. after the same user RSVP'd from two devices at once).
+     * - Events with a capacity seat the attendees shard by shard up to each shard's bound, with the
+     *   base at 0 and no counted shards, so reserveSeat sees exactly capacity - attendees free seats.
+     *   Attendees beyond the capacity (only possible through manual edits) are counted in the base.
+     * - Other events hold the whole count in the base and drop any shards.
+     */
+    static Map<String, Object> recountPaths(String eventId, Collection<String> attendees, int capacity) {
+        String eventPath = EventWriter.EVENTS_NODE + "/" + eventId + "/";
+        Map<String, Object> paths = new HashMap<>();
+        paths.put(eventPath + "attendeeShards", null);
+        if (capacity <= 0) {
+            paths.put(eventPath + "attendeeCount", attendees.size());
+            paths.put(eventPath + SEATS_NODE, null);
+            return paths;
+        }
+        int shards = seatShardCount(capacity);
+        Iterator<String> attendee = attendees.iterator();
+        Map<String, Object> seats = new HashMap<>();
+        for (int shard = 0; shard < shards; shard++) {
+            Map<String, Object> holders = new HashMap<>();
+            for (int seat = seatsInShard(capacity, shards, shard); seat > 0 && attendee.hasNext(); seat--) {
+                holders.put(attendee.next(), Boolean.TRUE);
+            }
+            if (!holders.isEmpty()) seats.put(String.valueOf(shard), holders);
+        }
+        int unseated = 0;
+        for (; attendee.hasNext(); attendee.next()) unseated++;
+        paths.put(eventPath + "attendeeCount", unseated);
+        paths.put(eventPath + SEATS_NODE, seats.isEmpty() ? null : seats);
+        return paths;
+    }
+
+    /**
+     * Calls back with the event's mode, reading attendeeShardCount and capacity once per event.
+     */
+    private void withMode(String eventId, ModeCallback modeCallback, ErrorCallback errorCallback) {
+        Mode cached = modes.get(eventId);
+        if (cached != null) {
+            modeCallback.onMode(cached);
+            return;
+        }
+
+        DatabaseReference eventRef = eventsRef.child(eventId);
+        eventRef.child("capacity").addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot capacity) {
+                eventRef.child("attendeeShardCount").addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(DataSnapshot shards) {
+                        Mode mode = new Mode(EventMapper.asInt(shards.getValue()), EventMapper.asInt(capacity.getValue()));
+                        Mode previous = modes.putIfAbsent(eventId, mode); // enableSharding may have run meanwhile
+                        modeCallback.onMode(previous != null ? previous : mode);
+                    }
+
+                    @Override
+                    public void onCancelled(DatabaseError error) {
+                        errorCallback.onError(error);
+                    }
+                });
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                errorCallback.onError(error);
+            }
+        });
+    }
+
+    private void addWithMode(String eventId, int shards, int delta, Callback callback) {
+        if (shards > 0) {
+            addToShard(eventId, random.nextInt(shards), delta, callback);
+        } else {
+            addToBase(eventId, delta, callback);
+        }
+    }
+
+    private void addToBase(String eventId, int delta, Callback callback) {
+        eventsRef.child(eventId).child("attendeeCount").runTransaction(new Transaction.Handler() {
+            private int serverRuns = 0; // Runs on a real value; each one after the first lost a race
+
+            @Override
+            public Transaction.Result doTransaction(MutableData currentData) {
+                if (currentData.getValue() == null) {
+                    // Usually just not cached yet: commit "no change" and let the server either
+                    // confirm the event is gone or send the real value for another run
+                    return Transaction.success(currentData);
+                }
+                serverRuns++;
+                int count = EventMapper.asInt(currentData.getValue());
+                currentData.setValue(Math.max(0, count + delta));
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                if (serverRuns - 1 >= contentionThreshold) {
+                    enableSharding(eventId); // Later RSVPs on this event spread over the shards
+                }
+                if (error != null) {
+                    callback.onError(error);
+                } else if (currentData == null || currentData.getValue() == null) {
+                    callback.onEventMissing();
+                } else {
+                    callback.onCommitted(EventMapper.asInt(currentData.getValue()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Checks that the event still exists (a shard write must not recreate a deleted event),
+     * then adds to one shard and computes the total from that read plus the committed shard.
+     */
+    private void addToShard(String eventId, int shard, int delta, Callback callback) {
+        readCount(eventId, new CountReader() {
+            @Override
+            public void onRead(Count count) {
+                if (!count.eventExists()) {
+                    callback.onEventMissing();
+                    return;
+                }
+                eventsRef.child(eventId).child("attendeeShards").child(String.valueOf(shard))
+                        .runTransaction(new Transaction.Handler() {
+                            @Override
+                            public Transaction.Result doTransaction(MutableData currentData) {
+                                currentData.setValue(EventMapper.asInt(currentData.getValue()) + delta); // Missing = 0
+                                return Transaction.success(currentData);
+                            }
+
+                            @Override
+                            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                                if (error != null) {
+                                    callback.onError(error);
+                                    return;
+                                }
+                                int shardValue = EventMapper.asInt(currentData.getValue());
+                                callback.onCommitted(count.total(shardValue - count.counted(shard)));
+                            }
+                        });
+            }
+
+            @Override
+            public void onError(DatabaseError error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    /**
+     * One seat transaction; a full shard aborts and the next shard is tried, until all were.
+     * The local value may be stale when it aborts, in which case the caller waitlists the user
+     * and the waitlist promotion picks up the seat.
+     */
+    private void reserveInShard(String eventId, String userId, Mode mode, Count count,
+                                int shard, int attemptsLeft, SeatCallback callback) {
+        int seats = seatsInShard(mode.capacity, mode.shards, shard);
+        int counted = count.counted(shard); // Seats taken before holders were recorded
+        eventsRef.child(eventId).child(SEATS_NODE).child(String.valueOf(shard))
+                .runTransaction(new Transaction.Handler() {
+                    private boolean alreadyHeld; // Taken by the user meanwhile (e.g. on another device)
+
+                    @Override
+                    public Transaction.Result doTransaction(MutableData currentData) {
+                        alreadyHeld = currentData.hasChild(userId);
+                        if (alreadyHeld) {
+                            return Transaction.success(currentData);
+                        }
+                        if (currentData.getChildrenCount() + counted >= seats) {
+                            return Transaction.abort();
+                        }
+                        currentData.child(userId).setValue(Boolean.TRUE);
+                        return Transaction.success(currentData);
+                    }
+
+                    @Override
+                    public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                        if (error != null) {
+                            callback.onError(error);
+                        } else if (committed) {
+                            int taken = (int) currentData.getChildrenCount();
+                            callback.onSeated(count.total(taken - count.seated(shard)), !alreadyHeld);
+                        } else if (attemptsLeft > 1) {
+                            reserveInShard(eventId, userId, mode, count, (shard + 1) % mode.shards,
+                                    attemptsLeft - 1, callback);
+                        } else {
+                            callback.onFull();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * One read of an event's count: the base, the counted shards and the seat holders.
+     */
+    private static final class Count {
+        final DataSnapshot base;   // "attendeeCount"; null value if the event does not exist
+        final DataSnapshot shards; // "attendeeShards"
+        final DataSnapshot seats;  // SEATS_NODE
+
+        Count(DataSnapshot base, DataSnapshot shards, DataSnapshot seats) {
+            this.base = base;
+            this.shards = shards;
+            this.seats = seats;
+        }
+
+        boolean eventExists() {
+            return base.getValue() != null;
+        }
+
+        /**
+         * @return the total as read, adjusted by change (e.g. +1 for a seat taken since)
+         */
+        int total(int change) {
+            return AttendeeCounter.total(EventMapper.asInt(base.getValue()),
+                    sumShards(shards, -1) + countSeats(seats, -1) + change);
+        }
+
+        int counted(int shard) {
+            return EventMapper.asInt(shards.child(String.valueOf(shard)).getValue());
+        }
+
+        int seated(int shard) {
+            return (int) seats.child(String.valueOf(shard)).getChildrenCount();
+        }
+
+        int taken(int shard) {
+            return counted(shard) + seated(shard);
+        }
+
+        /**
+         * @return the shard holding the user's seat, or -1
+         */
+        int seatOf(String userId) {
+            for (DataSnapshot shard : seats.getChildren()) {
+                if (shard.hasChild(userId)) return EventMapper.asInt(shard.getKey());
+            }
+            return -1;
+        }
+    }
+
+    private interface CountReader {
+        void onRead(Count count);
+        void onError(DatabaseError error);
+    }
+
+    /**
+     * Reads the attendeeCount leaf and the shard and seat nodes in parallel (never the whole event).
+     * The seat nodes grow with the seats taken (about 30 bytes each), bounded by the capacity.
+     */
+    private void readCount(String eventId, CountReader reader) {
+        DatabaseReference eventRef = eventsRef.child(eventId);
+        String[] children = {"attendeeCount", "attendeeShards", SEATS_NODE};
+        DataSnapshot[] read = new DataSnapshot[children.length];
+        int[] pending = {children.length};
+        boolean[] failed = {false}; // Report only the first error
+        for (int i = 0; i < children.length; i++) {
+            int index = i;
+            eventRef.child(children[i]).addListenerForSingleValueEvent(new ValueEventListener() {
+                @Override
+                public void onDataChange(DataSnapshot snapshot) {
+                    read[index] = snapshot;
+                    if (--pending[0] == 0 && !failed[0]) {
+                        reader.onRead(new Count(read[0], read[1], read[2]));
+                    }
+                }
+
+                @Override
+                public void onCancelled(DatabaseError error) {
+                    if (!failed[0]) {
+                        failed[0] = true;
+                        reader.onError(error);
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.peekeventproject;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+
+import com.example.peekeventproject.eventbundle.EventBundle;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The event bundle shipped in assets (built by :bundlegen), used as the starting point of the
+ * first sync so a new install shows events without downloading the whole summaries node.
+ * - The asset is stored uncompressed (noCompress in app/build.gradle) and memory-mapped
+ *   straight from the APK: nothing is copied or parsed up front.
+ * - Only records of today-or-later events become EventSummary objects; the end time is read
+ *   from the mapped record first, so ended events are never decoded. Those are all decoded
+ *   at once by upcoming(), since the first sync merges every one of them into the feed.
+ */
+final class BundledEvents {
+
+    static final String ASSET = "events.bundle";
+
+    private BundledEvents() {
+    }
+
+    /**
+     * Maps the bundle; call off the main thread (the first page faults read from the APK).
+     * @return null if this build ships no bundle, or it is unreadable
+     */
+    static EventBundle open(Context context) {
+        try (AssetFileDescriptor descriptor = context.getAssets().openFd(ASSET);
+             FileInputStream in = descriptor.createInputStream()) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = in.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                    descriptor.getStartOffset(), descriptor.getLength());
+            return EventBundle.wrap(buffer);
+        } catch (IOException | IllegalArgumentException e) {
+            return null; // Not shipped (or compressed by a misconfigured build): sync normally
+        }
+    }
+
+    /**
+     * @return summaries of bundled events that end today or later, in the bundle's (ID) order
+     * @throws IllegalArgumentException if a record is corrupt (see EventBundle)
+     */
+    static List<EventSummary> upcoming(EventBundle bundle, long startOfToday) {
+        List<EventSummary> summaries = new ArrayList<>();
+        for (int i = 0; i < bundle.size(); i++) {
+            if (EventTimeCodec.isFutureOrToday(bundle.endEpochMillis(i), startOfToday)) {
+                summaries.add(summaryAt(bundle, i));
+            }
+        }
+        return summaries;
+    }
+
+    static EventSummary summaryAt(EventBundle bundle, int index) {
+        boolean located = bundle.hasCoordinates(index);
+        // Bundle strings are already one per distinct value; pooling shares them with synced ones too
+        return new EventSummary(bundle.eventId(index), bundle.title(index), bundle.category(index),
+                StringPool.canonical(bundle.date(index)), StringPool.canonical(bundle.time(index)),
+                StringPool.canonical(bundle.location(index)), StringPool.canonical(bundle.zone(index)),
+                bundle.imageUrl(index), bundle.attendeeCount(index), bundle.capacity(index),
+                bundle.startEpochMillis(index), bundle.endEpochMillis(index),
+                located ? bundle.latitude(index) : null, located ? bundle.longitude(index) : null,
+                bundle.geohash(index));
+    }
+}
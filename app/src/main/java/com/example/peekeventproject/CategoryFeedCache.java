@@ -0,0 +1,71 @@
+package com.example.peekeventproject;
+
+import android.os.SystemClock;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-category feed results, so tapping a category chip again reuses the last query
+ * instead of downloading that category's events again.
+ * - Each category keeps its own EventTimeIndex (already sorted, ready to display).
+ * - Entries expire after MAX_AGE_MS so a long-lived feed still picks up other users' events.
+ * - Local changes (new events, live counts) are applied to the cached indexes in place.
+ *
+ * Main thread only.
+ */
+final class CategoryFeedCache {
+
+    private static final long MAX_AGE_MS = 5 * 60 * 1000;
+
+    private static final class Entry {
+        final EventTimeIndex index;
+        final long loadedAt;
+
+        Entry(EventTimeIndex index, long loadedAt) {
+            this.index = index;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * @return the cached index for a category, or null if it was never loaded or has expired
+     */
+    EventTimeIndex get(String category) {
+        Entry entry = entries.get(category);
+        if (entry == null) return null;
+        if (SystemClock.elapsedRealtime() - entry.loadedAt > MAX_AGE_MS) {
+            entries.remove(category);
+            return null;
+        }
+        return entry.index;
+    }
+
+    void put(String category, EventTimeIndex index) {
+        entries.put(category, new Entry(index, SystemClock.elapsedRealtime()));
+    }
+
+    /**
+     * Adds or replaces an event in its category's index, if that category is cached.
+     */
+    void upsert(EventSummary summary) {
+        Entry entry = entries.get(EventCategory.normalize(summary.getCategory()));
+        if (entry != null) {
+            entry.index.upsert(summary);
+        }
+    }
+
+    /**
+     * Applies a live attendee count to whichever cached index holds the event.
+     */
+    void updateAttendeeCount(String eventId, int newCount) {
+        for (Entry entry : entries.values()) {
+            EventSummary summary = entry.index.get(eventId);
+            if (summary != null && summary.getAttendeeCount() != newCount) {
+                entry.index.upsert(summary.withAttendeeCount(newCount));
+            }
+        }
+    }
+}
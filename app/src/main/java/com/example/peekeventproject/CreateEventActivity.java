@@ -25,11 +25,8 @@ import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.storage.FirebaseStorage;
-import com.google.firebase.storage.StorageReference;
 
 import java.util.Calendar;
-import java.util.Locale;
 
 public class CreateEventActivity extends AppCompatActivity {
 
@@ -42,14 +39,13 @@ public class CreateEventActivity extends AppCompatActivity {
 
     // UI components
     private ImageView eventImageView;
-    private EditText titleInput, descriptionInput, dateInput, timeInput, locationInput, zoneInput, attendeesInput;
+    private EditText titleInput, descriptionInput, dateInput, timeInput, locationInput, zoneInput, capacityInput;
     private Spinner categorySpinner;
     private Button submitButton;
     private EditText eventTimeInput; // Used for selecting start-end time
 
-    // Firebase references
+    // Firebase reference, used to generate event IDs (writes go through MutationOutbox)
     private DatabaseReference eventRef;
-    private StorageReference storageRef;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -60,9 +56,8 @@ public class CreateEventActivity extends AppCompatActivity {
         bindViews();
         setupBottomNavigation();
 
-        // Initialize Firebase references
+        // Initialize Firebase reference
         eventRef = FirebaseDatabase.getInstance().getReference("events");
-        storageRef = FirebaseStorage.getInstance().getReference("event_images");
 
         // Set click listeners
         eventImageView.setOnClickListener(v -> checkStoragePermissionAndOpenFileChooser()); // Select image
@@ -82,7 +77,7 @@ public class CreateEventActivity extends AppCompatActivity {
         timeInput = findViewById(R.id.event_time_input);
         locationInput = findViewById(R.id.location_input);
         zoneInput = findViewById(R.id.tukatune_zone_input);
-        attendeesInput = findViewById(R.id.attendee_count_input);
+        capacityInput = findViewById(R.id.capacity_input);
         categorySpinner = findViewById(R.id.event_category_spinner);
         eventImageView = findViewById(R.id.eventImageView);
         submitButton = findViewById(R.id.submit_button);
@@ -150,7 +145,9 @@ public class CreateEventActivity extends AppCompatActivity {
     }
 
     /**
-     * Uploads event data and image to Firebase Storage and Database
+     * Validates the form and queues the new event in MutationOutbox.
+     * The screen closes as soon as the event is stored on the device; the image upload and
+     * database writes happen in the background and are retried until they succeed.
      */
     private void uploadEventData() {
         // Collect input values
@@ -161,11 +158,11 @@ public class CreateEventActivity extends AppCompatActivity {
         String time = timeInput.getText().toString().trim();
         String location = locationInput.getText().toString().trim();
         String zone = zoneInput.getText().toString().trim();
-        String attendeesStr = attendeesInput.getText().toString().trim();
+        String capacityStr = capacityInput.getText().toString().trim();
 
         // Validate fields
         if (title.isEmpty() || category.isEmpty() || description.isEmpty() || date.isEmpty() ||
-                time.isEmpty() || location.isEmpty() || zone.isEmpty() || attendeesStr.isEmpty()) {
+                time.isEmpty() || location.isEmpty() || zone.isEmpty()) {
             Toast.makeText(this, "Please fill all fields", Toast.LENGTH_SHORT).show();
             return;
         }
@@ -175,59 +172,70 @@ public class CreateEventActivity extends AppCompatActivity {
             return;
         }
 
-        int attendeeCount;
-        try {
-            attendeeCount = Integer.parseInt(attendeesStr);
-        } catch (NumberFormatException e) {
-            Toast.makeText(this, "Invalid attendee count", Toast.LENGTH_SHORT).show();
+        if (EventTimeCodec.parseDate(date) == null) {
+            Toast.makeText(this, "Please pick a valid date", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        // Generate a unique event ID using firebase
+        // Capacity is optional; empty means anyone can RSVP
+        int capacity = 0;
+        if (!capacityStr.isEmpty()) {
+            try {
+                capacity = Integer.parseInt(capacityStr);
+            } catch (NumberFormatException e) {
+                Toast.makeText(this, "Invalid capacity", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            if (capacity <= 0) {
+                Toast.makeText(this, "Capacity must be at least 1", Toast.LENGTH_SHORT).show();
+                return;
+            }
+        }
+
+        // Generate a unique event ID using firebase (works offline, keys are made on the device)
         String eventId = eventRef.push().getKey();
         if (eventId == null) {
             Toast.makeText(this, "Failed to generate event ID", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        // Show loading state on button
+        // Show loading state on button while the image is copied
         submitButton.setEnabled(false);
         submitButton.setText("Creating Event...");
 
-        // Upload image to Firebase Storage (organized by eventId folder)
-        StorageReference fileRef = storageRef.child(eventId + "/" + System.currentTimeMillis() + "." + getFileExtension(imageUri));
-
-        fileRef.putFile(imageUri)
-                .addOnSuccessListener(taskSnapshot ->
-                        fileRef.getDownloadUrl().addOnSuccessListener(uri -> {
-                            String imageUrl = uri.toString();
-
-                            // Create Event object with details
-                            Event event = new Event(eventId, title, category, description, date, time, location, zone, attendeeCount);
-                            event.setImageUrl(imageUrl);
-                            event.setCreatorId(FirebaseAuth.getInstance().getCurrentUser().getUid()); // Store user ID
-
-                            // Save event to Firebase Database
-                            eventRef.child(eventId).setValue(event)
-                                    .addOnCompleteListener(task -> {
-                                        if (task.isSuccessful()) {
-                                            Toast.makeText(this, "Event created successfully!", Toast.LENGTH_SHORT).show();
-
-                                            // Send event back to MainActivity
-                                            Intent resultIntent = new Intent();
-                                            resultIntent.putExtra("event", event);
-                                            setResult(RESULT_OK, resultIntent);
-                                            finish();
-                                        } else {
-                                            Toast.makeText(this, "Failed to create event", Toast.LENGTH_SHORT).show();
-                                            resetSubmitButton();
-                                        }
-                                    });
-                        })
-                )
-                .addOnFailureListener(e -> {
-                    Toast.makeText(this, "Image upload failed: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                    resetSubmitButton();
+        // Create Event object with details
+        Event event = new Event(eventId, title, category, description, date, time, location, zone, 0);
+        event.setCapacity(capacity); // Nobody is going yet; RSVPs fill the seats
+        event.setCreatorId(FirebaseAuth.getInstance().getCurrentUser().getUid()); // Store user ID
+        EventTimeCodec.applyTo(event); // Parsed once here; readers compare the epoch fields
+        queueEvent(event);
+    }
+
+    /**
+     * Hands the event to the outbox, which uploads the image and writes it in the background.
+     */
+    private void queueEvent(Event event) {
+        MutationOutbox.getInstance(this).enqueueCreate(event, imageUri, getFileExtension(imageUri),
+                new MutationOutbox.QueueCallback() {
+                    @Override
+                    public void onQueued(Uri localImage) {
+                        // Coordinates are optional: without them the event just never shows up in nearby queries
+                        EventGeocoder.locate(CreateEventActivity.this, event.getEventId(), event.getLocation());
+                        Toast.makeText(CreateEventActivity.this, "Event created successfully!", Toast.LENGTH_SHORT).show();
+
+                        // Send event back to MainActivity, showing the local image until the upload is done
+                        event.setImageUrl(localImage.toString());
+                        Intent resultIntent = new Intent();
+                        resultIntent.putExtra("event", event);
+                        setResult(RESULT_OK, resultIntent);
+                        finish();
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        Toast.makeText(CreateEventActivity.this, error, Toast.LENGTH_SHORT).show();
+                        resetSubmitButton();
+                    }
                 });
     }
 
@@ -299,10 +307,9 @@ public class CreateEventActivity extends AppCompatActivity {
         int day = calendar.get(Calendar.DAY_OF_MONTH);
 
         DatePickerDialog datePickerDialog = new DatePickerDialog(this,
-                (view, year1, month1, dayOfMonth) -> {
-                    String selectedDate = String.format(Locale.getDefault(), "%02d/%02d/%04d", dayOfMonth, month1 + 1, year1);
-                    dateInput.setText(selectedDate);
-                }, year, month, day);
+                (view, year1, month1, dayOfMonth) ->
+                        dateInput.setText(EventTimeCodec.formatDate(year1, month1 + 1, dayOfMonth)),
+                year, month, day);
 
         datePickerDialog.getDatePicker().setMinDate(System.currentTimeMillis() - 1000); // Prevent past dates
         datePickerDialog.show();
@@ -317,10 +324,7 @@ public class CreateEventActivity extends AppCompatActivity {
         int minute = calendar.get(Calendar.MINUTE);
 
         new TimePickerDialog(this, (view, startHour, startMinute) -> {
-            Calendar startTime = Calendar.getInstance();
-            startTime.set(Calendar.HOUR_OF_DAY, startHour);
-            startTime.set(Calendar.MINUTE, startMinute);
-            String formattedStart = formatTime(startTime);
+            String formattedStart = EventTimeCodec.formatTime(startHour, startMinute);
 
             showEndTimePicker(formattedStart); // After picking start time, ask for end time
 
@@ -336,21 +340,10 @@ public class CreateEventActivity extends AppCompatActivity {
         int minute = calendar.get(Calendar.MINUTE);
 
         new TimePickerDialog(this, (view, endHour, endMinute) -> {
-            Calendar endTime = Calendar.getInstance();
-            endTime.set(Calendar.HOUR_OF_DAY, endHour);
-            endTime.set(Calendar.MINUTE, endMinute);
-            String formattedEnd = formatTime(endTime);
+            String formattedEnd = EventTimeCodec.formatTime(endHour, endMinute);
 
-            eventTimeInput.setText(formattedStart + " - " + formattedEnd); // Show time range
+            eventTimeInput.setText(EventTimeCodec.formatTimeRange(formattedStart, formattedEnd)); // Show time range
 
         }, hour, minute, false).show();
     }
-
-    /**S
-     * Helper method to format time into "hh:mm AM/PM"
-     */
-    private String formatTime(Calendar time) {
-        java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("hh:mm a", Locale.getDefault());
-        return sdf.format(time.getTime());
-    }
 }
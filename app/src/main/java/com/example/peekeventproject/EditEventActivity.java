@@ -10,12 +10,10 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.Locale;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class EditEventActivity extends AppCompatActivity {
 
@@ -25,8 +23,7 @@ public class EditEventActivity extends AppCompatActivity {
     private Button saveChangesButton;
     private EditText editEventTime; // Used for picking start/end time
 
-    private Event event; // Event object passed from previous activity
-    private DatabaseReference databaseRef; // Firebase Database reference
+    private EventSnapshot event; // Event loaded by the ID passed from previous activity; never changed
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -46,31 +43,50 @@ public class EditEventActivity extends AppCompatActivity {
         // Allow user to pick a start/end time when clicking time field
         editEventTime.setOnClickListener(v -> showStartTimePicker());
 
-        // Retrieve the Event object sent from the adapter
-        event = (Event) getIntent().getSerializableExtra("event");
-        if (event == null) {
+        // Retrieve the event ID sent from the adapter
+        String eventId = getIntent().getStringExtra("eventId");
+        if (eventId == null) {
             // If no event is passed, show an error and close the screen
             Toast.makeText(this, "No event data", Toast.LENGTH_SHORT).show();
             finish();
             return;
         }
 
-        // Populate UI fields with existing event data
-        titleEditText.setText(event.getTitle());
-        categoryEditText.setText(event.getCategory());
-        dateEditText.setText(event.getDate());
-        timeEditText.setText(event.getTime());
-        locationEditText.setText(event.getLocation());
-        zoneEditText.setText(event.getZone());
-
-        // Get reference to Firebase "events" node
-        databaseRef = FirebaseDatabase.getInstance().getReference("events");
-
         // Open date picker when user clicks on the date field
         dateEditText.setOnClickListener(v -> showDatePicker());
 
-        // Save button updates event in Firebase when clicked
+        // Save button updates event in Firebase when clicked (enabled once the event is loaded)
         saveChangesButton.setOnClickListener(v -> updateEvent());
+        saveChangesButton.setEnabled(false);
+
+        loadEvent(eventId);
+    }
+
+    /**
+     * Fetches the latest full event, so saving never overwrites newer RSVPs with stale data.
+     */
+    private void loadEvent(String eventId) {
+        new EventLoader().loadEvent(eventId, new EventLoader.EventLoadCallback() {
+            @Override
+            public void onEventsLoaded(List<EventSnapshot> events) {
+                event = events.get(0);
+
+                // Populate UI fields with existing event data
+                titleEditText.setText(event.getTitle());
+                categoryEditText.setText(event.getCategory());
+                dateEditText.setText(event.getDate());
+                timeEditText.setText(event.getTime());
+                locationEditText.setText(event.getLocation());
+                zoneEditText.setText(event.getZone());
+                saveChangesButton.setEnabled(true);
+            }
+
+            @Override
+            public void onError(String error) {
+                Toast.makeText(EditEventActivity.this, error, Toast.LENGTH_SHORT).show();
+                finish();
+            }
+        });
     }
 
     /**
@@ -80,7 +96,7 @@ public class EditEventActivity extends AppCompatActivity {
         final Calendar calendar = Calendar.getInstance();
         DatePickerDialog dialog = new DatePickerDialog(this,
                 (view, year, month, dayOfMonth) ->
-                        dateEditText.setText(dayOfMonth + "/" + (month + 1) + "/" + year),
+                        dateEditText.setText(EventTimeCodec.formatDate(year, month + 1, dayOfMonth)),
                 calendar.get(Calendar.YEAR),
                 calendar.get(Calendar.MONTH),
                 calendar.get(Calendar.DAY_OF_MONTH));
@@ -98,10 +114,7 @@ public class EditEventActivity extends AppCompatActivity {
 
         TimePickerDialog startTimeDialog = new TimePickerDialog(this, (view, startHour, startMinute) -> {
             // Format selected start time
-            Calendar startTime = Calendar.getInstance();
-            startTime.set(Calendar.HOUR_OF_DAY, startHour);
-            startTime.set(Calendar.MINUTE, startMinute);
-            String formattedStart = formatTime(startTime);
+            String formattedStart = EventTimeCodec.formatTime(startHour, startMinute);
 
             // After choosing start time, prompt for end time
             showEndTimePicker(formattedStart);
@@ -121,33 +134,23 @@ public class EditEventActivity extends AppCompatActivity {
 
         TimePickerDialog endTimeDialog = new TimePickerDialog(this, (view, endHour, endMinute) -> {
             // Format selected end time
-            Calendar endTime = Calendar.getInstance();
-            endTime.set(Calendar.HOUR_OF_DAY, endHour);
-            endTime.set(Calendar.MINUTE, endMinute);
-            String formattedEnd = formatTime(endTime);
+            String formattedEnd = EventTimeCodec.formatTime(endHour, endMinute);
 
             // Show full range in time field
-            editEventTime.setText(formattedStart + " - " + formattedEnd);
+            editEventTime.setText(EventTimeCodec.formatTimeRange(formattedStart, formattedEnd));
 
         }, hour, minute, false); // false = use 12-hour format
         endTimeDialog.show();
     }
 
     /**
-     * Helper method to format a Calendar object into "hh:mm AM/PM".
-     */
-    private String formatTime(Calendar time) {
-        SimpleDateFormat sdf = new SimpleDateFormat("hh:mm a", Locale.getDefault());
-        return sdf.format(time.getTime());
-    }
-
-    /**
-     * Validates input, updates event object, and saves changes to Firebase.
+     * Validates input, updates event object, and queues the changed fields in MutationOutbox.
+     * The outbox writes them to the event and its feed summary, retrying while offline.
      */
     private void updateEvent() {
         // Get user inputs from fields
         String title = titleEditText.getText().toString().trim();
-        String category = categoryEditText.getText().toString().trim();
+        String category = EventCategory.normalize(categoryEditText.getText().toString()); // Exact label, for category queries
         String date = dateEditText.getText().toString().trim();
         String time = timeEditText.getText().toString().trim();
         String location = locationEditText.getText().toString().trim();
@@ -159,23 +162,41 @@ public class EditEventActivity extends AppCompatActivity {
             Toast.makeText(this, "Please fill in all required fields", Toast.LENGTH_SHORT).show();
             return;
         }
+        if (EventTimeCodec.parseDate(date) == null) {
+            Toast.makeText(this, "Please pick a valid date", Toast.LENGTH_SHORT).show();
+            return;
+        }
 
-        // Update event object with new details
-        event.setTitle(title);
-        event.setCategory(category);
-        event.setDate(date);
-        event.setTime(time);
-        event.setLocation(location);
-        event.setZone(zone);
-
-        // Push updated event object back to Firebase using its ID
-        databaseRef.child(event.getEventId()) // eventId must exist in Event class
-                .setValue(event)
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(EditEventActivity.this, "Event updated", Toast.LENGTH_SHORT).show();
-                    finish(); // Close activity after saving
-                })
-                .addOnFailureListener(e ->
-                        Toast.makeText(EditEventActivity.this, "Failed to update event", Toast.LENGTH_SHORT).show());
+        // A new location needs new coordinates; they are looked up after saving
+        boolean locationChanged = !location.equals(event.getLocation());
+
+        // Derive the edited event; the loaded one stays as it was
+        EventSnapshot changed = event.buildUpon()
+                .title(title)
+                .category(category)
+                .date(date)
+                .time(time)
+                .location(location)
+                .zone(zone)
+                .parseTimes()
+                .build();
+
+        // Only the edited fields are written, so RSVPs made meanwhile are kept
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("title", title);
+        changes.put("category", category);
+        changes.put("date", date);
+        changes.put("time", time);
+        changes.put("location", location);
+        changes.put("zone", zone);
+        changes.put("startEpochMillis", changed.getStartEpochMillis());
+        changes.put("endEpochMillis", changed.getEndEpochMillis());
+
+        MutationOutbox.getInstance(this).enqueueEdit(event.getEventId(), changes);
+        if (locationChanged) {
+            EventGeocoder.locate(this, event.getEventId(), location);
+        }
+        Toast.makeText(EditEventActivity.this, "Event updated", Toast.LENGTH_SHORT).show();
+        finish(); // Close activity after saving
     }
 }
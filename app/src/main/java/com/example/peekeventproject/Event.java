@@ -1,5 +1,7 @@
 package com.example.peekeventproject;
 
+import com.google.firebase.database.Exclude;
+
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
@@ -20,16 +22,20 @@ public class Event implements Serializable {
     private String location;       // Venue or address
     private String zone;           // Additional location detail (e.g., Tukatune Zone)
     private int attendeeCount;     // Current number of attendees (RSVP count)
+    private int capacity;          // Maximum attendees, later RSVPs are waitlisted (0 = unlimited)
     private String imageUrl;       // Download URL for event image stored in Firebase Storage
     private String creatorId;      // ID of the user who created the event
-    private Map<String, Boolean> rsvpList; // Maps userId → true if RSVP’d
+    private long startEpochMillis; // date + start time, parsed once by EventTimeCodec (0 = unknown)
+    private long endEpochMillis;   // date + end time (or end of day), used for sorting and expiry
+    private Double latitude;       // Optional coordinates of the location (null when unknown)
+    private Double longitude;
+    private String geohash;        // GeoHash of the coordinates, indexed for nearby queries
+    private RsvpSet rsvps;         // Users attending; null until the first RSVP (most events have few or none)
 
     /**
      * Default constructor required by Firebase
-     * Initializes RSVP list to prevent null pointer exceptions.
      */
     public Event() {
-        this.rsvpList = new HashMap<>();
     }
 
     /**
@@ -48,7 +54,6 @@ public class Event implements Serializable {
         this.zone = zone;
         this.attendeeCount = attendeeCount;
         this.imageUrl = null;              // Image is optional, can be set later
-        this.rsvpList = new HashMap<>();   // Start with empty RSVP list
     }
 
     // ---------------------------
@@ -63,14 +68,29 @@ public class Event implements Serializable {
     public String getLocation() { return location; }
     public String getZone() { return zone; }
     public int getAttendeeCount() { return attendeeCount; }
+    public int getCapacity() { return capacity; }
     public String getImageUrl() { return imageUrl; }
     public String getCreatorId() { return creatorId; }
+    public long getStartEpochMillis() { return startEpochMillis; }
+    public long getEndEpochMillis() { return endEpochMillis; }
+    public Double getLatitude() { return latitude; }
+    public Double getLongitude() { return longitude; }
+    public String getGeohash() { return geohash; }
 
     /**
-     * Returns RSVP list safely (never null).
+     * Returns the RSVP list in Firebase's wire format (userId → true), never null.
+     * Builds a new map on each call; use hasUserRsvpd / rsvps() for lookups.
      */
     public Map<String, Boolean> getRsvpList() {
-        return rsvpList != null ? rsvpList : new HashMap<>();
+        return rsvps != null ? rsvps.toMap() : new HashMap<>();
+    }
+
+    /**
+     * Returns the attending users, or null if nobody has RSVP'd.
+     * Not a getter on purpose, so Firebase does not serialize it next to rsvpList.
+     */
+    public RsvpSet rsvps() {
+        return rsvps;
     }
 
     // ---------------------------
@@ -85,14 +105,70 @@ public class Event implements Serializable {
     public void setLocation(String location) { this.location = location; }
     public void setZone(String zone) { this.zone = zone; }
     public void setAttendeeCount(int attendeeCount) { this.attendeeCount = attendeeCount; }
+    public void setCapacity(int capacity) { this.capacity = Math.max(0, capacity); }
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
     public void setCreatorId(String creatorId) { this.creatorId = creatorId; }
+    public void setStartEpochMillis(long startEpochMillis) { this.startEpochMillis = startEpochMillis; }
+    public void setEndEpochMillis(long endEpochMillis) { this.endEpochMillis = endEpochMillis; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    public void setGeohash(String geohash) { this.geohash = geohash; }
+
+    /**
+     * Sets the coordinates and the matching geohash, or clears all three when either is null.
+     */
+    public void setCoordinates(Double latitude, Double longitude) {
+        boolean known = latitude != null && longitude != null && GeoHash.isValid(latitude, longitude);
+        this.latitude = known ? latitude : null;
+        this.longitude = known ? longitude : null;
+        this.geohash = known ? GeoHash.encode(latitude, longitude, GeoHash.STORED_PRECISION) : null;
+    }
 
     /**
-     * Sets RSVP list safely (replaces null with an empty list).
+     * Sets RSVP list from the wire format; users mapped to false are not attending and are dropped.
      */
     public void setRsvpList(Map<String, Boolean> rsvpList) {
-        this.rsvpList = rsvpList != null ? rsvpList : new HashMap<>();
+        setRsvps(rsvpList != null ? RsvpSet.fromMap(rsvpList) : null);
+    }
+
+    /**
+     * Sets the attending users directly (used by EventMapper).
+     * Excluded so Firebase's reflective mapper only knows the rsvpList property.
+     */
+    @Exclude
+    public void setRsvps(RsvpSet rsvps) {
+        this.rsvps = rsvps != null && !rsvps.isEmpty() ? rsvps : null;
+    }
+
+    /**
+     * Wire format written to "events/{eventId}" (the same keys EventMapper reads).
+     * Built by hand so writes do not go through reflection.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("eventId", eventId);
+        map.put("title", title);
+        map.put("category", category);
+        map.put("description", description);
+        map.put("date", date);
+        map.put("time", time);
+        map.put("location", location);
+        map.put("zone", zone);
+        map.put("attendeeCount", attendeeCount);
+        map.put("capacity", capacity);
+        if (capacity > 0) {
+            // Seats are taken from bounded shards from the start (see AttendeeCounter)
+            map.put("attendeeShardCount", AttendeeCounter.seatShardCount(capacity));
+        }
+        map.put("imageUrl", imageUrl);
+        map.put("creatorId", creatorId);
+        map.put("startEpochMillis", startEpochMillis);
+        map.put("endEpochMillis", endEpochMillis);
+        map.put("latitude", latitude);
+        map.put("longitude", longitude);
+        map.put("geohash", geohash);
+        map.put("rsvpList", getRsvpList());
+        return map;
     }
 
     // ---------------------------
@@ -105,7 +181,7 @@ public class Event implements Serializable {
      * @return true if the user RSVP’d, false otherwise
      */
     public boolean hasUserRsvpd(String userId) {
-        return rsvpList != null && rsvpList.containsKey(userId) && rsvpList.get(userId);
+        return rsvps != null && rsvps.contains(userId);
     }
 
     /**
@@ -114,24 +190,25 @@ public class Event implements Serializable {
      * @param userId ID of the user
      */
     public void addRsvp(String userId) {
-        if (rsvpList == null) {
-            rsvpList = new HashMap<>();
+        if (rsvps == null) {
+            rsvps = new RsvpSet();
         }
-        if (!rsvpList.containsKey(userId) || !rsvpList.get(userId)) {
-            rsvpList.put(userId, true);
+        if (rsvps.add(userId)) {
             attendeeCount++; // Increment count when new RSVP is added
         }
     }
 
     /**
      * Removes RSVP for a user.
-     * Marks user as not attending and decreases attendee count (cannot go below zero).
+     * Drops the user from the attending set and decreases attendee count (cannot go below zero).
      * @param userId ID of the user
      */
     public void removeRsvp(String userId) {
-        if (rsvpList != null && rsvpList.containsKey(userId) && rsvpList.get(userId)) {
-            rsvpList.put(userId, false);
+        if (rsvps != null && rsvps.remove(userId)) {
             attendeeCount = Math.max(0, attendeeCount - 1); // Prevent negative count
+            if (rsvps.isEmpty()) {
+                rsvps = null;
+            }
         }
     }
 }
@@ -11,28 +11,56 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
- * RecyclerView Adapter to display a list of Event objects in card format.
+ * RecyclerView Adapter to display a list of EventSummary objects in card format.
+ * Cards only need the summary; the detail and edit screens fetch the full Event by ID.
  * Uses ViewHolder pattern for performance.
+ *
+ * With sections enabled the list must be in EventTimeIndex.BY_START order; a header row
+ * ("Today", "This week", ...) is shown before each non-empty section. Adapter positions then
+ * differ from list indexes: use eventIndexAt / adapterPositionOf to convert.
  */
-public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder> {
+public class EventAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
-    private List<Event> eventList;
+    // Payload for notifyItemChanged() when only the attendee count changed (skips image reload)
+    public static final Object PAYLOAD_ATTENDEE_COUNT = new Object();
+
+    private static final int VIEW_TYPE_EVENT = 0;
+    private static final int VIEW_TYPE_SECTION_HEADER = 1;
+
+    private List<EventSummary> eventList;
     private final Context context;          // Needed to start new activities
     private final boolean showEditButton;
+    private final boolean showSections;
+
+    // Non-empty sections in order: their section and the list index of their first event.
+    // The header of section k sits at adapter position headerEventIndex[k] + k.
+    private final EventTimeIndex.Section[] headerSections = new EventTimeIndex.Section[EventTimeIndex.Section.values().length];
+    private final int[] headerEventIndex = new int[EventTimeIndex.Section.values().length];
+    private int headerCount = 0;
 
     /**
      * Constructor
      * @param context context from the calling Activity or Fragment
-     * @param events list of Event objects to display
+     * @param events list of EventSummary objects to display
      * @param showEditButton whether edit button should be visible
      */
-    public EventAdapter(Context context, List<Event> events, boolean showEditButton) {
+    public EventAdapter(Context context, List<EventSummary> events, boolean showEditButton) {
+        this(context, events, showEditButton, false);
+    }
+
+    /**
+     * @param showSections whether to group the (start-time ordered) events under time section headers
+     */
+    public EventAdapter(Context context, List<EventSummary> events, boolean showEditButton, boolean showSections) {
         this.context = context;  //
         this.eventList = events;
         this.showEditButton = showEditButton;
+        this.showSections = showSections;
+        computeSections();
     }
 
     /**
@@ -40,7 +68,7 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>
      * Improves performance by avoiding repeated findViewById calls.
      */
     public static class ViewHolder extends RecyclerView.ViewHolder {
-        TextView title, date, location, zone, editButton, shareButton;
+        TextView title, date, location, zone, attendees, editButton, shareButton;
         ImageView image;
 
         public ViewHolder(View itemView) {
@@ -49,25 +77,53 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>
             date = itemView.findViewById(R.id.event_date);
             location = itemView.findViewById(R.id.event_location);
             zone = itemView.findViewById(R.id.event_zone);
+            attendees = itemView.findViewById(R.id.event_attendees);
             image = itemView.findViewById(R.id.eventImageView);
             editButton = itemView.findViewById(R.id.event_edit);
             shareButton = itemView.findViewById(R.id.event_share);
         }
     }
 
+    /**
+     * Holds the title of a section header row.
+     */
+    static class SectionViewHolder extends RecyclerView.ViewHolder {
+        final TextView title;
+
+        SectionViewHolder(View itemView) {
+            super(itemView);
+            title = itemView.findViewById(R.id.section_title);
+        }
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        int header = headerAtOrBefore(position);
+        return header >= 0 && headerPosition(header) == position ? VIEW_TYPE_SECTION_HEADER : VIEW_TYPE_EVENT;
+    }
+
     @NonNull
     @Override
-    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        if (viewType == VIEW_TYPE_SECTION_HEADER) {
+            return new SectionViewHolder(inflater.inflate(R.layout.item_feed_section_header, parent, false));
+        }
         // Inflate a single event card layout for each item in the RecyclerView
-        View v = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_event_card, parent, false);
+        View v = inflater.inflate(R.layout.item_event_card, parent, false);
         return new ViewHolder(v);
     }
 
     //Each event data is bound to a view
     @Override
-    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Event event = eventList.get(position);
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder viewHolder, int position) {
+        if (viewHolder instanceof SectionViewHolder) {
+            ((SectionViewHolder) viewHolder).title.setText(headerSections[headerAtOrBefore(position)].label);
+            return;
+        }
+
+        ViewHolder holder = (ViewHolder) viewHolder;
+        EventSummary event = eventList.get(eventIndexAt(position));
         if (event == null) return; // Safety check
 
         // Populate event title (fallback if null)
@@ -80,6 +136,7 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>
         // Populate location and zone
         holder.location.setText(event.getLocation() != null ? event.getLocation() : "No Location");
         holder.zone.setText(event.getZone() != null ? "Tukutane Zone: " + event.getZone() : "Tukutane Zone: Not Set");
+        bindAttendeeCount(holder, event);
 
         // Load event image using Glide (with placeholder and error fallback)
         if (holder.image != null) {
@@ -99,7 +156,7 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>
         // Open detailed event view when the whole card is clicked
         holder.itemView.setOnClickListener(v -> {
             Intent intent = new Intent(context, EventDetailActivity.class);
-            intent.putExtra("event", event); // Pass entire event object (Serializable)
+            intent.putExtra("summary", event); // Pass the summary (Serializable); details are fetched by ID
             context.startActivity(intent);
         });
 
@@ -108,7 +165,7 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>
             holder.editButton.setVisibility(View.VISIBLE);
             holder.editButton.setOnClickListener(v -> {
                 Intent intent = new Intent(context, EditEventActivity.class);
-                intent.putExtra("event", event);
+                intent.putExtra("eventId", event.getEventId()); // Editor loads the latest full event
                 context.startActivity(intent);
             });
         } else {
@@ -128,18 +185,105 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>
         });
     }
 
+    /**
+     * Partial bind: when only the live attendee count changed, update just that text.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.size() == 1 && payloads.get(0) == PAYLOAD_ATTENDEE_COUNT && holder instanceof ViewHolder) {
+            bindAttendeeCount((ViewHolder) holder, eventList.get(eventIndexAt(position)));
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    private void bindAttendeeCount(ViewHolder holder, EventSummary event) {
+        holder.attendees.setText(event.getAttendeeCount() + " Going");
+    }
+
+    /**
+     * @return the event ID shown at a position, or null for headers and out of range positions
+     */
+    public String getEventIdAt(int position) {
+        if (eventList == null || position < 0 || position >= getItemCount()) return null;
+        int index = eventIndexAt(position);
+        return index >= 0 ? eventList.get(index).getEventId() : null;
+    }
+
+    /**
+     * @return the list index of the event at an adapter position, or -1 for a header row
+     */
+    public int eventIndexAt(int position) {
+        int header = headerAtOrBefore(position);
+        if (header >= 0 && headerPosition(header) == position) return -1;
+        return position - (header + 1); // Every header up to and including this one sits above
+    }
+
+    /**
+     * @return the adapter position showing the event at a list index
+     */
+    public int adapterPositionOf(int eventIndex) {
+        int headersAbove = 0;
+        while (headersAbove < headerCount && headerEventIndex[headersAbove] <= eventIndex) {
+            headersAbove++;
+        }
+        return eventIndex + headersAbove;
+    }
+
     @Override
     public int getItemCount() {
-        // Return total number of events (safe against null list)
-        return eventList != null ? eventList.size() : 0;
+        // Return total number of events plus section headers (safe against null list)
+        return eventList != null ? eventList.size() + headerCount : 0;
+    }
+
+    /**
+     * Call instead of notifyDataSetChanged() after the list contents changed,
+     * so the section headers are recomputed too.
+     */
+    public void notifyEventsChanged() {
+        computeSections();
+        notifyDataSetChanged();
     }
 
     /**
      * Allows dynamic refresh of RecyclerView data
      * @param newEventList updated list of events
      */
-    public void updateData(List<Event> newEventList) {
+    public void updateData(List<EventSummary> newEventList) {
         this.eventList = newEventList;
-        notifyDataSetChanged(); // Refresh entire list
+        notifyEventsChanged(); // Refresh entire list
+    }
+
+    /**
+     * Finds the non-empty sections with a few binary searches (no pass over the list).
+     */
+    private void computeSections() {
+        headerCount = 0;
+        if (!showSections || eventList == null || eventList.isEmpty()) return;
+
+        EventTimeIndex.Section[] sections = EventTimeIndex.Section.values();
+        int[] starts = EventTimeIndex.sectionStarts(eventList, LocalDate.now());
+        for (int i = 0; i < sections.length; i++) {
+            int end = i + 1 < sections.length ? starts[i + 1] : eventList.size();
+            if (starts[i] < end) {
+                headerSections[headerCount] = sections[i];
+                headerEventIndex[headerCount] = starts[i];
+                headerCount++;
+            }
+        }
+    }
+
+    private int headerPosition(int header) {
+        return headerEventIndex[header] + header;
+    }
+
+    /**
+     * @return the last header at or above a position, or -1 if there is none
+     */
+    private int headerAtOrBefore(int position) {
+        for (int header = headerCount - 1; header >= 0; header--) {
+            if (headerPosition(header) <= position) return header;
+        }
+        return -1;
     }
 }
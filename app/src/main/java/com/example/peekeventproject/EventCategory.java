@@ -0,0 +1,73 @@
+package com.example.peekeventproject;
+
+/**
+ * The event categories, with the exact "category" values stored in Firebase.
+ * Category queries use orderByChild("category").equalTo(label), which is case-sensitive,
+ * so every write path stores the canonical label (see normalize).
+ * The labels match the category strings in strings.xml.
+ */
+public enum EventCategory {
+    MUSIC("Music"),
+    ART("Art"),
+    TECHNOLOGY("Technology"),
+    FOOD("Food"),
+    SPORTS("Sports");
+
+    // Chip label for the unfiltered feed; not a stored category
+    public static final String ALL = "All";
+
+    // Stored in place of the label by EventSummary and EventSnapshot (see ordinalOf)
+    static final byte OTHER = -1;
+    private static final EventCategory[] VALUES = values(); // values() copies the array on every call
+
+    private final String label;
+
+    EventCategory(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    /**
+     * @return the category with this label (ignoring case and surrounding spaces), or null
+     */
+    public static EventCategory fromLabel(String text) {
+        if (text == null) return null;
+        String trimmed = text.trim();
+        for (EventCategory category : values()) {
+            if (category.label.equalsIgnoreCase(trimmed)) return category;
+        }
+        return null;
+    }
+
+    /**
+     * Compact form of a stored "category" value. Only exact labels map to a category, so
+     * labelOf() gives back exactly what was stored (case-sensitive equalTo queries rely on it).
+     * @return the ordinal of the category with exactly this label, or OTHER
+     */
+    static byte ordinalOf(String stored) {
+        if (stored == null) return OTHER;
+        for (EventCategory category : VALUES) {
+            if (category.label.equals(stored)) return (byte) category.ordinal();
+        }
+        return OTHER;
+    }
+
+    /**
+     * @param other the stored value, used when ordinal is OTHER
+     */
+    static String labelOf(byte ordinal, String other) {
+        return ordinal == OTHER ? other : VALUES[ordinal].label;
+    }
+
+    /**
+     * @return the canonical label for a known category, otherwise the trimmed text as typed
+     */
+    public static String normalize(String text) {
+        EventCategory category = fromLabel(text);
+        if (category != null) return category.label;
+        return text != null ? text.trim() : null;
+    }
+}
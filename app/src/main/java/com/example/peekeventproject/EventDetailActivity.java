@@ -10,23 +10,37 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.bumptech.glide.Glide;
-import com.google.firebase.database.ValueEventListener;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
 
 /**
  * Activity that shows detailed information for a single event.
  * Users can view event data, RSVP or un-RSVP, and see live attendee counts.
+ * Opens with the feed's EventSummary and renders it straight away. After that it only touches
+ * minimal paths: the description leaf (read once), the shared attendee count subscription and
+ * the user's own rsvpList and waitlist entries. The full event is never downloaded.
+ * Everything read from the server is held by EventDetailViewModel, so a rotation re-reads nothing.
+ * Events with a capacity show "going / capacity"; once full the button offers the waitlist.
+ *
+ * RSVP taps are optimistic: the button and count flip immediately and the change is queued
+ * in MutationOutbox, which reports back once the server confirms (or rejects) it.
  */
-public class EventDetailActivity extends AppCompatActivity {
+public class EventDetailActivity extends AppCompatActivity
+        implements MutationOutbox.RsvpListener, AttendeeCountSubscriptions.CountListener {
 
-    private Event event;                    // The event being displayed (passed from previous screen)
+    private EventSummary summary;           // Card data passed from the previous screen
     private TextView attendeeCountText;     // Displays total number of attendees
     private Button rsvpButton;              // RSVP button to join/leave event
-    private RSVPManager rsvpManager;        // Handles all RSVP logic with Firebase
-    private ValueEventListener attendeeListener; // Firebase listener for real-time updates
-    private boolean userHasRsvpd = false;   // Tracks if current user has RSVPd
-    private boolean isLoading = false;      // Prevents multiple clicks during network calls
+    private EventDetailViewModel viewModel; // Description and the user's live RSVP/waitlist state
+    private MutationOutbox outbox;          // Queues RSVP writes so taps never wait on the network
+    private String currentUserId;           // Null when signed out
+    private boolean wantsToAttend = false;  // Going or waitlisted, as shown on screen (may be ahead of the server)
+    private boolean confirmedRsvp = false;  // Last RSVP state the server reported
+    private boolean confirmedWaitlisted = false; // Whether the server has the user on the waitlist
+    private int confirmedCount;             // Last attendee count the server reported
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -39,35 +53,79 @@ public class EventDetailActivity extends AppCompatActivity {
             getSupportActionBar().setTitle("Event Details");
         }
 
-        // Initialize RSVP manager (Firebase interaction handler)
-        rsvpManager = new RSVPManager();
+        // Initialize the write queue
+        outbox = MutationOutbox.getInstance(this);
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        currentUserId = user != null ? user.getUid() : null;
 
-        // Retrieve Event object passed via Intent (must implement Serializable)
-        event = (Event) getIntent().getSerializableExtra("event");
+        // Retrieve EventSummary passed via Intent (must implement Serializable)
+        summary = (EventSummary) getIntent().getSerializableExtra("summary");
 
         // If no event data was passed, close the activity with a message
-        if (event == null || event.getEventId() == null) {
+        if (summary == null || summary.getEventId() == null) {
             Toast.makeText(this, "Event data not available", Toast.LENGTH_SHORT).show();
             finish();
             return;
         }
 
-        // Bind views and populate with event data
+        // Bind views and populate with the summary straight away
         initializeViews();
         setupEventData();
 
+        // Description and live RSVP state, kept by the ViewModel across rotations
+        viewModel = new ViewModelProvider(this).get(EventDetailViewModel.class);
+        viewModel.bind(summary.getEventId(), summary.getCapacity() > 0);
+        observeEvent();
+
         // Setup RSVP button actions and state
         setupRSVPButton();
+    }
 
-        // Setup real-time attendee count listener
-        setupRealtimeListener();
+    /**
+     * The RSVP and waitlist streams are attached while the screen is started and removed with it.
+     * Their first value doubles as the initial RSVP state, so there is no separate read.
+     */
+    private void observeEvent() {
+        viewModel.description().observe(this, description -> {
+            TextView descriptionText = findViewById(R.id.detail_description);
+            descriptionText.setText(description);
+        });
+        viewModel.errors().observe(this, error -> {
+            if (error == null) return;
+            Toast.makeText(this, error, Toast.LENGTH_SHORT).show();
+            viewModel.errorShown();
+        });
+        viewModel.userRsvp().observe(this, userRsvpd -> {
+            if (hasPendingRsvp()) return; // Server state is stale while an RSVP is queued
+            confirmedRsvp = userRsvpd;
+            renderRsvpState();
+        });
+        viewModel.userWaitlist().observe(this, onWaitlist -> {
+            if (hasPendingRsvp()) return;
+            confirmedWaitlisted = onWaitlist;
+            renderRsvpState();
+        });
+    }
 
-        // Check whether the user has already RSVPd to update button state
-        checkInitialRSVPStatus();
+    /**
+     * Live counts are subscribed while the screen is visible (shared with the feed).
+     */
+    @Override
+    protected void onStart() {
+        super.onStart();
+        if (summary == null) return;
+        AttendeeCountSubscriptions.getInstance().subscribe(summary.getEventId(), this);
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (summary == null) return;
+        AttendeeCountSubscriptions.getInstance().unsubscribe(summary.getEventId(), this);
     }
 
     /**
-     * Find all views, populate event data, and load image.
+     * Find all views, populate summary data, and load image.
      */
     private void initializeViews() {
         ImageView imageView = findViewById(R.id.detail_image);
@@ -76,23 +134,21 @@ public class EventDetailActivity extends AppCompatActivity {
         TextView time = findViewById(R.id.detail_time);
         TextView location = findViewById(R.id.detail_location);
         TextView zone = findViewById(R.id.detail_zone);
-        TextView description = findViewById(R.id.detail_description);
         attendeeCountText = findViewById(R.id.attendee_count_text);
         rsvpButton = findViewById(R.id.rsvp_button);
         ImageView backButton = findViewById(R.id.back_button);
 
         // Set event details on UI
-        title.setText(event.getTitle());
-        date.setText(event.getDate());
-        time.setText(event.getTime());
-        location.setText(event.getLocation());
-        zone.setText("Tukutane Zone: " + event.getZone());
-        description.setText(event.getDescription());
+        title.setText(summary.getTitle());
+        date.setText(summary.getDate());
+        time.setText(summary.getTime());
+        location.setText(summary.getLocation());
+        zone.setText("Tukutane Zone: " + summary.getZone());
 
         // Load event image using Glide (async image loading)
-        if (event.getImageUrl() != null && !event.getImageUrl().isEmpty()) {
+        if (summary.getImageUrl() != null && !summary.getImageUrl().isEmpty()) {
             Glide.with(this)
-                    .load(event.getImageUrl())
+                    .load(summary.getImageUrl())
                     .placeholder(android.R.drawable.ic_menu_gallery) // temporary image while loading
                     .into(imageView);
         } else {
@@ -116,109 +172,121 @@ public class EventDetailActivity extends AppCompatActivity {
      * Sets the initial attendee count text.
      */
     private void setupEventData() {
-        updateAttendeeText(event.getAttendeeCount());
+        confirmedCount = summary.getAttendeeCount();
+        renderRsvpState();
     }
 
     /**
-     * Sets up the RSVP button to toggle RSVP state when clicked.
+     * Sets up the RSVP button to toggle RSVP state when clicked (joining or leaving the waitlist
+     * of a full event is the same toggle; the server decides which one it is).
+     * The new state is shown straight away and queued; repeated taps just replace the queued state.
      */
     private void setupRSVPButton() {
+        outbox.addRsvpListener(this);
         rsvpButton.setOnClickListener(v -> {
-            // Ignore clicks if already performing a network request
-            if (isLoading) return;
-
-            setLoadingState(true);
-
-            // Use RSVPManager to toggle user's RSVP state
-            rsvpManager.toggleRSVP(event.getEventId(), new RSVPManager.RSVPCallback() {
-                @Override
-                public void onSuccess(boolean isRsvpd, int newAttendeeCount) {
-                    runOnUiThread(() -> {
-                        // Update UI after successful RSVP action
-                        userHasRsvpd = isRsvpd;
-                        updateRSVPButton();
-                        updateAttendeeText(newAttendeeCount);
-                        setLoadingState(false);
-
-                        // Notify user of the change
-                        String message = isRsvpd ? "Successfully RSVPd!" : "RSVP removed";
-                        Toast.makeText(EventDetailActivity.this, message, Toast.LENGTH_SHORT).show();
-                    });
-                }
-
-                @Override
-                public void onError(String error) {
-                    runOnUiThread(() -> {
-                        // Show error message and reset button state
-                        setLoadingState(false);
-                        Toast.makeText(EventDetailActivity.this, "Error: " + error, Toast.LENGTH_LONG).show();
-                    });
-                }
-            });
+            if (currentUserId == null) {
+                Toast.makeText(this, "Error: User not authenticated", Toast.LENGTH_LONG).show();
+                return;
+            }
+            outbox.enqueueRsvp(summary.getEventId(), currentUserId, !wantsToAttend);
+            renderRsvpState();
         });
     }
 
+    @Override
+    public void onRsvpConfirmed(String eventId, RSVPManager.RsvpStatus status, int attendeeCount) {
+        if (!eventId.equals(summary.getEventId())) return;
+        confirmedRsvp = status == RSVPManager.RsvpStatus.GOING;
+        confirmedWaitlisted = status == RSVPManager.RsvpStatus.WAITLISTED;
+        confirmedCount = attendeeCount;
+        renderRsvpState(); // Shows a still-queued newer state if the user tapped again meanwhile
+    }
+
+    @Override
+    public void onRsvpRejected(String eventId, boolean attending, String error) {
+        if (!eventId.equals(summary.getEventId())) return;
+        renderRsvpState(); // Falls back to the last confirmed state
+        Toast.makeText(this, "Couldn't update your RSVP: " + error, Toast.LENGTH_LONG).show();
+    }
+
     /**
-     * Creates a real-time listener to update attendee count dynamically.
+     * Live count from AttendeeCountSubscriptions (shared with the feed, throttled).
+     * While an RSVP is queued the server count is stale, so it is only recorded once
+     * the queue for this event is empty.
      */
-    private void setupRealtimeListener() {
-        attendeeListener = rsvpManager.listenToAttendeeCount(event.getEventId(),
-                new RSVPManager.AttendeeCountListener() {
-                    @Override
-                    public void onAttendeeCountChanged(int newCount, boolean userRsvpd) {
-                        runOnUiThread(() -> {
-                            // Update UI when Firebase data changes in real time
-                            userHasRsvpd = userRsvpd;
-                            updateAttendeeText(newCount);
-                            updateRSVPButton();
-                        });
-                    }
-                });
+    @Override
+    public void onAttendeeCountChanged(String eventId, int newCount) {
+        if (hasPendingRsvp()) return;
+        confirmedCount = newCount;
+        renderRsvpState();
+    }
+
+    private boolean hasPendingRsvp() {
+        return currentUserId != null && outbox.getPendingRsvp(summary.getEventId(), currentUserId) != null;
     }
 
     /**
-     * Checks initial RSVP status (used when the activity first opens).
+     * Shows the queued RSVP state if there is one, otherwise the server's.
+     * A queued RSVP counts as going, or as waitlisted if the event looks full;
+     * the count is the confirmed count adjusted by the queued change.
      */
-    private void checkInitialRSVPStatus() {
-        rsvpManager.checkRSVPStatus(event.getEventId(), new RSVPManager.RSVPCallback() {
-            @Override
-            public void onSuccess(boolean isRsvpd, int attendeeCount) {
-                runOnUiThread(() -> {
-                    // Update RSVP button and attendee count based on current status
-                    userHasRsvpd = isRsvpd;
-                    updateRSVPButton();
-                    updateAttendeeText(attendeeCount);
-                });
-            }
+    private void renderRsvpState() {
+        Boolean pending = currentUserId != null
+                ? outbox.getPendingRsvp(summary.getEventId(), currentUserId) : null;
+        boolean confirmedWantsToAttend = confirmedRsvp || confirmedWaitlisted;
+        wantsToAttend = pending != null ? pending : confirmedWantsToAttend;
+
+        RSVPManager.RsvpStatus status;
+        int count = confirmedCount;
+        if (wantsToAttend == confirmedWantsToAttend) {
+            status = confirmedRsvp ? RSVPManager.RsvpStatus.GOING
+                    : confirmedWaitlisted ? RSVPManager.RsvpStatus.WAITLISTED : RSVPManager.RsvpStatus.NOT_GOING;
+        } else if (wantsToAttend) {
+            status = isFull(count) ? RSVPManager.RsvpStatus.WAITLISTED : RSVPManager.RsvpStatus.GOING;
+            if (status == RSVPManager.RsvpStatus.GOING) count++;
+        } else {
+            status = RSVPManager.RsvpStatus.NOT_GOING;
+            if (confirmedRsvp) count = Math.max(0, count - 1);
+        }
 
-            @Override
-            public void onError(String error) {
-                runOnUiThread(() -> {
-                    // Notify user if there's a problem retrieving RSVP state
-                    Toast.makeText(EventDetailActivity.this,
-                            "Error checking RSVP status: " + error,
-                            Toast.LENGTH_SHORT).show();
-                });
-            }
-        });
+        updateRSVPButton(status, isFull(count));
+        updateAttendeeText(count);
+    }
+
+    private boolean isFull(int count) {
+        return summary.getCapacity() > 0 && count >= summary.getCapacity();
     }
 
     /**
      * Updates the attendee count text view with a formatted value.
      */
     private void updateAttendeeText(int count) {
-        attendeeCountText.setText(count + " Going");
+        if (summary.getCapacity() > 0) {
+            attendeeCountText.setText(count + " / " + summary.getCapacity() + " Going");
+        } else {
+            attendeeCountText.setText(count + " Going");
+        }
     }
 
     /**
-     * Updates RSVP button UI based on whether user has RSVPd.
+     * Updates RSVP button UI based on whether user has RSVPd or is waiting for a seat.
      */
-    private void updateRSVPButton() {
-        if (userHasRsvpd) {
+    private void updateRSVPButton(RSVPManager.RsvpStatus status, boolean full) {
+        if (status == RSVPManager.RsvpStatus.GOING) {
             // User has RSVPd → show option to un-RSVP
             rsvpButton.setText("Un-RSVP");
             rsvpButton.setBackgroundTintList(ContextCompat.getColorStateList(this,
                     android.R.color.holo_red_light));
+        } else if (status == RSVPManager.RsvpStatus.WAITLISTED) {
+            // User waits for a seat → show option to give up their place
+            rsvpButton.setText("Leave waitlist");
+            rsvpButton.setBackgroundTintList(ContextCompat.getColorStateList(this,
+                    android.R.color.holo_orange_light));
+        } else if (full) {
+            // No seats left → RSVPing puts the user on the waitlist
+            rsvpButton.setText("Join waitlist");
+            rsvpButton.setBackgroundTintList(ContextCompat.getColorStateList(this,
+                    android.R.color.holo_orange_light));
         } else {
             // User has not RSVPd → show RSVP option
             rsvpButton.setText("RSVP");
@@ -227,21 +295,11 @@ public class EventDetailActivity extends AppCompatActivity {
         }
     }
 
-    /**
-     * Enables or disables button and updates label during loading.
-     */
-    private void setLoadingState(boolean loading) {
-        isLoading = loading;
-        rsvpButton.setEnabled(!loading);
-        rsvpButton.setText(loading ? "Loading..." : (userHasRsvpd ? "Un-RSVP" : "RSVP"));
-    }
-
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        // Clean up Firebase listener to avoid memory leaks
-        if (attendeeListener != null && event != null) {
-            rsvpManager.removeListener(event.getEventId(), attendeeListener);
+        if (outbox != null) {
+            outbox.removeRsvpListener(this);
         }
     }
 
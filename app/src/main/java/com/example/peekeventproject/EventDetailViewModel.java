@@ -0,0 +1,78 @@
+package com.example.peekeventproject;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+/**
+ * Server state of EventDetailActivity, kept across configuration changes:
+ * - the description, read once per event rather than once per rotation;
+ * - the current user's rsvpList and waitlist entries as live streams, attached only while the
+ *   screen is started (see FirebaseQueryLiveData).
+ * Load callbacks reference this ViewModel, never the Activity.
+ *
+ * Main thread only.
+ */
+public class EventDetailViewModel extends ViewModel {
+
+    private final MutableLiveData<String> description = new MutableLiveData<>();
+    private final MutableLiveData<String> errors = new MutableLiveData<>();
+    private String eventId;
+    private LiveData<Boolean> userRsvp;
+    private LiveData<Boolean> userWaitlist;
+
+    /**
+     * Binds to an event; later calls (after a configuration change) keep the existing streams.
+     * @param hasCapacity whether the event can have a waitlist worth listening to
+     */
+    void bind(String eventId, boolean hasCapacity) {
+        if (this.eventId != null) return;
+        this.eventId = eventId;
+
+        RSVPManager rsvpManager = new RSVPManager();
+        userRsvp = rsvpManager.userRsvp(eventId);
+        userWaitlist = hasCapacity ? rsvpManager.userWaitlist(eventId) : new MutableLiveData<>();
+
+        // Fetch the one field the feed does not carry
+        new EventLoader().loadDescription(eventId, new EventLoader.DescriptionCallback() {
+            @Override
+            public void onDescriptionLoaded(String text) {
+                description.setValue(text);
+            }
+
+            @Override
+            public void onError(String error) {
+                errors.setValue(error);
+            }
+        });
+    }
+
+    LiveData<String> description() {
+        return description;
+    }
+
+    /**
+     * Whether the user is on the event's rsvpList; the first value is the initial state.
+     */
+    LiveData<Boolean> userRsvp() {
+        return userRsvp;
+    }
+
+    /**
+     * Whether the user is on the event's waitlist (never emits for events without a capacity).
+     */
+    LiveData<Boolean> userWaitlist() {
+        return userWaitlist;
+    }
+
+    /**
+     * @return load errors to show once; call errorShown() after showing one
+     */
+    LiveData<String> errors() {
+        return errors;
+    }
+
+    void errorShown() {
+        errors.setValue(null);
+    }
+}
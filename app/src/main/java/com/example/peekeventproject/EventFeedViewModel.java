@@ -0,0 +1,169 @@
+package com.example.peekeventproject;
+
+import android.app.Application;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feed state of MainActivity, kept across configuration changes so a rotation never reloads it.
+ * - shownFeed() is the index of the selected category chip. While it is observed by a started
+ *   screen, a feed older than REFRESH_AFTER_MS is re-synced through EventSyncer (a delta, not a
+ *   download of every event), which replaces the old realtime listener on the whole node.
+ * - The full feed and the per-category query results live here too; live counts and new events
+ *   are applied to them in place.
+ * - Load callbacks reference this ViewModel, never the Activity.
+ *
+ * Main thread only.
+ */
+public class EventFeedViewModel extends AndroidViewModel {
+
+    private static final long REFRESH_AFTER_MS = 5 * 60_000;
+
+    private final EventTimeIndex timeIndex = new EventTimeIndex(); // Full unfiltered feed, sorted by start time
+    private final CategoryFeedCache categoryCache = new CategoryFeedCache(); // Per-category query results
+    private final EventLoader eventLoader = new EventLoader();
+    private final FeedLiveData shownFeed = new FeedLiveData();
+    private final MutableLiveData<String> errors = new MutableLiveData<>();
+    private String category = EventCategory.ALL;
+    private boolean syncing = false;
+    private long syncedAt = -1; // elapsedRealtime of the last successful sync, -1 before the first
+
+    /**
+     * Syncs when a screen starts observing and the feed is missing or old.
+     */
+    private final class FeedLiveData extends MutableLiveData<EventTimeIndex> {
+        @Override
+        protected void onActive() {
+            if (syncedAt < 0 || SystemClock.elapsedRealtime() - syncedAt > REFRESH_AFTER_MS) {
+                sync();
+            }
+        }
+    }
+
+    public EventFeedViewModel(@NonNull Application application) {
+        super(application);
+    }
+
+    /**
+     * @return the feed of the selected category, in start-time order
+     */
+    LiveData<EventTimeIndex> shownFeed() {
+        return shownFeed;
+    }
+
+    /**
+     * @return load errors to show once; call errorShown() after showing one
+     */
+    LiveData<String> errors() {
+        return errors;
+    }
+
+    void errorShown() {
+        errors.setValue(null);
+    }
+
+    String category() {
+        return category;
+    }
+
+    EventTimeIndex timeIndex() {
+        return timeIndex;
+    }
+
+    /**
+     * Loads summaries through EventSyncer, which downloads only what changed since the last sync.
+     * The first load uses the launcher's prefetch if one is pending.
+     */
+    private void sync() {
+        if (syncing) return;
+        syncing = true;
+
+        EventLoader.SummaryLoadCallback callback = new EventLoader.SummaryLoadCallback() {
+            @Override
+            public void onSummariesLoaded(List<EventSummary> summaries) {
+                syncing = false;
+                syncedAt = SystemClock.elapsedRealtime();
+                timeIndex.setAll(summaries); // Sorted once by start time
+                if (EventCategory.ALL.equals(category)) {
+                    shownFeed.setValue(timeIndex);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                syncing = false;
+                errors.setValue("Failed to load events: " + error);
+            }
+        };
+
+        if (!StartupPrefetcher.getInstance().consumeFeed(callback)) {
+            EventSyncer.getInstance(getApplication()).sync(callback);
+        }
+    }
+
+    /**
+     * Switches the feed to a category: "All" is the full feed, a cached category is shown at once,
+     * anything else is queried from the server (only that category's events are downloaded).
+     */
+    void showCategory(String newCategory) {
+        category = newCategory;
+        EventTimeIndex cached = EventCategory.ALL.equals(newCategory) ? timeIndex : categoryCache.get(newCategory);
+        if (cached != null) {
+            shownFeed.setValue(cached);
+            return;
+        }
+
+        eventLoader.loadSummariesByCategory(newCategory, new EventLoader.SummaryLoadCallback() {
+            @Override
+            public void onSummariesLoaded(List<EventSummary> summaries) {
+                EventTimeIndex index = new EventTimeIndex();
+                index.setAll(summaries);
+                categoryCache.put(newCategory, index);
+                if (newCategory.equals(category)) { // The user may have tapped another chip meanwhile
+                    shownFeed.setValue(index);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                if (!newCategory.equals(category)) return;
+                // Fall back to the events already downloaded for "All" (not cached, so the query is retried)
+                EventTimeIndex index = new EventTimeIndex();
+                List<EventSummary> matching = new ArrayList<>();
+                for (EventSummary event : timeIndex.events()) {
+                    if (newCategory.equals(EventCategory.normalize(event.getCategory()))) matching.add(event);
+                }
+                index.setAll(matching);
+                shownFeed.setValue(index);
+                errors.setValue(error);
+            }
+        });
+    }
+
+    /**
+     * Applies a live count to the full feed and the cached categories (the shown index is one of
+     * them, or a fallback the caller updates itself).
+     */
+    void updateAttendeeCount(String eventId, int newCount) {
+        EventSummary all = timeIndex.get(eventId);
+        if (all != null && all.getAttendeeCount() != newCount) {
+            timeIndex.upsert(all.withAttendeeCount(newCount));
+        }
+        categoryCache.updateAttendeeCount(eventId, newCount);
+    }
+
+    /**
+     * Adds an event created on this device to the full feed and the cached categories.
+     */
+    void addCreated(EventSummary summary) {
+        timeIndex.upsert(summary);
+        categoryCache.upsert(summary);
+    }
+}
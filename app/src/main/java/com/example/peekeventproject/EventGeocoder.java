@@ -0,0 +1,94 @@
+package com.example.peekeventproject;
+
+import android.content.Context;
+import android.location.Address;
+import android.location.Geocoder;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Turns an event's free-text location into coordinates for nearby queries.
+ * Geocoder blocks on a network lookup, so it runs on a background thread and the result
+ * is posted back to the main thread. Coordinates are optional: an unknown place gets nulls,
+ * and a lookup that could not run (offline, no geocoder on the device) is reported separately,
+ * so callers keep the coordinates they have instead of clearing them.
+ */
+final class EventGeocoder {
+
+    interface Callback {
+        void onGeocoded(Double latitude, Double longitude); // Both null when the location was not found
+        void onFailed();                                    // No answer at all; try again later
+    }
+
+    private static final String TAG = "EventGeocoder";
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private EventGeocoder() {
+    }
+
+    @SuppressWarnings("deprecation") // The listener variant needs API 33; this runs off the main thread anyway
+    static void geocode(Context context, String location, Callback callback) {
+        Context appContext = context.getApplicationContext();
+        if (location == null || location.trim().isEmpty()) {
+            callback.onGeocoded(null, null);
+            return;
+        }
+        if (!Geocoder.isPresent()) {
+            callback.onFailed();
+            return;
+        }
+
+        executor.execute(() -> {
+            List<Address> results;
+            try {
+                results = new Geocoder(appContext).getFromLocationName(location, 1);
+            } catch (IOException | IllegalArgumentException e) {
+                Log.w(TAG, "Could not geocode \"" + location + "\"", e);
+                mainHandler.post(callback::onFailed);
+                return;
+            }
+
+            boolean found = results != null && !results.isEmpty();
+            Double lat = found ? results.get(0).getLatitude() : null;
+            Double lng = found ? results.get(0).getLongitude() : null;
+            mainHandler.post(() -> callback.onGeocoded(lat, lng));
+        });
+    }
+
+    /**
+     * Looks up the location of an event that is already queued, and queues its coordinates as a
+     * separate edit (folded into the create if that has not been sent yet). Saving never waits
+     * for the lookup, and it finishes even after the screen that started it is gone.
+     * A place that does not exist clears stale coordinates; a failed lookup leaves them alone.
+     * Lookups run one at a time, so the coordinates of the latest location are queued last.
+     */
+    static void locate(Context context, String eventId, String location) {
+        MutationOutbox outbox = MutationOutbox.getInstance(context);
+        geocode(context, location, new Callback() {
+            @Override
+            public void onGeocoded(Double latitude, Double longitude) {
+                Event located = new Event();
+                located.setCoordinates(latitude, longitude); // Derives the geohash
+                Map<String, Object> changes = new HashMap<>();
+                changes.put("latitude", located.getLatitude());   // null removes stale coordinates
+                changes.put("longitude", located.getLongitude());
+                changes.put("geohash", located.getGeohash());
+                outbox.enqueueEdit(eventId, changes);
+            }
+
+            @Override
+            public void onFailed() {
+                // The event keeps its previous coordinates (none for a new event)
+            }
+        });
+    }
+}
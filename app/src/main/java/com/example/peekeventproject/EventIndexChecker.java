@@ -0,0 +1,237 @@
+package com.example.peekeventproject;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks the nodes EventWriter derives from "events" against the primary records, and can rebuild them.
+ * - An attendee count (attendeeCount plus shards) that differs from the size of the event's rsvpList
+ *   is recounted (see AttendeeCounter.recountPaths), and the seats are handed to the attendees.
+ *   Counts from before seats named their holder can drift this way.
+ * - A summary that is missing or differs from EventSummary.from(event) is rewritten.
+ * - Summaries and waitlists whose event no longer exists are removed; removed summaries get a
+ *   tombstone so synced clients drop them too.
+ * - Tombstones older than EventSyncer.TOMBSTONE_RETENTION_MILLIS are pruned.
+ * - All repairs go out as one multi-path update.
+ * It reads the whole events, eventSummaries and eventWaitlists nodes, so it is a maintenance tool
+ * (run it from the profile menu of a debug build after a failed migration or a schema change),
+ * not part of normal loads.
+ * Repair while no RSVPs are in flight: a recount overwrites counts changed after it read them.
+ * Tombstone pruning alone is cheap and also runs in every build, at most once a day per device
+ * (see pruneTombstonesDaily), so tombstones do not pile up between checks.
+ */
+final class EventIndexChecker {
+
+    /**
+     * What a check found; repairs holds the multi-path update that fixes it (empty if consistent).
+     */
+    static final class Report {
+        final int events;
+        final int recounts;
+        final int missingSummaries;
+        final int staleSummaries;
+        final int orphanSummaries;
+        final int orphanWaitlists;
+        final Map<String, Object> repairs;
+
+        Report(int events, int recounts, int missingSummaries, int staleSummaries, int orphanSummaries,
+               int orphanWaitlists, Map<String, Object> repairs) {
+            this.events = events;
+            this.recounts = recounts;
+            this.missingSummaries = missingSummaries;
+            this.staleSummaries = staleSummaries;
+            this.orphanSummaries = orphanSummaries;
+            this.orphanWaitlists = orphanWaitlists;
+            this.repairs = repairs;
+        }
+
+        boolean isConsistent() {
+            return repairs.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return events + " events: " + recounts + " recounts, " + missingSummaries + " missing summaries, " + staleSummaries
+                    + " stale summaries, " + orphanSummaries + " orphan summaries, "
+                    + orphanWaitlists + " orphan waitlists";
+        }
+    }
+
+    interface Callback {
+        void onChecked(Report report);  // After the repairs were written, if requested
+        void onError(String error);
+    }
+
+    private static final String PREFS = "event_index_checker";
+    private static final String KEY_PRUNED_AT = "tombstones_pruned_at"; // Device time of the last prune
+    private static final long PRUNE_INTERVAL_MILLIS = 24L * 60 * 60 * 1000;
+    // Tombstones removed per prune; a backlog is worked off over the following days
+    private static final int PRUNE_BATCH = 500;
+
+    private final DatabaseReference rootRef;
+
+    EventIndexChecker() {
+        rootRef = FirebaseDatabase.getInstance().getReference();
+    }
+
+    /**
+     * @param repair whether to write the repairs, or only report them
+     */
+    void check(boolean repair, Callback callback) {
+        readNode(EventWriter.EVENTS_NODE, callback, eventsSnapshot ->
+                readNode(EventSummary.NODE, callback, summariesSnapshot ->
+                        readNode(EventWaitlist.NODE, callback, waitlistsSnapshot ->
+                        readNode(EventWriter.TOMBSTONES_NODE, callback, tombstonesSnapshot -> {
+                            Map<String, Event> events = new HashMap<>();
+                            for (DataSnapshot child : eventsSnapshot.getChildren()) {
+                                Event event = EventMapper.fromSnapshot(child);
+                                if (event != null) events.put(child.getKey(), event);
+                            }
+                            Map<String, EventSummary> summaries = new HashMap<>();
+                            for (DataSnapshot child : summariesSnapshot.getChildren()) {
+                                EventSummary summary = EventMapper.summaryFromSnapshot(child);
+                                if (summary != null) summaries.put(child.getKey(), summary);
+                            }
+                            Set<String> waitlists = new HashSet<>();
+                            for (DataSnapshot child : waitlistsSnapshot.getChildren()) {
+                                waitlists.add(child.getKey());
+                            }
+
+                            Report report = diff(events, summaries, waitlists);
+                            long cutoff = System.currentTimeMillis() - EventSyncer.TOMBSTONE_RETENTION_MILLIS;
+                            for (DataSnapshot tombstone : tombstonesSnapshot.getChildren()) {
+                                if (EventMapper.asLong(tombstone.getValue()) < cutoff) {
+                                    report.repairs.put(EventWriter.TOMBSTONES_NODE + "/" + tombstone.getKey(), null);
+                                }
+                            }
+                            if (!repair || report.isConsistent()) {
+                                callback.onChecked(report);
+                                return;
+                            }
+                            rootRef.updateChildren(report.repairs, (error, ref) -> {
+                                if (error != null) {
+                                    callback.onError("Failed to repair event indexes: " + error.getMessage());
+                                } else {
+                                    callback.onChecked(report);
+                                }
+                            });
+                        }))));
+    }
+
+    /**
+     * Removes expired tombstones if this device has not done so in the last day (called at app start).
+     * Reads only the expired tombstones, through the ".value" index.
+     */
+    static void pruneTombstonesDaily(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        long now = System.currentTimeMillis();
+        // abs: a clock set back must not postpone the next prune
+        if (Math.abs(now - prefs.getLong(KEY_PRUNED_AT, 0)) < PRUNE_INTERVAL_MILLIS) return;
+        prefs.edit().putLong(KEY_PRUNED_AT, now).apply();
+        new EventIndexChecker().pruneTombstones(now - EventSyncer.TOMBSTONE_RETENTION_MILLIS);
+    }
+
+    /**
+     * Removes up to PRUNE_BATCH tombstones older than cutoff. Best effort: a failure is retried by
+     * the next prune.
+     */
+    void pruneTombstones(long cutoff) {
+        rootRef.child(EventWriter.TOMBSTONES_NODE).orderByValue().endAt(cutoff - 1).limitToFirst(PRUNE_BATCH)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(DataSnapshot snapshot) {
+                        Map<String, Object> removals = new HashMap<>();
+                        for (DataSnapshot tombstone : snapshot.getChildren()) {
+                            removals.put(tombstone.getKey(), null);
+                        }
+                        if (!removals.isEmpty()) {
+                            rootRef.child(EventWriter.TOMBSTONES_NODE).updateChildren(removals);
+                        }
+                    }
+
+                    @Override
+                    public void onCancelled(DatabaseError error) {
+                    }
+                });
+    }
+
+    /**
+     * Compares the derived nodes with what EventWriter would have written for each event.
+     * @param events primary records by event ID
+     * @param summaries summaries by event ID
+     * @param waitlistEventIds event IDs that have a waitlist
+     */
+    static Report diff(Map<String, Event> events, Map<String, EventSummary> summaries,
+                       Set<String> waitlistEventIds) {
+        Map<String, Object> repairs = new HashMap<>();
+        int recounts = 0, missing = 0, stale = 0, orphanSummaries = 0, orphanWaitlists = 0;
+
+        for (Map.Entry<String, Event> entry : events.entrySet()) {
+            Event event = entry.getValue();
+            Map<String, Object> expected = EventSummary.from(event).toMap();
+            int attendees = event.rsvps() != null ? event.rsvps().size() : 0;
+            if (event.getAttendeeCount() != attendees) {
+                recounts++;
+                Collection<String> holders = event.rsvps() != null
+                        ? event.rsvps().toMap().keySet() : Collections.<String>emptySet();
+                repairs.putAll(AttendeeCounter.recountPaths(entry.getKey(), holders, event.getCapacity()));
+                expected.put("attendeeCount", attendees); // The summary mirrors the recounted total
+            }
+            EventSummary actual = summaries.get(entry.getKey());
+            if (actual == null) {
+                missing++;
+            } else if (!expected.equals(actual.toMap())) {
+                stale++;
+            } else {
+                continue;
+            }
+            repairs.put(EventSummary.NODE + "/" + entry.getKey(), EventWriter.stamped(expected));
+        }
+        for (String eventId : summaries.keySet()) {
+            if (!events.containsKey(eventId)) {
+                orphanSummaries++;
+                repairs.put(EventSummary.NODE + "/" + eventId, null);
+                repairs.put(EventWriter.TOMBSTONES_NODE + "/" + eventId, ServerValue.TIMESTAMP);
+            }
+        }
+        for (String eventId : waitlistEventIds) {
+            if (!events.containsKey(eventId)) {
+                orphanWaitlists++;
+                repairs.put(EventWaitlist.NODE + "/" + eventId, null);
+            }
+        }
+        return new Report(events.size(), recounts, missing, stale, orphanSummaries, orphanWaitlists, repairs);
+    }
+
+    private interface NodeReader {
+        void onRead(DataSnapshot snapshot);
+    }
+
+    private void readNode(String node, Callback callback, NodeReader reader) {
+        rootRef.child(node).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                reader.onRead(snapshot);
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                callback.onError("Failed to read " + node + ": " + error.getMessage());
+            }
+        });
+    }
+}
@@ -6,57 +6,55 @@ import com.google.firebase.database.ValueEventListener;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * EventLoader is a helper class responsible for loading Event data from Firebase Realtime Database.
  * It supports:
  *   - Loading all future/today events (and removing past events).
- *   - Adding real-time listeners for continuous event updates.
- *   - Loading a single event by ID.
- *   - Removing listeners to avoid memory leaks.
+ *   - Loading lightweight EventSummary objects for the feed.
+ *   - Loading summaries near a point (geohash range queries) or of one category (equalTo query).
+ *   - Loading a single event by ID, or just its description.
+ * Snapshots are decoded, filtered and sorted on SnapshotDecoder's threads; callbacks still run
+ * on the main thread and receive unmodifiable lists of immutable EventSnapshot / EventSummary.
+ * Live streams are LiveData, attached only while observed (see FirebaseQueryLiveData).
  */
 public class EventLoader {
 
     // Reference to "events" node in Firebase Database
     private DatabaseReference eventsRef;
-
+    // Reference to the denormalized "eventSummaries" node used by the feed
+    private DatabaseReference summariesRef;
+    // Deletes expired events with their derived nodes
+    private final EventWriter eventWriter = new EventWriter();
 
     public interface EventLoadCallback {     //Callback interface to return events asynchronously.
-        void onEventsLoaded(List<Event> events); // Called when events are successfully loaded
+        void onEventsLoaded(List<EventSnapshot> events); // Called when events are successfully loaded
         void onError(String error);              // Called when an error occurs
     }
 
+    public interface DescriptionCallback {   // Callback interface to return one event's description.
+        void onDescriptionLoaded(String description);
+        void onError(String error);
+    }
+
+    public interface SummaryLoadCallback {   // Callback interface to return feed summaries asynchronously.
+        void onSummariesLoaded(List<EventSummary> summaries);
+        void onError(String error);
+    }
 
     //Constructor initializes Firebase reference to the "events" collection.
     public EventLoader() {
         eventsRef = FirebaseDatabase.getInstance().getReference("events");
+        summariesRef = FirebaseDatabase.getInstance().getReference(EventSummary.NODE);
     }
 
-
-    private boolean isFutureOrToday(String dateString) {  // Helper method that checks if an event date is today or in the future.
-        try {
-            SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
-            Date eventDate = sdf.parse(dateString); //The date string to validate.
-
-            // Normalize "today" to midnight to ensure proper comparison
-            Calendar todayCal = Calendar.getInstance();
-            todayCal.set(Calendar.HOUR_OF_DAY, 0);
-            todayCal.set(Calendar.MINUTE, 0);
-            todayCal.set(Calendar.SECOND, 0);
-            todayCal.set(Calendar.MILLISECOND, 0);
-
-            // Event is valid if it's today or later (not before today's midnight)
-            return eventDate != null && !eventDate.before(todayCal.getTime());
-        } catch (ParseException e) {
-            e.printStackTrace();
-            return true; // If date is invalid, keep the event instead of discarding it
-        }
+    private static boolean isFutureOrToday(long endEpochMillis, long startOfToday) {  // Helper method that checks if an event is today or in the future.
+        return EventTimeCodec.isFutureOrToday(endEpochMillis, startOfToday); // Integer comparison, no date parsing
     }
 
     /**
@@ -67,84 +65,290 @@ public class EventLoader {
      * @param callback Callback to handle events or errors.
      */
     public void loadAllEvents(EventLoadCallback callback) {
+        // Benchmark builds serve a fixed local data set instead of the network
+        if (BuildConfig.USE_SEEDED_EVENTS) {
+            callback.onEventsLoaded(seededSnapshots());
+            return;
+        }
+
         eventsRef.addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot snapshot) {
-                List<Event> eventList = new ArrayList<>();
+                List<String> expired = new ArrayList<>();
+                SnapshotDecoder.decode(() -> readCurrentEvents(snapshot, expired), events -> {
+                    removeExpired(expired); // Optional cleanup
+                    // Return the valid event list to caller
+                    callback.onEventsLoaded(events);
+                }, callback::onError);
+            }
 
-                // Loop through each child in "events"
-                for (DataSnapshot eventSnapshot : snapshot.getChildren()) {
-                    Event event = eventSnapshot.getValue(Event.class);
+            @Override
+            public void onCancelled(DatabaseError error) {
+                // Return error message to caller
+                callback.onError("Failed to load events: " + error.getMessage());
+            }
+        });
+    }
 
-                    if (event != null) {
-                        // Ensure event ID is set (sometimes missing if only Firebase key exists)
-                        if (event.getEventId() == null || event.getEventId().isEmpty()) {
-                            event.setEventId(eventSnapshot.getKey());
-                        }
+    /**
+     * Maps the children of "events", keeping today-or-later events. Runs on a decode thread.
+     * @param expired receives the IDs of past events, to be removed on the main thread
+     */
+    private static List<EventSnapshot> readCurrentEvents(DataSnapshot snapshot, List<String> expired) {
+        List<EventSnapshot> eventList = new ArrayList<>();
+        long startOfToday = EventTimeCodec.startOfTodayMillis();
+
+        // Loop through each child in "events"
+        for (DataSnapshot eventSnapshot : snapshot.getChildren()) {
+            EventSnapshot event = EventMapper.snapshotOf(eventSnapshot); // Also fills in a missing event ID
+
+            if (event != null) {
+                // Add only future or today's events; remove old ones
+                if (isFutureOrToday(event.getEndEpochMillis(), startOfToday)) {
+                    eventList.add(event);
+                } else {
+                    expired.add(event.getEventId());
+                }
+            }
+        }
+        return Collections.unmodifiableList(eventList);
+    }
 
-                        // Add only future or today's events; remove old ones
-                        if (isFutureOrToday(event.getDate())) {
-                            eventList.add(event);
-                        } else {
-                            eventsRef.child(event.getEventId()).removeValue(); // Optional cleanup
-                        }
-                    }
+    /**
+     * Loads feed summaries for today or later from "eventSummaries".
+     * Only the fields a card needs are downloaded (no description, no rsvpList).
+     * If the summaries node has never been written (data created before it existed),
+     * falls back to the full events once and backfills the summaries.
+     *
+     * @param callback Callback to handle summaries or errors.
+     */
+    public void loadSummaries(SummaryLoadCallback callback) {
+        if (BuildConfig.USE_SEEDED_EVENTS) {
+            callback.onSummariesLoaded(toSummaries(SeededEventSource.events()));
+            return;
+        }
+
+        summariesRef.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                if (!snapshot.exists()) {
+                    backfillSummaries(callback);
+                    return;
                 }
 
-                // Return the valid event list to caller
-                callback.onEventsLoaded(eventList);
+                decodeCurrentSummaries(snapshot, callback);
             }
 
             @Override
             public void onCancelled(DatabaseError error) {
-                // Return error message to caller
                 callback.onError("Failed to load events: " + error.getMessage());
             }
         });
     }
 
     /**
-     * Adds a real-time Firebase listener for events.
-     * - Continuously updates the caller when data changes.
-     * - Filters out past events and optionally deletes them.
+     * Loads feed summaries of one category with an indexed equalTo query,
+     * so only that category's events are downloaded (see ".indexOn" in database.rules.json).
      *
-     * @param callback Callback to deliver live updates.
-     * @return The ValueEventListener (caller must keep this reference to remove it later).
+     * @param category Canonical label, e.g. EventCategory.MUSIC.label()
      */
-    public ValueEventListener loadEventsRealtime(EventLoadCallback callback) {
-        ValueEventListener listener = new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot snapshot) {
-                List<Event> eventList = new ArrayList<>();
+    public void loadSummariesByCategory(String category, SummaryLoadCallback callback) {
+        if (BuildConfig.USE_SEEDED_EVENTS) {
+            List<EventSummary> matching = new ArrayList<>();
+            for (EventSummary summary : toSummaries(SeededEventSource.events())) {
+                if (category.equals(summary.getCategory())) matching.add(summary);
+            }
+            callback.onSummariesLoaded(matching);
+            return;
+        }
+
+        summariesRef.orderByChild("category").equalTo(category)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(DataSnapshot snapshot) {
+                        decodeCurrentSummaries(snapshot, callback);
+                    }
 
-                for (DataSnapshot eventSnapshot : snapshot.getChildren()) {
-                    Event event = eventSnapshot.getValue(Event.class);
+                    @Override
+                    public void onCancelled(DatabaseError error) {
+                        callback.onError("Failed to load " + category + " events: " + error.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Decodes a summaries query off the main thread, then removes past events and calls back.
+     */
+    private void decodeCurrentSummaries(DataSnapshot snapshot, SummaryLoadCallback callback) {
+        List<String> expired = new ArrayList<>();
+        SnapshotDecoder.decode(() -> readCurrentSummaries(snapshot, expired), summaries -> {
+            removeExpired(expired);
+            callback.onSummariesLoaded(summaries);
+        }, callback::onError);
+    }
+
+    /**
+     * Maps the children of a summaries query, keeping today-or-later events. Runs on a decode thread.
+     * @param expired receives the IDs of past events, to be removed on the main thread
+     * @return the summaries in EventTimeIndex.BY_START order, so the feed's own sort is a single pass
+     */
+    private static List<EventSummary> readCurrentSummaries(DataSnapshot snapshot, List<String> expired) {
+        List<EventSummary> summaries = new ArrayList<>();
+        long startOfToday = EventTimeCodec.startOfTodayMillis();
+        for (DataSnapshot summarySnapshot : snapshot.getChildren()) {
+            EventSummary summary = EventMapper.summaryFromSnapshot(summarySnapshot);
+            if (summary == null) continue;
+
+            if (isFutureOrToday(summary.getEndEpochMillis(), startOfToday)) {
+                summaries.add(summary);
+            } else {
+                expired.add(summary.getEventId());
+            }
+        }
+        Collections.sort(summaries, EventTimeIndex.BY_START);
+        return Collections.unmodifiableList(summaries);
+    }
 
-                    if (event != null) {
-                        if (event.getEventId() == null || event.getEventId().isEmpty()) {
-                            event.setEventId(eventSnapshot.getKey());
+    /**
+     * Loads feed summaries of today-or-later events within radiusMeters of a point.
+     * - Issues one orderByChild("geohash") range query per covering cell (at most 9, see GeoHash),
+     *   so only events in and around the area are downloaded instead of the whole node.
+     * - Cells are larger than the circle, so results are refined by exact distance here.
+     * - Events without coordinates are never returned.
+     * No screen calls it yet; it is the query a "near me" view would use.
+     *
+     * @param callback Receives the summaries ordered nearest first, once every range has loaded.
+     */
+    public void loadNearby(double latitude, double longitude, double radiusMeters, SummaryLoadCallback callback) {
+        if (BuildConfig.USE_SEEDED_EVENTS) {
+            List<EventSummary> nearby = new ArrayList<>();
+            for (EventSummary summary : toSummaries(SeededEventSource.events())) {
+                if (isWithin(summary, latitude, longitude, radiusMeters)) nearby.add(summary);
+            }
+            callback.onSummariesLoaded(sortByDistance(nearby, latitude, longitude));
+            return;
+        }
+
+        List<String> prefixes = GeoHash.coveringPrefixes(latitude, longitude, radiusMeters);
+        Map<String, EventSummary> nearby = new HashMap<>(); // Keyed by ID in case ranges overlap
+        long startOfToday = EventTimeCodec.startOfTodayMillis();
+        int[] remaining = {prefixes.size()};
+        boolean[] failed = {false};
+
+        for (String prefix : prefixes) {
+            summariesRef.orderByChild("geohash")
+                    .startAt(prefix)
+                    .endAt(prefix + "\uf8ff") // Sorts after every geohash character, so this covers all keys with the prefix
+                    .addListenerForSingleValueEvent(new ValueEventListener() {
+                        @Override
+                        public void onDataChange(DataSnapshot snapshot) {
+                            SnapshotDecoder.decode(() -> {
+                                List<EventSummary> inRange = new ArrayList<>();
+                                for (DataSnapshot summarySnapshot : snapshot.getChildren()) {
+                                    EventSummary summary = EventMapper.summaryFromSnapshot(summarySnapshot);
+                                    if (summary != null
+                                            && isFutureOrToday(summary.getEndEpochMillis(), startOfToday)
+                                            && isWithin(summary, latitude, longitude, radiusMeters)) {
+                                        inRange.add(summary);
+                                    }
+                                }
+                                return inRange;
+                            }, inRange -> {
+                                // Merged on the main thread, where the other ranges arrive too
+                                for (EventSummary summary : inRange) {
+                                    nearby.put(summary.getEventId(), summary);
+                                }
+                                if (--remaining[0] == 0 && !failed[0]) {
+                                    List<EventSummary> found = new ArrayList<>(nearby.values());
+                                    SnapshotDecoder.decode(
+                                            () -> Collections.unmodifiableList(sortByDistance(found, latitude, longitude)),
+                                            callback::onSummariesLoaded, callback::onError);
+                                }
+                            }, error -> {
+                                remaining[0]--;
+                                if (!failed[0]) {
+                                    failed[0] = true;
+                                    callback.onError(error);
+                                }
+                            });
                         }
 
-                        if (isFutureOrToday(event.getDate())) {
-                            eventList.add(event);
-                        } else {
-                            eventsRef.child(event.getEventId()).removeValue(); // Remove outdated events
+                        @Override
+                        public void onCancelled(DatabaseError error) {
+                            remaining[0]--;
+                            if (!failed[0]) {
+                                failed[0] = true; // Report only the first failing range
+                                callback.onError("Failed to load nearby events: " + error.getMessage());
+                            }
                         }
-                    }
-                }
+                    });
+        }
+    }
+
+    private static boolean isWithin(EventSummary summary, double latitude, double longitude, double radiusMeters) {
+        return summary.getLatitude() != null && summary.getLongitude() != null
+                && GeoHash.distanceMeters(latitude, longitude,
+                        summary.getLatitude(), summary.getLongitude()) <= radiusMeters;
+    }
 
-                callback.onEventsLoaded(eventList); // Send updated event list to caller
+    private static List<EventSummary> sortByDistance(List<EventSummary> summaries, double latitude, double longitude) {
+        Collections.sort(summaries, (a, b) -> Double.compare(
+                GeoHash.distanceMeters(latitude, longitude, a.getLatitude(), a.getLongitude()),
+                GeoHash.distanceMeters(latitude, longitude, b.getLatitude(), b.getLongitude())));
+        return summaries;
+    }
+
+    /**
+     * One-time migration path: loads full events, writes their summaries and returns them.
+     */
+    private void backfillSummaries(SummaryLoadCallback callback) {
+        loadAllEvents(new EventLoadCallback() {
+            @Override
+            public void onEventsLoaded(List<EventSnapshot> events) {
+                List<EventSummary> summaries = new ArrayList<>(events.size());
+                for (EventSnapshot event : events) {
+                    summaries.add(EventSummary.from(event));
+                }
+                Map<String, Object> updates = new HashMap<>();
+                for (EventSummary summary : summaries) {
+                    updates.put(summary.getEventId(), EventWriter.stamped(summary.toMap()));
+                }
+                if (!updates.isEmpty()) {
+                    summariesRef.updateChildren(updates);
+                }
+                callback.onSummariesLoaded(summaries);
             }
 
             @Override
-            public void onCancelled(DatabaseError error) {
-                callback.onError("Failed to load events: " + error.getMessage());
+            public void onError(String error) {
+                callback.onError(error);
             }
-        };
+        });
+    }
+
+    private static List<EventSummary> toSummaries(List<Event> events) {
+        List<EventSummary> summaries = new ArrayList<>(events.size());
+        for (Event event : events) {
+            summaries.add(EventSummary.from(event));
+        }
+        return summaries;
+    }
+
+    private static List<EventSnapshot> seededSnapshots() {
+        List<EventSnapshot> snapshots = new ArrayList<>(SeededEventSource.EVENT_COUNT);
+        for (Event event : SeededEventSource.events()) {
+            snapshots.add(EventSnapshot.of(event));
+        }
+        return snapshots;
+    }
 
-        // Attach listener to Firebase to receive continuous updates
-        eventsRef.addValueEventListener(listener);
-        return listener; // Return so caller can remove it later if needed
+    /**
+     * Deletes past events together with their feed summaries, one write each (see EventWriter).
+     */
+    private void removeExpired(List<String> eventIds) {
+        for (String eventId : eventIds) {
+            eventWriter.delete(eventId);
+        }
     }
 
     /**
@@ -156,25 +360,30 @@ public class EventLoader {
      * @param callback Callback to handle the single event or errors.
      */
     public void loadEvent(String eventId, EventLoadCallback callback) {
+        if (BuildConfig.USE_SEEDED_EVENTS) {
+            for (EventSnapshot event : seededSnapshots()) {
+                if (event.getEventId().equals(eventId)) {
+                    callback.onEventsLoaded(Collections.singletonList(event));
+                    return;
+                }
+            }
+            callback.onError("Event not found");
+            return;
+        }
+
         eventsRef.child(eventId).addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot snapshot) {
                 if (snapshot.exists()) {
-                    Event event = snapshot.getValue(Event.class);
-
-                    if (event != null) {
-                        // Ensure eventId field is populated
-                        if (event.getEventId() == null || event.getEventId().isEmpty()) {
-                            event.setEventId(snapshot.getKey());
+                    // The rsvpList can be long, so even one event is mapped off the main thread
+                    SnapshotDecoder.decode(() -> EventMapper.snapshotOf(snapshot), event -> {
+                        if (event != null) {
+                            // Wrap event in a list for consistency with callback
+                            callback.onEventsLoaded(Collections.singletonList(event));
+                        } else {
+                            callback.onError("Event data not found");
                         }
-
-                        // Wrap event in a list for consistency with callback
-                        List<Event> singleEventList = new ArrayList<>();
-                        singleEventList.add(event);
-                        callback.onEventsLoaded(singleEventList);
-                    } else {
-                        callback.onError("Event data not found");
-                    }
+                    }, callback::onError);
                 } else {
                     callback.onError("Event not found");
                 }
@@ -187,12 +396,32 @@ public class EventLoader {
         });
     }
 
-
-    public void removeListener(ValueEventListener listener) { //  Removes a previously registered real-time listener.
-     // Prevents memory leaks when activity/fragment is destroyed.
-        if (listener != null) {
-            eventsRef.removeEventListener(listener);
+    /**
+     * Loads only "events/{id}/description", the one field the detail screen needs beyond the summary.
+     * Avoids downloading the whole event with its rsvpList.
+     */
+    public void loadDescription(String eventId, DescriptionCallback callback) {
+        if (BuildConfig.USE_SEEDED_EVENTS) {
+            for (Event event : SeededEventSource.events()) {
+                if (event.getEventId().equals(eventId)) {
+                    callback.onDescriptionLoaded(event.getDescription());
+                    return;
+                }
+            }
+            callback.onError("Event not found");
+            return;
         }
+
+        eventsRef.child(eventId).child("description").addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                callback.onDescriptionLoaded(EventMapper.asString(snapshot.getValue()));
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                callback.onError("Failed to load event: " + error.getMessage());
+            }
+        });
     }
 }
-
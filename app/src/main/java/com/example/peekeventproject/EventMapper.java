@@ -0,0 +1,264 @@
+package com.example.peekeventproject;
+
+import com.google.firebase.database.DataSnapshot;
+
+/**
+ * EventMapper turns a DataSnapshot of one "events/{id}" node into an EventSnapshot (or an Event
+ * draft) without reflection.
+ * snapshot.getValue(Event.class) goes through Firebase's CustomClassMapper, which looks up
+ * getters/setters reflectively for every event on every load and realtime update.
+ * Here each child is read once and copied straight into the matching field, and values that
+ * repeat across events share one instance (see pooled).
+ * The same applies to EventSummary nodes.
+ *
+ * Keep the keys below in sync with the Event getters (they are the names Firebase writes).
+ */
+public final class EventMapper {
+
+    private EventMapper() {
+    }
+
+    /**
+     * Reads a single event node into an immutable snapshot (what loaders hand to screens).
+     * @param snapshot snapshot of "events/{id}"
+     * @return the event, or null if the snapshot holds no event data
+     */
+    public static EventSnapshot snapshotOf(DataSnapshot snapshot) {
+        EventSnapshot.Builder builder = read(snapshot);
+        return builder != null ? builder.build() : null;
+    }
+
+    /**
+     * Reads a single event node into a mutable draft (write and maintenance paths).
+     * @param snapshot snapshot of "events/{id}"
+     * @return the Event, or null if the snapshot holds no event data
+     */
+    public static Event fromSnapshot(DataSnapshot snapshot) {
+        EventSnapshot.Builder builder = read(snapshot);
+        return builder != null ? builder.toEvent() : null; // The decoded RSVP set is handed over, not copied
+    }
+
+    private static EventSnapshot.Builder read(DataSnapshot snapshot) {
+        if (snapshot == null || !snapshot.hasChildren()) {
+            return null;
+        }
+
+        EventSnapshot.Builder builder = new EventSnapshot.Builder();
+        int shardSum = 0;
+        long startEpochMillis = EventTimeCodec.UNKNOWN, endEpochMillis = EventTimeCodec.UNKNOWN;
+        Double latitude = null, longitude = null;
+        String geohash = null;
+        for (DataSnapshot child : snapshot.getChildren()) {
+            String key = child.getKey();
+            if (key == null) continue;
+
+            switch (key) {
+                case "eventId":
+                    builder.eventId(asString(child.getValue()));
+                    break;
+                case "title":
+                    builder.title(asString(child.getValue()));
+                    break;
+                case "category":
+                    builder.category(asString(child.getValue()));
+                    break;
+                case "description":
+                    builder.description(asString(child.getValue()));
+                    break;
+                case "date":
+                    builder.date(pooled(child.getValue()));
+                    break;
+                case "time":
+                    builder.time(pooled(child.getValue()));
+                    break;
+                case "location":
+                    builder.location(pooled(child.getValue()));
+                    break;
+                case "zone":
+                    builder.zone(pooled(child.getValue()));
+                    break;
+                case "attendeeCount":
+                    builder.attendeeCount(asInt(child.getValue()));
+                    break;
+                case "capacity":
+                    builder.capacity(asInt(child.getValue()));
+                    break;
+                case "imageUrl":
+                    builder.imageUrl(asString(child.getValue()));
+                    break;
+                case "creatorId":
+                    builder.creatorId(pooled(child.getValue()));
+                    break;
+                case "startEpochMillis":
+                    startEpochMillis = asLong(child.getValue());
+                    break;
+                case "endEpochMillis":
+                    endEpochMillis = asLong(child.getValue());
+                    break;
+                case "latitude":
+                    latitude = asDouble(child.getValue());
+                    break;
+                case "longitude":
+                    longitude = asDouble(child.getValue());
+                    break;
+                case "geohash":
+                    geohash = asString(child.getValue());
+                    break;
+                case "attendeeShards":
+                    shardSum += AttendeeCounter.sumShards(child, -1); // Busy events count in shards too
+                    break;
+                case AttendeeCounter.SEATS_NODE:
+                    shardSum += AttendeeCounter.countSeats(child, -1); // Events with a capacity hold seats
+                    break;
+                case "rsvpList":
+                    builder.rsvps(readRsvps(child));
+                    break;
+                default:
+                    // Unknown keys are ignored, same as CustomClassMapper
+                    break;
+            }
+        }
+
+        builder.epochMillis(startEpochMillis, endEpochMillis).storedCoordinates(latitude, longitude, geohash);
+        if (shardSum != 0) {
+            builder.attendeeCount(AttendeeCounter.total(builder.attendeeCount(), shardSum));
+        }
+
+        // Ensure event ID is set (sometimes missing if only Firebase key exists)
+        if (builder.eventId() == null || builder.eventId().isEmpty()) {
+            builder.eventId(snapshot.getKey());
+        }
+
+        // Events written before the epoch fields existed are parsed once here
+        if (builder.endEpochMillis() == EventTimeCodec.UNKNOWN) {
+            builder.parseTimes();
+        }
+        return builder;
+    }
+
+
+    /**
+     * Reads a single "eventSummaries/{id}" node.
+     * @return the summary, or null if the snapshot holds no data
+     */
+    public static EventSummary summaryFromSnapshot(DataSnapshot snapshot) {
+        if (snapshot == null || !snapshot.hasChildren()) {
+            return null;
+        }
+
+        String eventId = null, title = null, category = null, date = null, time = null;
+        String location = null, zone = null, imageUrl = null, geohash = null;
+        Double latitude = null, longitude = null;
+        int attendeeCount = 0, capacity = 0;
+        long startEpochMillis = EventTimeCodec.UNKNOWN, endEpochMillis = EventTimeCodec.UNKNOWN;
+
+        for (DataSnapshot child : snapshot.getChildren()) {
+            String key = child.getKey();
+            if (key == null) continue;
+
+            Object value = child.getValue(); // Summary children are all leaves
+            switch (key) {
+                case "eventId": eventId = asString(value); break;
+                case "title": title = asString(value); break;
+                case "category": category = asString(value); break;
+                case "date": date = pooled(value); break;
+                case "time": time = pooled(value); break;
+                case "location": location = pooled(value); break;
+                case "zone": zone = pooled(value); break;
+                case "imageUrl": imageUrl = asString(value); break;
+                case "attendeeCount": attendeeCount = asInt(value); break;
+                case "capacity": capacity = asInt(value); break;
+                case "startEpochMillis": startEpochMillis = asLong(value); break;
+                case "endEpochMillis": endEpochMillis = asLong(value); break;
+                case "latitude": latitude = asDouble(value); break;
+                case "longitude": longitude = asDouble(value); break;
+                case "geohash": geohash = asString(value); break;
+                default: break;
+            }
+        }
+
+        if (eventId == null || eventId.isEmpty()) {
+            eventId = snapshot.getKey();
+        }
+        if (endEpochMillis == EventTimeCodec.UNKNOWN) {
+            startEpochMillis = EventTimeCodec.startMillis(date, time);
+            endEpochMillis = EventTimeCodec.endMillis(date, time);
+        }
+        return new EventSummary(eventId, title, category, date, time, location, zone, imageUrl, attendeeCount, capacity,
+                startEpochMillis, endEpochMillis, latitude, longitude, geohash);
+    }
+
+    /**
+     * Walks the rsvpList children directly instead of calling getValue() on the node,
+     * which would first build a generic nested Map. Only users mapped to true are kept,
+     * collected into one array and sorted once.
+     */
+    private static RsvpSet readRsvps(DataSnapshot rsvpSnapshot) {
+        String[] userIds = new String[(int) rsvpSnapshot.getChildrenCount()];
+        int count = 0;
+        for (DataSnapshot entry : rsvpSnapshot.getChildren()) {
+            if (Boolean.TRUE.equals(entry.getValue()) && count < userIds.length) {
+                userIds[count++] = entry.getKey();
+            }
+        }
+        return RsvpSet.fromUnsorted(userIds, count);
+    }
+
+    /**
+     * For fields whose values repeat across events; see StringPool. (Categories are pooled by
+     * EventSummary and EventSnapshot themselves.)
+     */
+    static String pooled(Object value) {
+        return StringPool.canonical(asString(value));
+    }
+
+    static String asString(Object value) {
+        if (value == null) return null;
+        return value instanceof String ? (String) value : String.valueOf(value);
+    }
+
+    static long asLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Long.parseLong((String) value);
+            } catch (NumberFormatException ignored) {
+                // Fall through to default
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the number, or null if the value is missing or not a number (coordinates are optional)
+     */
+    static Double asDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue(); // Whole-degree values come back as Long
+        }
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException ignored) {
+                // Fall through to default
+            }
+        }
+        return null;
+    }
+
+    static int asInt(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue(); // Firebase hands back Long (or Double)
+        }
+        if (value instanceof String) {
+            try {
+                return Integer.parseInt((String) value);
+            } catch (NumberFormatException ignored) {
+                // Fall through to default
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.peekeventproject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable full event, as loaded from "events/{id}" (see EventMapper.snapshotOf).
+ * Loaders hand these to screens instead of Event, so an event decoded on a SnapshotDecoder
+ * thread can be read anywhere without copying and nobody can change it under another reader.
+ * - To change an event, derive a new one: buildUpon() starts a Builder from this snapshot.
+ *   The builder shares every field it is not told to change, including the RsvpSet, which it
+ *   copies only before the first RSVP change (copy-on-write).
+ * - Event remains the mutable draft used on write paths (create form, MutationOutbox, Firebase
+ *   wire format); toEvent() turns a snapshot into one.
+ */
+public final class EventSnapshot {
+
+    private final String eventId;
+    private final String title;
+    private final byte categoryOrdinal; // See EventCategory.ordinalOf
+    private final String otherCategory;
+    private final String description;
+    private final String date;
+    private final String time;
+    private final String location;
+    private final String zone;
+    private final int attendeeCount;
+    private final int capacity;
+    private final String imageUrl;
+    private final String creatorId;
+    private final long startEpochMillis;
+    private final long endEpochMillis;
+    private final Double latitude;
+    private final Double longitude;
+    private final String geohash;
+    private final RsvpSet rsvps; // Never changed once built (the Builder copies it first); null when nobody RSVP'd
+
+    private EventSnapshot(Builder builder) {
+        eventId = builder.eventId;
+        title = builder.title;
+        categoryOrdinal = EventCategory.ordinalOf(builder.category);
+        otherCategory = categoryOrdinal == EventCategory.OTHER ? StringPool.canonical(builder.category) : null;
+        description = builder.description;
+        date = builder.date;
+        time = builder.time;
+        location = builder.location;
+        zone = builder.zone;
+        attendeeCount = builder.attendeeCount;
+        capacity = builder.capacity;
+        imageUrl = builder.imageUrl;
+        creatorId = builder.creatorId;
+        startEpochMillis = builder.startEpochMillis;
+        endEpochMillis = builder.endEpochMillis;
+        latitude = builder.latitude;
+        longitude = builder.longitude;
+        geohash = builder.geohash;
+        rsvps = builder.rsvps;
+    }
+
+    /**
+     * Snapshot of a draft; the RSVP set is copied, since the draft may still change it.
+     */
+    public static EventSnapshot of(Event event) {
+        RsvpSet rsvps = event.rsvps();
+        return new Builder()
+                .eventId(event.getEventId())
+                .title(event.getTitle())
+                .category(event.getCategory())
+                .description(event.getDescription())
+                .date(event.getDate())
+                .time(event.getTime())
+                .location(event.getLocation())
+                .zone(event.getZone())
+                .attendeeCount(event.getAttendeeCount())
+                .capacity(event.getCapacity())
+                .imageUrl(event.getImageUrl())
+                .creatorId(event.getCreatorId())
+                .epochMillis(event.getStartEpochMillis(), event.getEndEpochMillis())
+                .storedCoordinates(event.getLatitude(), event.getLongitude(), event.getGeohash())
+                .rsvps(rsvps != null ? rsvps.copy() : null)
+                .build();
+    }
+
+    public String getEventId() { return eventId; }
+    public String getTitle() { return title; }
+    public String getCategory() { return EventCategory.labelOf(categoryOrdinal, otherCategory); }
+    public String getDescription() { return description; }
+    public String getDate() { return date; }
+    public String getTime() { return time; }
+    public String getLocation() { return location; }
+    public String getZone() { return zone; }
+    public int getAttendeeCount() { return attendeeCount; }
+    public int getCapacity() { return capacity; }
+    public String getImageUrl() { return imageUrl; }
+    public String getCreatorId() { return creatorId; }
+    public long getStartEpochMillis() { return startEpochMillis; }
+    public long getEndEpochMillis() { return endEpochMillis; }
+    public Double getLatitude() { return latitude; }
+    public Double getLongitude() { return longitude; }
+    public String getGeohash() { return geohash; }
+
+    public boolean hasUserRsvpd(String userId) {
+        return rsvps != null && rsvps.contains(userId);
+    }
+
+    public int getRsvpCount() {
+        return rsvps != null ? rsvps.size() : 0;
+    }
+
+    /**
+     * Returns the RSVP list in Firebase's wire format (userId → true), never null.
+     */
+    public Map<String, Boolean> getRsvpList() {
+        return rsvps != null ? rsvps.toMap() : new HashMap<>();
+    }
+
+    /**
+     * @return a Builder holding this snapshot's fields, to derive a changed copy
+     */
+    public Builder buildUpon() {
+        return new Builder(this);
+    }
+
+    /**
+     * @return a mutable draft with the same fields, for the write paths that take an Event
+     */
+    public Event toEvent() {
+        return buildUpon().toEvent();
+    }
+
+    /**
+     * Collects the fields of a new snapshot. Not thread-safe; build() may be called repeatedly,
+     * and every snapshot built keeps the values it was built with.
+     */
+    public static final class Builder {
+
+        private String eventId;
+        private String title;
+        private String category;
+        private String description;
+        private String date;
+        private String time;
+        private String location;
+        private String zone;
+        private int attendeeCount;
+        private int capacity;
+        private String imageUrl;
+        private String creatorId;
+        private long startEpochMillis = EventTimeCodec.UNKNOWN;
+        private long endEpochMillis = EventTimeCodec.UNKNOWN;
+        private Double latitude;
+        private Double longitude;
+        private String geohash;
+        private RsvpSet rsvps;
+        private boolean rsvpsShared;  // A built snapshot holds rsvps: copy before changing it
+        private boolean rsvpsDrafted; // A draft from toEvent() holds rsvps and may change it: copy before building
+
+        public Builder() {
+        }
+
+        private Builder(EventSnapshot from) {
+            eventId = from.eventId;
+            title = from.title;
+            category = from.getCategory();
+            description = from.description;
+            date = from.date;
+            time = from.time;
+            location = from.location;
+            zone = from.zone;
+            attendeeCount = from.attendeeCount;
+            capacity = from.capacity;
+            imageUrl = from.imageUrl;
+            creatorId = from.creatorId;
+            startEpochMillis = from.startEpochMillis;
+            endEpochMillis = from.endEpochMillis;
+            latitude = from.latitude;
+            longitude = from.longitude;
+            geohash = from.geohash;
+            rsvps = from.rsvps;
+            rsvpsShared = true;
+        }
+
+        public Builder eventId(String eventId) { this.eventId = eventId; return this; }
+        public Builder title(String title) { this.title = title; return this; }
+        public Builder category(String category) { this.category = category; return this; }
+        public Builder description(String description) { this.description = description; return this; }
+        public Builder date(String date) { this.date = date; return this; }
+        public Builder time(String time) { this.time = time; return this; }
+        public Builder location(String location) { this.location = location; return this; }
+        public Builder zone(String zone) { this.zone = zone; return this; }
+        public Builder attendeeCount(int attendeeCount) { this.attendeeCount = attendeeCount; return this; }
+        public Builder capacity(int capacity) { this.capacity = Math.max(0, capacity); return this; }
+        public Builder imageUrl(String imageUrl) { this.imageUrl = imageUrl; return this; }
+        public Builder creatorId(String creatorId) { this.creatorId = creatorId; return this; }
+
+        // Read back by EventMapper to fill in what older nodes lack
+        String eventId() { return eventId; }
+        int attendeeCount() { return attendeeCount; }
+        long endEpochMillis() { return endEpochMillis; }
+
+        public Builder epochMillis(long startEpochMillis, long endEpochMillis) {
+            this.startEpochMillis = startEpochMillis;
+            this.endEpochMillis = endEpochMillis;
+            return this;
+        }
+
+        /**
+         * Re-derives the epoch fields from the current date and time (see EventTimeCodec).
+         */
+        public Builder parseTimes() {
+            return epochMillis(EventTimeCodec.startMillis(date, time), EventTimeCodec.endMillis(date, time));
+        }
+
+        /**
+         * Sets coordinates and geohash as stored; use coordinates() to derive the geohash instead.
+         */
+        public Builder storedCoordinates(Double latitude, Double longitude, String geohash) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.geohash = geohash;
+            return this;
+        }
+
+        /**
+         * Sets the coordinates and the matching geohash, or clears all three when either is null.
+         */
+        public Builder coordinates(Double latitude, Double longitude) {
+            boolean known = latitude != null && longitude != null && GeoHash.isValid(latitude, longitude);
+            return storedCoordinates(known ? latitude : null, known ? longitude : null,
+                    known ? GeoHash.encode(latitude, longitude, GeoHash.STORED_PRECISION) : null);
+        }
+
+        /**
+         * Takes over a set nobody else holds (e.g. one just decoded).
+         */
+        public Builder rsvps(RsvpSet rsvps) {
+            this.rsvps = rsvps != null && !rsvps.isEmpty() ? rsvps : null;
+            rsvpsShared = false;
+            return this;
+        }
+
+        /**
+         * Adds an RSVP and counts the user, like Event.addRsvp.
+         */
+        public Builder addRsvp(String userId) {
+            RsvpSet set = writableRsvps();
+            if (set.add(userId)) attendeeCount++;
+            return this;
+        }
+
+        /**
+         * Removes an RSVP and uncounts the user (never below zero), like Event.removeRsvp.
+         */
+        public Builder removeRsvp(String userId) {
+            if (rsvps == null || !rsvps.contains(userId)) return this;
+            RsvpSet set = writableRsvps();
+            set.remove(userId);
+            attendeeCount = Math.max(0, attendeeCount - 1);
+            if (set.isEmpty()) rsvps = null;
+            return this;
+        }
+
+        private RsvpSet writableRsvps() {
+            if (rsvps == null) {
+                rsvps = new RsvpSet();
+            } else if (rsvpsShared || rsvpsDrafted) {
+                rsvps = rsvps.copy(); // Snapshots and drafts made earlier keep the old set
+            }
+            rsvpsShared = rsvpsDrafted = false;
+            return rsvps;
+        }
+
+        public EventSnapshot build() {
+            if (rsvpsDrafted) {
+                rsvps = rsvps.copy();
+                rsvpsDrafted = false;
+            }
+            rsvpsShared = rsvps != null; // The snapshot now holds the set
+            return new EventSnapshot(this);
+        }
+
+        /**
+         * @return a mutable draft of the fields so far. The RSVP set is handed over without a
+         * copy unless a snapshot holds it (so decoding straight to an Event costs nothing extra).
+         */
+        public Event toEvent() {
+            Event event = new Event(eventId, title, category, description, date, time, location, zone, attendeeCount);
+            event.setCapacity(capacity);
+            event.setImageUrl(imageUrl);
+            event.setCreatorId(creatorId);
+            event.setStartEpochMillis(startEpochMillis);
+            event.setEndEpochMillis(endEpochMillis);
+            event.setLatitude(latitude);
+            event.setLongitude(longitude);
+            event.setGeohash(geohash);
+            if (rsvps != null && rsvpsShared) {
+                event.setRsvps(rsvps.copy());
+            } else {
+                event.setRsvps(rsvps);
+                rsvpsDrafted = rsvps != null;
+            }
+            return event;
+        }
+    }
+}
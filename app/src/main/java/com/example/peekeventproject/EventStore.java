@@ -0,0 +1,72 @@
+package com.example.peekeventproject;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory copy of the synced feed, published as immutable versions (copy-on-write).
+ * - Readers call current() on any thread and get one consistent version: its map and list never
+ *   change, so they are read without locks and without copying.
+ * - A writer builds the next version off to the side from a version it read (EventSyncer merges
+ *   a delta into a copy of the map on a SnapshotDecoder thread) and publishes it in one atomic
+ *   swap. Readers still holding the old version keep seeing it unchanged.
+ * - Versions share their EventSummary objects, which are immutable themselves.
+ *
+ * Lives as long as the process; LocalEventStore is the copy on disk.
+ */
+final class EventStore {
+
+    /**
+     * One published state of the feed.
+     */
+    static final class Version {
+
+        final long number;                          // 0 until the first sync is published
+        final SortedMap<String, EventSummary> byId; // By event ID; sorted, so new TreeMap<>(byId) copies in linear time
+        final List<EventSummary> feed;              // The same summaries in EventTimeIndex.BY_START order
+
+        private Version(long number, SortedMap<String, EventSummary> byId, List<EventSummary> feed) {
+            this.number = number;
+            this.byId = byId;
+            this.feed = feed;
+        }
+
+        boolean isLoaded() {
+            return number > 0;
+        }
+    }
+
+    private static final Version EMPTY = new Version(0, Collections.emptySortedMap(), Collections.emptyList());
+    private static EventStore instance;
+
+    private final AtomicReference<Version> current = new AtomicReference<>(EMPTY);
+
+    private EventStore() {
+    }
+
+    static synchronized EventStore getInstance() {
+        if (instance == null) {
+            instance = new EventStore();
+        }
+        return instance;
+    }
+
+    Version current() {
+        return current.get();
+    }
+
+    /**
+     * Publishes a new version built from base.
+     * @param byId summaries by event ID; the caller hands it over and never changes it again
+     * @param feed the same summaries in BY_START order, handed over likewise
+     * @return the published version, or null if another writer published after base was read
+     *         (the caller's result is then stale, and is not published)
+     */
+    Version publish(Version base, SortedMap<String, EventSummary> byId, List<EventSummary> feed) {
+        Version next = new Version(base.number + 1, Collections.unmodifiableSortedMap(byId),
+                Collections.unmodifiableList(feed));
+        return current.compareAndSet(base, next) ? next : null;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.peekeventproject;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lightweight projection of an Event holding only what a feed card needs.
+ * Stored denormalized under "eventSummaries/{eventId}" so the feed can skip
+ * description and the full rsvpList. The full Event is fetched only on the detail screen.
+ *
+ * Immutable; use the with* methods to derive an updated copy.
+ * A feed holds thousands of these, so the category is kept as an ordinal, and decoders pass
+ * repeated strings through StringPool.
+ * Implements Serializable so it can be passed between activities using Intents.
+ */
+public final class EventSummary implements Serializable {
+
+    // Firebase node holding one summary per event, keyed by event ID
+    public static final String NODE = "eventSummaries";
+
+    // Keys written by toMap(); event edits touching any of these must update the summary too
+    public static final Set<String> FIELDS = new HashSet<>(Arrays.asList(
+            "eventId", "title", "category", "date", "time", "location", "zone", "imageUrl", "attendeeCount",
+            "capacity", "startEpochMillis", "endEpochMillis", "latitude", "longitude", "geohash"));
+
+    private final String eventId;
+    private final String title;
+    private final byte categoryOrdinal; // Kept for category filtering on the feed; see EventCategory.ordinalOf
+    private final String otherCategory; // The stored value when it is not a known label, else null
+    private final String date;
+    private final String time;
+    private final String location;
+    private final String zone;
+    private final String imageUrl;
+    private final int attendeeCount;
+    private final int capacity;          // 0 = unlimited; lets the detail screen offer the waitlist when full
+    private final long startEpochMillis; // See EventTimeCodec; lets the feed sort without parsing dates
+    private final long endEpochMillis;
+    private final Double latitude;       // Optional; nearby queries range over geohash, then refine by distance
+    private final Double longitude;
+    private final String geohash;
+
+    public EventSummary(String eventId, String title, String category, String date, String time,
+                        String location, String zone, String imageUrl, int attendeeCount, int capacity,
+                        long startEpochMillis, long endEpochMillis,
+                        Double latitude, Double longitude, String geohash) {
+        this.eventId = eventId;
+        this.title = title;
+        this.categoryOrdinal = EventCategory.ordinalOf(category);
+        this.otherCategory = categoryOrdinal == EventCategory.OTHER ? StringPool.canonical(category) : null;
+        this.date = date;
+        this.time = time;
+        this.location = location;
+        this.zone = zone;
+        this.imageUrl = imageUrl;
+        this.attendeeCount = attendeeCount;
+        this.capacity = capacity;
+        this.startEpochMillis = startEpochMillis;
+        this.endEpochMillis = endEpochMillis;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.geohash = geohash;
+    }
+
+    /**
+     * Builds the summary of a full event (used on every write path).
+     */
+    public static EventSummary from(Event event) {
+        return new EventSummary(event.getEventId(), event.getTitle(), event.getCategory(),
+                event.getDate(), event.getTime(), event.getLocation(), event.getZone(),
+                event.getImageUrl(), event.getAttendeeCount(), event.getCapacity(),
+                event.getStartEpochMillis(), event.getEndEpochMillis(),
+                event.getLatitude(), event.getLongitude(), event.getGeohash());
+    }
+
+    /**
+     * Builds the summary of a loaded event.
+     */
+    public static EventSummary from(EventSnapshot event) {
+        return new EventSummary(event.getEventId(), event.getTitle(), event.getCategory(),
+                event.getDate(), event.getTime(), event.getLocation(), event.getZone(),
+                event.getImageUrl(), event.getAttendeeCount(), event.getCapacity(),
+                event.getStartEpochMillis(), event.getEndEpochMillis(),
+                event.getLatitude(), event.getLongitude(), event.getGeohash());
+    }
+
+    public String getEventId() { return eventId; }
+    public String getTitle() { return title; }
+    public String getCategory() { return EventCategory.labelOf(categoryOrdinal, otherCategory); }
+    public String getDate() { return date; }
+    public String getTime() { return time; }
+    public String getLocation() { return location; }
+    public String getZone() { return zone; }
+    public String getImageUrl() { return imageUrl; }
+    public int getAttendeeCount() { return attendeeCount; }
+    public int getCapacity() { return capacity; }
+    public long getStartEpochMillis() { return startEpochMillis; }
+    public long getEndEpochMillis() { return endEpochMillis; }
+    public Double getLatitude() { return latitude; }
+    public Double getLongitude() { return longitude; }
+    public String getGeohash() { return geohash; }
+
+    /**
+     * Returns a copy with a new attendee count (used when RSVPs change).
+     */
+    public EventSummary withAttendeeCount(int newCount) {
+        return new EventSummary(eventId, title, getCategory(), date, time, location, zone, imageUrl, newCount, capacity,
+                startEpochMillis, endEpochMillis, latitude, longitude, geohash);
+    }
+
+    /**
+     * Wire format written to "eventSummaries/{eventId}".
+     * Built by hand so writes do not need reflection either (see EventMapper for reads).
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("eventId", eventId);
+        map.put("title", title);
+        map.put("category", getCategory());
+        map.put("date", date);
+        map.put("time", time);
+        map.put("location", location);
+        map.put("zone", zone);
+        map.put("imageUrl", imageUrl);
+        map.put("attendeeCount", attendeeCount);
+        map.put("capacity", capacity);
+        map.put("startEpochMillis", startEpochMillis);
+        map.put("endEpochMillis", endEpochMillis);
+        map.put("latitude", latitude);
+        map.put("longitude", longitude);
+        map.put("geohash", geohash);
+        return map;
+    }
+}
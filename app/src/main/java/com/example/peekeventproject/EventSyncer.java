@@ -0,0 +1,353 @@
+package com.example.peekeventproject;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.peekeventproject.eventbundle.EventBundle;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * EventSyncer keeps a local copy of the feed summaries (LocalEventStore) and downloads only what
+ * changed since the last sync:
+ *   - summaries with "updatedAt" at or after the summaries high-water mark, and
+ *   - tombstones ("eventTombstones/{id}" → deletion time) at or after the tombstones mark.
+ * Both timestamps are server time (see EventWriter), and each mark is the largest value its own
+ * query returned, so device clocks never matter. The queries are inclusive (startAt, not
+ * startAfter): writes can share a millisecond, and re-reading the newest entry is cheaper than
+ * missing one. Marks are saved only after the store is, so a killed process just repeats the delta.
+ *
+ * A full download is done on the first sync, and when the last sync is older than tombstones are
+ * kept (EventIndexChecker prunes them), since deletions from that time could be missed.
+ * If the app ships a recent enough event bundle (BundledEvents), the first sync is instead a
+ * delta from the bundle's timestamp.
+ *
+ * sync() is called on the main thread and calls back there with an unmodifiable list in
+ * EventTimeIndex.BY_START order. Downloaded snapshots are mapped, merged and sorted on
+ * SnapshotDecoder's threads, and the store is used on a disk thread.
+ * Each merged feed is also published to EventStore. A delta merges into a copy of the last
+ * published version, so the disk copy is read only once per process, and readers of the
+ * current version never see a merge in progress.
+ */
+final class EventSyncer {
+
+    // Tombstones older than this are pruned by EventIndexChecker
+    static final long TOMBSTONE_RETENTION_MILLIS = 30L * 24 * 60 * 60 * 1000;
+    // Half the retention, so clock skew between device and server cannot skip a tombstone
+    private static final long FULL_SYNC_AFTER_MILLIS = TOMBSTONE_RETENTION_MILLIS / 2;
+
+    private static final String PREFS = "event_sync";
+    private static final String KEY_SUMMARIES_MARK = "summaries_mark";
+    private static final String KEY_TOMBSTONES_MARK = "tombstones_mark";
+    private static final String KEY_SYNCED_AT = "synced_at"; // Device time of the last sync
+
+    private static EventSyncer instance;
+
+    private final Context context;
+    private final SharedPreferences prefs;
+    private final LocalEventStore store;
+    private final EventStore eventStore = EventStore.getInstance();
+    private final DatabaseReference summariesRef;
+    private final DatabaseReference tombstonesRef;
+    private final EventWriter eventWriter = new EventWriter();
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Callers waiting for the running sync; a second sync() joins it instead of starting another
+    private final List<EventLoader.SummaryLoadCallback> waiting = new ArrayList<>();
+
+    /**
+     * A downloaded delta, decoded and merged off the main thread.
+     */
+    private static final class Delta {
+        final List<EventSummary> upserts = new ArrayList<>();
+        final List<String> removals = new ArrayList<>();
+        final List<String> expired = new ArrayList<>(); // Upserts of events that are over
+        List<EventSummary> feed;
+        long summariesMark;
+        long tombstonesMark;
+        long startOfToday;
+    }
+
+    private EventSyncer(Context context) {
+        this.context = context;
+        prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        store = new LocalEventStore(context);
+        summariesRef = FirebaseDatabase.getInstance().getReference(EventSummary.NODE);
+        tombstonesRef = FirebaseDatabase.getInstance().getReference(EventWriter.TOMBSTONES_NODE);
+    }
+
+    static synchronized EventSyncer getInstance(Context context) {
+        if (instance == null) {
+            instance = new EventSyncer(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Brings the local summaries up to date and returns those of today-or-later events.
+     */
+    void sync(EventLoader.SummaryLoadCallback callback) {
+        // Benchmark builds serve a fixed local data set instead of the network
+        if (BuildConfig.USE_SEEDED_EVENTS) {
+            new EventLoader().loadSummaries(callback);
+            return;
+        }
+
+        waiting.add(callback);
+        if (waiting.size() > 1) return;
+
+        EventStore.Version base = eventStore.current();
+        diskExecutor.execute(() -> {
+            try {
+                start(base);
+            } catch (Throwable t) {
+                // An unreadable local copy or bundle fails this sync; the next sync() starts afresh
+                mainHandler.post(() -> deliver(null, "Failed to read saved events: " + t));
+            }
+        });
+    }
+
+    /**
+     * Reads the sync marks and the local summaries (or the bundle), then starts the download
+     * on the main thread. Runs on the disk thread.
+     */
+    private void start(EventStore.Version base) {
+        SortedMap<String, EventSummary> local; // Key order, like a Firebase read
+        if (base.isLoaded()) {
+            local = base.byId; // Already in memory; never changed, the merge works on a copy
+        } else {
+            local = new TreeMap<>();
+            for (EventSummary summary : store.readAll()) {
+                local.put(summary.getEventId(), summary);
+            }
+        }
+        long summariesMark = prefs.getLong(KEY_SUMMARIES_MARK, 0);
+        long tombstonesMark = prefs.getLong(KEY_TOMBSTONES_MARK, 0);
+        long syncedAt = prefs.getLong(KEY_SYNCED_AT, 0);
+
+        if (summariesMark == 0) {
+            EventBundle bundle = BundledEvents.open(context);
+            if (bundle != null && bundle.createdAt() > 0
+                    && System.currentTimeMillis() - bundle.createdAt() <= FULL_SYNC_AFTER_MILLIS) {
+                SortedMap<String, EventSummary> seeded = new TreeMap<>();
+                try {
+                    for (EventSummary summary : BundledEvents.upcoming(bundle, EventTimeCodec.startOfTodayMillis())) {
+                        seeded.put(summary.getEventId(), summary);
+                    }
+                } catch (IllegalArgumentException e) {
+                    seeded = null; // Corrupt record: download everything, as without a bundle
+                }
+                if (seeded != null) {
+                    SortedMap<String, EventSummary> bundled = seeded;
+                    long bundleMark = bundle.createdAt();
+                    mainHandler.post(() -> deltaSync(base, bundled, bundleMark, bundleMark, true));
+                    return;
+                }
+            }
+        }
+
+        mainHandler.post(() -> {
+            if (summariesMark == 0 || System.currentTimeMillis() - syncedAt > FULL_SYNC_AFTER_MILLIS) {
+                fullSync(base);
+            } else {
+                deltaSync(base, local, summariesMark, tombstonesMark, false);
+            }
+        });
+    }
+
+    /**
+     * Downloads every summary. The newest tombstone is read first: anything deleted later has no
+     * summary in the full read, and is removed by the next delta otherwise.
+     */
+    private void fullSync(EventStore.Version base) {
+        read(tombstonesRef.orderByValue().limitToLast(1), tombstonesSnapshot -> {
+            long newestTombstone = 0;
+            for (DataSnapshot tombstone : tombstonesSnapshot.getChildren()) {
+                newestTombstone = EventMapper.asLong(tombstone.getValue());
+            }
+            long tombstonesMark = newestTombstone;
+
+            read(summariesRef, summariesSnapshot -> {
+                if (!summariesSnapshot.exists()) {
+                    // Never written yet: EventLoader backfills the node, and the next sync reads it
+                    new EventLoader().loadSummaries(new EventLoader.SummaryLoadCallback() {
+                        @Override
+                        public void onSummariesLoaded(List<EventSummary> summaries) {
+                            deliver(summaries, null);
+                        }
+
+                        @Override
+                        public void onError(String error) {
+                            deliver(null, error);
+                        }
+                    });
+                    return;
+                }
+
+                SnapshotDecoder.decode(() -> {
+                    Delta delta = decode(base, new TreeMap<>(), summariesSnapshot, null, 0, tombstonesMark);
+                    // No deletions yet: later tombstones are all newer than this read
+                    if (tombstonesMark == 0) delta.tombstonesMark = delta.summariesMark;
+                    return delta;
+                }, delta -> finish(delta, true), error -> deliver(null, error));
+            });
+        });
+    }
+
+    /**
+     * Downloads only the summaries and tombstones written since the marks.
+     * @param base the EventStore version the sync started from
+     * @param local the summaries the delta applies to; not changed
+     * @param replace whether local is not yet in the store (it came from the bundle)
+     */
+    private void deltaSync(EventStore.Version base, SortedMap<String, EventSummary> local,
+                           long summariesMark, long tombstonesMark, boolean replace) {
+        read(summariesRef.orderByChild(EventWriter.UPDATED_AT).startAt(summariesMark), summariesSnapshot ->
+                read(tombstonesRef.orderByValue().startAt(tombstonesMark), tombstonesSnapshot ->
+                        SnapshotDecoder.decode(
+                                () -> decode(base, local, summariesSnapshot, tombstonesSnapshot, summariesMark, tombstonesMark),
+                                delta -> finish(delta, replace), error -> deliver(null, error))));
+    }
+
+    /**
+     * Maps both reads, merges them into a copy of local and publishes the result to EventStore.
+     * Runs on a decode thread.
+     * @param tombstonesSnapshot null for a full download
+     */
+    private Delta decode(EventStore.Version base, SortedMap<String, EventSummary> local,
+                         DataSnapshot summariesSnapshot, DataSnapshot tombstonesSnapshot,
+                         long summariesMark, long tombstonesMark) {
+        Delta delta = new Delta();
+        delta.summariesMark = readSummaries(summariesSnapshot, summariesMark, delta.upserts);
+        delta.tombstonesMark = tombstonesMark;
+        if (tombstonesSnapshot != null) {
+            for (DataSnapshot tombstone : tombstonesSnapshot.getChildren()) {
+                delta.removals.add(tombstone.getKey());
+                delta.tombstonesMark = Math.max(delta.tombstonesMark, EventMapper.asLong(tombstone.getValue()));
+            }
+        }
+
+        delta.startOfToday = EventTimeCodec.startOfTodayMillis();
+        Set<String> removed = new HashSet<>(delta.removals);
+        for (EventSummary summary : delta.upserts) {
+            // Still on the server but over: deleted there on the main thread, as EventLoader does
+            if (!EventTimeCodec.isFutureOrToday(summary.getEndEpochMillis(), delta.startOfToday)
+                    && !removed.contains(summary.getEventId())) {
+                delta.expired.add(summary.getEventId());
+            }
+        }
+
+        SortedMap<String, EventSummary> merged = new TreeMap<>(local); // Copy-on-write: local may be a published version
+        List<EventSummary> feed = merge(merged, delta.upserts, removed, delta.startOfToday);
+        Collections.sort(feed, EventTimeIndex.BY_START); // So the feed's own sort is a single pass
+        // Syncs never overlap (see waiting), so publishing only fails if that ever changes
+        EventStore.Version version = eventStore.publish(base, merged, feed);
+        delta.feed = version != null ? version.feed : Collections.unmodifiableList(feed);
+        return delta;
+    }
+
+    /**
+     * Maps the summaries of a read into upserts.
+     * @return the new summaries mark: the largest updatedAt seen, or mark if none is larger
+     */
+    private static long readSummaries(DataSnapshot snapshot, long mark, List<EventSummary> upserts) {
+        for (DataSnapshot summarySnapshot : snapshot.getChildren()) {
+            mark = Math.max(mark, EventMapper.asLong(summarySnapshot.child(EventWriter.UPDATED_AT).getValue()));
+            // A count written after its event was deleted leaves a summary without fields; skip it
+            if (!summarySnapshot.hasChild("eventId")) continue;
+
+            EventSummary summary = EventMapper.summaryFromSnapshot(summarySnapshot);
+            if (summary != null) upserts.add(summary);
+        }
+        return mark;
+    }
+
+    /**
+     * Hands the merged feed to the waiting callers, then saves the store and the marks.
+     */
+    private void finish(Delta delta, boolean replace) {
+        for (String eventId : delta.expired) {
+            eventWriter.delete(eventId);
+        }
+        deliver(delta.feed, null);
+
+        // A replaced store gets the whole merged feed (full download, or bundle plus delta)
+        List<EventSummary> rows = replace ? delta.feed : delta.upserts;
+        diskExecutor.execute(() -> {
+            store.apply(replace, rows, delta.removals, delta.startOfToday);
+            prefs.edit()
+                    .putLong(KEY_SUMMARIES_MARK, delta.summariesMark)
+                    .putLong(KEY_TOMBSTONES_MARK, delta.tombstonesMark)
+                    .putLong(KEY_SYNCED_AT, System.currentTimeMillis())
+                    .apply();
+        });
+    }
+
+    /**
+     * Applies a delta to the local summaries: upserts first, then removals (a tombstone always wins).
+     * @param local summaries by event ID, updated in place; events that ended are dropped too
+     * @return today-or-later summaries in the map's order
+     */
+    static List<EventSummary> merge(Map<String, EventSummary> local, Collection<EventSummary> upserts,
+                                    Collection<String> removals, long startOfToday) {
+        for (EventSummary summary : upserts) {
+            local.put(summary.getEventId(), summary);
+        }
+        for (String eventId : removals) {
+            local.remove(eventId);
+        }
+
+        local.values().removeIf(summary ->
+                !EventTimeCodec.isFutureOrToday(summary.getEndEpochMillis(), startOfToday));
+        return new ArrayList<>(local.values());
+    }
+
+    private void deliver(List<EventSummary> summaries, String error) {
+        List<EventLoader.SummaryLoadCallback> callbacks = new ArrayList<>(waiting);
+        waiting.clear();
+        for (EventLoader.SummaryLoadCallback callback : callbacks) {
+            if (error == null) {
+                callback.onSummariesLoaded(summaries);
+            } else {
+                callback.onError(error);
+            }
+        }
+    }
+
+    private interface SnapshotReader {
+        void onRead(DataSnapshot snapshot);
+    }
+
+    private void read(Query query, SnapshotReader reader) {
+        query.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                reader.onRead(snapshot);
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                deliver(null, "Failed to load events: " + error.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.peekeventproject;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.Locale;
+
+/**
+ * EventTimeCodec is the one place event dates and times are formatted and parsed.
+ * - Stored format: date "dd/MM/yyyy", time range "hh:mm AM - hh:mm PM" (always English AM/PM,
+ *   so strings written on one device parse on every other).
+ * - Parsing is lenient about the older variants still in the database ("d/M/yyyy" from the
+ *   edit screen, lowercase or unpadded times).
+ * - The parsed instants are stored on Event/EventSummary as startEpochMillis/endEpochMillis,
+ *   so sorting, filtering and expiry compare longs instead of re-parsing strings.
+ *
+ * java.time formatters are immutable and thread-safe, so they are built once and shared
+ * (unlike SimpleDateFormat). Times are interpreted in the device's time zone.
+ */
+public final class EventTimeCodec {
+
+    // Value of startEpochMillis/endEpochMillis when the event's date could not be parsed
+    public static final long UNKNOWN = 0;
+
+    private static final String RANGE_SEPARATOR = " - ";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/uuuu", Locale.US);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("hh:mm a", Locale.US);
+    // Single-letter fields accept one or two digits when parsing, covering padded and unpadded input.
+    // Strict, so "31/02" is rejected instead of becoming the 28th.
+    private static final DateTimeFormatter DATE_PARSER = DateTimeFormatter.ofPattern("d/M/uuuu", Locale.US)
+            .withResolverStyle(ResolverStyle.STRICT);
+    private static final DateTimeFormatter TIME_PARSER = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .appendPattern("h:mm a")
+            .toFormatter(Locale.US);
+
+    private EventTimeCodec() {
+    }
+
+    /**
+     * Formats a picked date (month is 1-based) in the stored format.
+     */
+    public static String formatDate(int year, int month, int dayOfMonth) {
+        return DATE_FORMAT.format(LocalDate.of(year, month, dayOfMonth));
+    }
+
+    public static String formatDate(LocalDate date) {
+        return DATE_FORMAT.format(date);
+    }
+
+    /**
+     * Formats a picked time (24-hour hour) as "hh:mm AM".
+     */
+    public static String formatTime(int hourOfDay, int minute) {
+        return TIME_FORMAT.format(LocalTime.of(hourOfDay, minute));
+    }
+
+    public static String formatTimeRange(String start, String end) {
+        return start + RANGE_SEPARATOR + end;
+    }
+
+    /**
+     * @return the parsed date, or null if the string is not a date
+     */
+    public static LocalDate parseDate(String date) {
+        if (date == null) return null;
+        try {
+            return LocalDate.parse(date.trim(), DATE_PARSER);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Start of the event: the range's first time on its date, or the start of the day without a time.
+     */
+    public static long startMillis(String date, String timeRange) {
+        return startMillis(date, timeRange, ZoneId.systemDefault());
+    }
+
+    /**
+     * End of the event: the range's second time (next day if it is earlier than the start),
+     * or the end of the day without one.
+     */
+    public static long endMillis(String date, String timeRange) {
+        return endMillis(date, timeRange, ZoneId.systemDefault());
+    }
+
+    static long startMillis(String date, String timeRange, ZoneId zone) {
+        LocalDate day = parseDate(date);
+        if (day == null) return UNKNOWN;
+
+        LocalTime start = parseTime(timeRange, 0);
+        return toMillis(day, start != null ? start : LocalTime.MIDNIGHT, zone);
+    }
+
+    static long endMillis(String date, String timeRange, ZoneId zone) {
+        LocalDate day = parseDate(date);
+        if (day == null) return UNKNOWN;
+
+        LocalTime start = parseTime(timeRange, 0);
+        LocalTime end = parseTime(timeRange, 1);
+        if (end == null) {
+            return toMillis(day.plusDays(1), LocalTime.MIDNIGHT, zone) - 1; // Last millisecond of the day
+        }
+        if (start != null && end.isBefore(start)) {
+            day = day.plusDays(1); // e.g. "10:00 PM - 02:00 AM"
+        }
+        return toMillis(day, end, zone);
+    }
+
+    /**
+     * Fills in the event's epoch fields from its date and time strings.
+     * Called on every write path, and by EventMapper for events stored before the fields existed.
+     */
+    public static void applyTo(Event event) {
+        event.setStartEpochMillis(startMillis(event.getDate(), event.getTime()));
+        event.setEndEpochMillis(endMillis(event.getDate(), event.getTime()));
+    }
+
+    /**
+     * Whether an event is today or later, i.e. has not ended before today started.
+     * Events with an unknown date are kept, as before.
+     */
+    public static boolean isFutureOrToday(long endEpochMillis, long startOfTodayMillis) {
+        return endEpochMillis == UNKNOWN || endEpochMillis >= startOfTodayMillis;
+    }
+
+    public static long startOfTodayMillis() {
+        return startOfDayMillis(LocalDate.now());
+    }
+
+    public static long startOfDayMillis(LocalDate day) {
+        return toMillis(day, LocalTime.MIDNIGHT, ZoneId.systemDefault());
+    }
+
+    /**
+     * @param part 0 for the start of a "start - end" range, 1 for the end
+     */
+    private static LocalTime parseTime(String timeRange, int part) {
+        if (timeRange == null) return null;
+
+        String[] parts = timeRange.split("-");
+        if (part >= parts.length) return null;
+        try {
+            return LocalTime.parse(parts[part].trim(), TIME_PARSER);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static long toMillis(LocalDate day, LocalTime time, ZoneId zone) {
+        return ZonedDateTime.of(day, time, zone).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.peekeventproject;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory index of the feed ordered by start time, split into day-based sections
+ * (Today / This week / Later / Date to be confirmed).
+ * - Sorted once when the feed loads (setAll); single events are then inserted, replaced or
+ *   removed at their binary-searched slot, so updates never re-sort the list.
+ * - Section boundaries and jump-to-date are binary searches on startEpochMillis: O(log n).
+ * - Events without a parsed date (EventTimeCodec.UNKNOWN) sort last.
+ *
+ * The static helpers work on any list in BY_START order, including a filtered copy of events().
+ * Not thread-safe; used from the UI thread.
+ */
+final class EventTimeIndex {
+
+    enum Section {
+        TODAY("Today"),
+        THIS_WEEK("This week"),
+        LATER("Later"),
+        UNSCHEDULED("Date to be confirmed");
+
+        final String label;
+
+        Section(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final int DAYS_IN_WEEK = 7;
+
+    // Start time (unknown dates last), then event ID so every event has exactly one slot
+    static final Comparator<EventSummary> BY_START = (a, b) -> {
+        int byTime = Long.compare(sortKey(a), sortKey(b));
+        return byTime != 0 ? byTime : compareIds(a.getEventId(), b.getEventId());
+    };
+
+    private final ArrayList<EventSummary> sorted = new ArrayList<>();
+    private final Map<String, EventSummary> byId = new HashMap<>();
+    private final List<EventSummary> readOnly = Collections.unmodifiableList(sorted);
+
+    /**
+     * Replaces the contents with a freshly loaded feed (the one full sort).
+     * Loaders hand over feeds already in BY_START order (sorted on a decode thread), which the
+     * sort then only verifies in a single pass.
+     */
+    void setAll(Collection<EventSummary> summaries) {
+        byId.clear();
+        boolean repeated = false;
+        for (EventSummary summary : summaries) {
+            // A repeated ID keeps the last copy
+            if (byId.put(summary.getEventId(), summary) != null) repeated = true;
+        }
+        sorted.clear();
+        sorted.addAll(repeated ? byId.values() : summaries); // Keeps the input's order when it can
+        Collections.sort(sorted, BY_START);
+    }
+
+    /**
+     * Inserts an event, or replaces the one with the same ID (moving it if its time changed).
+     * @return its position in events()
+     */
+    int upsert(EventSummary summary) {
+        EventSummary old = byId.put(summary.getEventId(), summary);
+        if (old != null) {
+            int oldPosition = indexOf(sorted, old);
+            if (BY_START.compare(old, summary) == 0) {
+                sorted.set(oldPosition, summary); // Same slot, e.g. only the attendee count changed
+                return oldPosition;
+            }
+            sorted.remove(oldPosition);
+        }
+        int position = -(Collections.binarySearch(sorted, summary, BY_START) + 1);
+        sorted.add(position, summary);
+        return position;
+    }
+
+    /**
+     * @return the position the event was removed from, or -1 if it was not indexed
+     */
+    int remove(String eventId) {
+        EventSummary old = byId.remove(eventId);
+        if (old == null) return -1;
+
+        int position = indexOf(sorted, old);
+        sorted.remove(position);
+        return position;
+    }
+
+    EventSummary get(String eventId) {
+        return byId.get(eventId);
+    }
+
+    /**
+     * All indexed events in BY_START order (read-only view).
+     */
+    List<EventSummary> events() {
+        return readOnly;
+    }
+
+    /**
+     * @return the position of the event in a BY_START-ordered list, or a negative value if absent
+     */
+    static int indexOf(List<EventSummary> sortedEvents, EventSummary summary) {
+        return Collections.binarySearch(sortedEvents, summary, BY_START);
+    }
+
+    /**
+     * Jump-to-date: the first event starting at or after the given time, or size() if none.
+     */
+    static int firstStartingAtOrAfter(List<EventSummary> sortedEvents, long epochMillis) {
+        int low = 0;
+        int high = sortedEvents.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortKey(sortedEvents.get(mid)) < epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Where each Section begins in a BY_START-ordered list, indexed by Section.ordinal().
+     * Section i covers [starts[i], starts[i + 1]), the last one runs to the end; empty sections
+     * have equal bounds. Anything starting before tomorrow counts as today (the loader has
+     * already dropped events that ended before today).
+     */
+    static int[] sectionStarts(List<EventSummary> sortedEvents, LocalDate today) {
+        int[] starts = new int[Section.values().length];
+        starts[Section.TODAY.ordinal()] = 0;
+        starts[Section.THIS_WEEK.ordinal()] = firstStartingAtOrAfter(sortedEvents,
+                EventTimeCodec.startOfDayMillis(today.plusDays(1)));
+        starts[Section.LATER.ordinal()] = firstStartingAtOrAfter(sortedEvents,
+                EventTimeCodec.startOfDayMillis(today.plusDays(DAYS_IN_WEEK)));
+        starts[Section.UNSCHEDULED.ordinal()] = firstStartingAtOrAfter(sortedEvents, Long.MAX_VALUE);
+        return starts;
+    }
+
+    private static long sortKey(EventSummary summary) {
+        long start = summary.getStartEpochMillis();
+        return start == EventTimeCodec.UNKNOWN ? Long.MAX_VALUE : start;
+    }
+
+    private static int compareIds(String a, String b) {
+        if (a == null) return b == null ? 0 : -1;
+        if (b == null) return 1;
+        return a.compareTo(b);
+    }
+}
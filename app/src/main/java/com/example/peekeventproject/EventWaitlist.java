@@ -0,0 +1,285 @@
+package com.example.peekeventproject;
+
+import androidx.lifecycle.LiveData;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Waitlists of full events, stored as "eventWaitlists/{eventId}/{userId}" →
+ * {joinedAt: server time of joining, claimedBy, claimedAt} (the last two only while a promotion runs).
+ * - Kept outside "events" so feed and detail reads never download them.
+ * - Ordered by joinedAt (indexed in database.rules.json); the earliest entry is promoted first.
+ *   Entries written before the claim fields existed hold joinedAt as a bare number and are read the same.
+ * - Each user writes only their own entry when joining, so hundreds of joins do not contend.
+ * - Promotion claims an entry by marking it in a transaction, so only one client promotes a user.
+ *   The entry stays in place (the user remains "on the waitlist") until the promotion finishes it
+ *   or restores it; only the user leaving deletes it, so a restore can never bring back a user who left.
+ * - A claim older than CLAIM_TIMEOUT_MILLIS (its promoter died) may be taken over by another client.
+ *
+ * Callbacks run on the main thread (Firebase delivers them there).
+ */
+final class EventWaitlist {
+
+    static final String NODE = "eventWaitlists";
+    static final String JOINED_AT = "joinedAt";
+    static final String CLAIMED_BY = "claimedBy";
+    static final String CLAIMED_AT = "claimedAt";
+    // By the reading client's clock, so generous enough to cover clock skew between devices
+    static final long CLAIM_TIMEOUT_MILLIS = 10 * 60 * 1000L;
+    private static final int HEAD_WINDOW = 5; // Entries read to find the earliest one nobody is promoting
+
+    interface WriteCallback {
+        void onDone();
+        void onError(DatabaseError error);
+    }
+
+    interface StatusCallback {
+        void onStatus(boolean onWaitlist);
+        void onError(DatabaseError error);
+    }
+
+    interface HeadCallback {
+        void onHead(String userId);          // Earliest waiting user nobody is promoting
+        void onEmpty();                      // Nobody waiting, or everyone near the head is being promoted
+        void onError(DatabaseError error);
+    }
+
+    interface ClaimCallback {
+        void onClaimed(String claim);        // Entry marked by us; pass claim to finish or restore it
+        void onGone();                       // Claimed by another client, or the user left
+        void onError(DatabaseError error);
+    }
+
+    interface FinishCallback {
+        void onFinished();                   // Entry removed (or another client took over the claim)
+        void onLeft();                       // The user left the waitlist while being promoted
+        void onError(DatabaseError error);
+    }
+
+    private final DatabaseReference waitlistsRef;
+
+    EventWaitlist() {
+        waitlistsRef = FirebaseDatabase.getInstance().getReference(NODE);
+    }
+
+    /**
+     * Adds the user at the end of the waitlist. Rejoining (e.g. a replayed RSVP) keeps the old place.
+     */
+    void join(String eventId, String userId, WriteCallback callback) {
+        readStatus(eventId, userId, new StatusCallback() {
+            @Override
+            public void onStatus(boolean onWaitlist) {
+                if (onWaitlist) {
+                    callback.onDone();
+                    return;
+                }
+                Map<String, Object> entry = new HashMap<>();
+                entry.put(JOINED_AT, ServerValue.TIMESTAMP);
+                entryRef(eventId, userId).setValue(entry, (error, ref) -> {
+                    if (error != null) {
+                        callback.onError(error);
+                    } else {
+                        callback.onDone();
+                    }
+                });
+            }
+
+            @Override
+            public void onError(DatabaseError error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Reads once whether the user is on the waitlist (a user being promoted still is).
+     */
+    void readStatus(String eventId, String userId, StatusCallback callback) {
+        entryRef(eventId, userId).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                callback.onStatus(snapshot.getValue() != null);
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Deletes the user's entry, claimed or not, without waiting for the result (best effort).
+     */
+    void leave(String eventId, String userId) {
+        entryRef(eventId, userId).removeValue();
+    }
+
+    void leave(String eventId, String userId, WriteCallback callback) {
+        entryRef(eventId, userId).removeValue((error, ref) -> {
+            if (error != null) {
+                callback.onError(error);
+            } else {
+                callback.onDone();
+            }
+        });
+    }
+
+    /**
+     * Reads the earliest few entries and reports the first one that can be claimed.
+     */
+    void readHead(String eventId, HeadCallback callback) {
+        waitlistsRef.child(eventId).orderByChild(JOINED_AT).limitToFirst(HEAD_WINDOW)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(DataSnapshot snapshot) {
+                        long now = System.currentTimeMillis();
+                        for (DataSnapshot entry : snapshot.getChildren()) {
+                            if (isClaimable(entry.getValue(), now)) {
+                                callback.onHead(entry.getKey());
+                                return;
+                            }
+                        }
+                        callback.onEmpty();
+                    }
+
+                    @Override
+                    public void onCancelled(DatabaseError error) {
+                        callback.onError(error);
+                    }
+                });
+    }
+
+    /**
+     * Marks the user's entry as claimed by this call, but only if it is still there and nobody
+     * else holds a live claim, so that concurrent promoters never both admit the same user.
+     */
+    void claim(String eventId, String userId, ClaimCallback callback) {
+        String claim = UUID.randomUUID().toString();
+        entryRef(eventId, userId).runTransaction(new Transaction.Handler() {
+            private boolean claimed; // Set by the run that marked a real entry
+
+            @Override
+            public Transaction.Result doTransaction(MutableData currentData) {
+                // A null (or a claim that looks live) may just be stale cache: commit it unchanged
+                // and let the server decide, rather than aborting on what the cache says
+                Object entry = currentData.getValue();
+                claimed = isClaimable(entry, System.currentTimeMillis());
+                if (claimed) {
+                    Map<String, Object> marked = new HashMap<>();
+                    marked.put(JOINED_AT, joinedAt(entry));
+                    marked.put(CLAIMED_BY, claim);
+                    marked.put(CLAIMED_AT, System.currentTimeMillis());
+                    currentData.setValue(marked);
+                }
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                if (error != null) {
+                    callback.onError(error);
+                } else if (committed && claimed) {
+                    callback.onClaimed(claim);
+                } else {
+                    callback.onGone();
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes a promoted user's entry if it still carries our claim.
+     */
+    void finish(String eventId, String userId, String claim, FinishCallback callback) {
+        entryRef(eventId, userId).runTransaction(new Transaction.Handler() {
+            private boolean present; // Whether the committing run saw an entry at all
+
+            @Override
+            public Transaction.Result doTransaction(MutableData currentData) {
+                Object entry = currentData.getValue();
+                present = entry != null;
+                if (claim.equals(claimedBy(entry))) {
+                    currentData.setValue(null);
+                }
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                if (error != null) {
+                    callback.onError(error);
+                } else if (committed && !present) {
+                    callback.onLeft();
+                } else {
+                    callback.onFinished();
+                }
+            }
+        });
+    }
+
+    /**
+     * Clears our claim so the user waits at the same place again (no seat was left by the time
+     * it was claimed). Does nothing if the user left or another client took the claim over.
+     */
+    void restore(String eventId, String userId, String claim) {
+        entryRef(eventId, userId).runTransaction(new Transaction.Handler() {
+            @Override
+            public Transaction.Result doTransaction(MutableData currentData) {
+                if (claim.equals(claimedBy(currentData.getValue()))) {
+                    currentData.child(CLAIMED_BY).setValue(null);
+                    currentData.child(CLAIMED_AT).setValue(null);
+                }
+                return Transaction.success(currentData); // Unchanged otherwise; never recreates an entry
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                // Best effort: a claim left behind is taken over after CLAIM_TIMEOUT_MILLIS
+            }
+        });
+    }
+
+    /**
+     * @return the time of joining of a stored entry (a map, or a bare number in older entries)
+     */
+    static Object joinedAt(Object entry) {
+        return entry instanceof Map ? ((Map<?, ?>) entry).get(JOINED_AT) : entry;
+    }
+
+    static String claimedBy(Object entry) {
+        Object claim = entry instanceof Map ? ((Map<?, ?>) entry).get(CLAIMED_BY) : null;
+        return claim != null ? claim.toString() : null;
+    }
+
+    /**
+     * Whether a promotion may claim this entry: it exists and is unclaimed, or its claim timed out.
+     */
+    static boolean isClaimable(Object entry, long now) {
+        if (entry == null) return false;
+        if (claimedBy(entry) == null) return true;
+        return now - EventMapper.asLong(((Map<?, ?>) entry).get(CLAIMED_AT)) > CLAIM_TIMEOUT_MILLIS;
+    }
+
+    /**
+     * Whether the user is on the waitlist, kept live while observed.
+     */
+    LiveData<Boolean> watch(String eventId, String userId) {
+        return new FirebaseQueryLiveData<>(entryRef(eventId, userId), snapshot -> snapshot.getValue() != null);
+    }
+
+    private DatabaseReference entryRef(String eventId, String userId) {
+        return waitlistsRef.child(eventId).child(userId);
+    }
+}
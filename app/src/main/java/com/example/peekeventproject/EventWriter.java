@@ -0,0 +1,105 @@
+package com.example.peekeventproject;
+
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * EventWriter writes an event and everything derived from it as one multi-path update.
+ * - "events/{id}" is the primary record.
+ * - "eventSummaries/{id}" is derived from it; category and geohash queries run on indexed fields of
+ *   the summary, so the summary write also keeps those indexes current.
+ * - Deleting also drops the event's waitlist and leaves a tombstone in "eventTombstones/{id}".
+ * - Every write stamps "updatedAt" with the server time on both records (the summary stamp is what
+ *   EventSyncer queries), and tombstones hold the server time of the deletion.
+ * A single updateChildren at the root is one round trip and is applied atomically: either every
+ * path changes or none does, so a failed write never leaves a summary without its event.
+ * New derived nodes must be added to the path builders below (and to EventIndexChecker).
+ */
+final class EventWriter {
+
+    static final String EVENTS_NODE = "events";
+    static final String TOMBSTONES_NODE = "eventTombstones";
+    static final String UPDATED_AT = "updatedAt";
+
+    private final DatabaseReference rootRef;
+
+    EventWriter() {
+        rootRef = FirebaseDatabase.getInstance().getReference();
+    }
+
+    /**
+     * Writes a new event and its summary.
+     */
+    void create(Event event, DatabaseReference.CompletionListener listener) {
+        rootRef.updateChildren(createPaths(event), listener);
+    }
+
+    /**
+     * Writes only the changed fields, so concurrent RSVPs on the same event are never overwritten.
+     * @param changes Field name → new value, using the keys of Event.toMap(); null removes the field.
+     */
+    void edit(String eventId, Map<String, Object> changes, DatabaseReference.CompletionListener listener) {
+        rootRef.updateChildren(editPaths(eventId, changes), listener);
+    }
+
+    /**
+     * Removes an event with its summary and waitlist (best effort, used for expired events).
+     */
+    void delete(String eventId) {
+        rootRef.updateChildren(deletePaths(eventId));
+    }
+
+    /**
+     * Mirrors a new attendee total into the summary (best effort). Only the summary is stamped:
+     * the event's count lives in its shards, and writing under "events" could recreate a deleted event.
+     */
+    void attendeeCount(String eventId, int total) {
+        Map<String, Object> paths = new HashMap<>();
+        paths.put(EventSummary.NODE + "/" + eventId + "/attendeeCount", total);
+        paths.put(EventSummary.NODE + "/" + eventId + "/" + UPDATED_AT, ServerValue.TIMESTAMP);
+        rootRef.updateChildren(paths);
+    }
+
+    static Map<String, Object> createPaths(Event event) {
+        String eventId = event.getEventId();
+        Map<String, Object> paths = new HashMap<>();
+        paths.put(EVENTS_NODE + "/" + eventId, stamped(event.toMap()));
+        paths.put(EventSummary.NODE + "/" + eventId, stamped(EventSummary.from(event).toMap()));
+        return paths;
+    }
+
+    static Map<String, Object> editPaths(String eventId, Map<String, Object> changes) {
+        Map<String, Object> paths = new HashMap<>();
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            String key = change.getKey();
+            paths.put(EVENTS_NODE + "/" + eventId + "/" + key, change.getValue());
+            if (EventSummary.FIELDS.contains(key)) {
+                paths.put(EventSummary.NODE + "/" + eventId + "/" + key, change.getValue());
+            }
+        }
+        paths.put(EVENTS_NODE + "/" + eventId + "/" + UPDATED_AT, ServerValue.TIMESTAMP);
+        paths.put(EventSummary.NODE + "/" + eventId + "/" + UPDATED_AT, ServerValue.TIMESTAMP);
+        return paths;
+    }
+
+    static Map<String, Object> deletePaths(String eventId) {
+        Map<String, Object> paths = new HashMap<>();
+        paths.put(EVENTS_NODE + "/" + eventId, null);
+        paths.put(EventSummary.NODE + "/" + eventId, null);
+        paths.put(EventWaitlist.NODE + "/" + eventId, null);
+        paths.put(TOMBSTONES_NODE + "/" + eventId, ServerValue.TIMESTAMP);
+        return paths;
+    }
+
+    /**
+     * @return the record with "updatedAt" set to the server time of the write
+     */
+    static Map<String, Object> stamped(Map<String, Object> record) {
+        record.put(UPDATED_AT, ServerValue.TIMESTAMP);
+        return record;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.peekeventproject;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+/**
+ * A Firebase query as LiveData, so screens never hold a ValueEventListener themselves.
+ * - The Firebase listener is attached when the first observer is STARTED and removed when the
+ *   last one stops; observers registered with observe(owner, ...) are dropped when the owner is
+ *   destroyed, so nothing can leak an Activity.
+ * - All observers share the one listener, and a late observer gets the last value at once.
+ * - Removal waits LINGER_MS: a rotation stops and restarts the screen within that time, and
+ *   a ViewModel holding this LiveData then keeps the listener (and its value) instead of
+ *   detaching and downloading again.
+ *
+ * Main thread only (Firebase delivers callbacks there too).
+ */
+class FirebaseQueryLiveData<T> extends LiveData<T> {
+
+    /**
+     * Turns each snapshot of the query into the value observers receive.
+     */
+    interface SnapshotMapper<T> {
+        T map(DataSnapshot snapshot);
+    }
+
+    private static final long LINGER_MS = 2000;
+
+    private final Query query;
+    private final SnapshotMapper<T> mapper;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable detachRunnable = this::detach;
+    private boolean attached = false;
+
+    private final ValueEventListener listener = new ValueEventListener() {
+        @Override
+        public void onDataChange(DataSnapshot snapshot) {
+            setValue(mapper.map(snapshot));
+        }
+
+        @Override
+        public void onCancelled(DatabaseError error) {
+            // Access revoked (e.g. signed out): keep the last value, like the listeners this replaces
+            attached = false;
+        }
+    };
+
+    FirebaseQueryLiveData(Query query, SnapshotMapper<T> mapper) {
+        this.query = query;
+        this.mapper = mapper;
+    }
+
+    @Override
+    protected void onActive() {
+        handler.removeCallbacks(detachRunnable);
+        if (!attached) {
+            attached = true;
+            query.addValueEventListener(listener);
+        }
+    }
+
+    @Override
+    protected void onInactive() {
+        handler.postDelayed(detachRunnable, LINGER_MS);
+    }
+
+    private void detach() {
+        if (attached) {
+            attached = false;
+            query.removeEventListener(listener);
+        }
+    }
+}
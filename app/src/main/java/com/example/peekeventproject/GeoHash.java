@@ -0,0 +1,134 @@
+package com.example.peekeventproject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Geohash encoding and "nearby" range planning for events with coordinates.
+ * - A geohash is a base-32 string where every extra character narrows the cell, so events
+ *   in one cell share a prefix and a prefix is a contiguous range in orderByChild("geohash").
+ * - coveringPrefixes picks the longest prefix length whose cells are at least as large as the
+ *   radius, then returns the cells of the center and its 8 neighbours (at most 9 ranges).
+ *   Those cells cover the whole circle; callers refine the results with distanceMeters.
+ */
+final class GeoHash {
+
+    // Stored hash length: cells of about 1.2 m x 0.6 m, far finer than any query radius
+    static final int STORED_PRECISION = 10;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final int BITS_PER_CHAR = 5;
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+    private static final double METERS_PER_DEGREE_LATITUDE = 111_320;
+
+    private GeoHash() {
+    }
+
+    static boolean isValid(double latitude, double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+
+    /**
+     * Encodes a point; longitude and latitude bits alternate, longitude first.
+     */
+    static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean lngBit = true;
+        int charIndex = 0;
+        int bits = 0;
+        while (hash.length() < precision) {
+            if (lngBit) {
+                double mid = (minLng + maxLng) / 2;
+                charIndex <<= 1;
+                if (longitude >= mid) {
+                    charIndex |= 1;
+                    minLng = mid;
+                } else {
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                charIndex <<= 1;
+                if (latitude >= mid) {
+                    charIndex |= 1;
+                    minLat = mid;
+                } else {
+                    maxLat = mid;
+                }
+            }
+            lngBit = !lngBit;
+            if (++bits == BITS_PER_CHAR) {
+                hash.append(BASE32.charAt(charIndex));
+                bits = 0;
+                charIndex = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Prefixes whose cells together contain every point within radiusMeters of the center.
+     * Returns [""] (everything with a geohash) when the circle is too close to a pole or too
+     * large for even one-character cells.
+     */
+    static List<String> coveringPrefixes(double latitude, double longitude, double radiusMeters) {
+        double latDelta = radiusMeters / METERS_PER_DEGREE_LATITUDE;
+        // Degrees of longitude shrink towards the poles; size for the circle's widest-in-degrees edge
+        double farthestLat = Math.min(90, Math.abs(latitude) + latDelta);
+        double cosLat = Math.cos(Math.toRadians(farthestLat));
+        double lngDelta = cosLat > 0 ? radiusMeters / (METERS_PER_DEGREE_LATITUDE * cosLat) : Double.MAX_VALUE;
+
+        // Sample points spaced one radius apart can't skip over a cell at least one radius wide
+        int precision = 0;
+        for (int p = STORED_PRECISION; p >= 1; p--) {
+            if (cellLatDegrees(p) >= latDelta && cellLngDegrees(p) >= lngDelta) {
+                precision = p;
+                break;
+            }
+        }
+        List<String> prefixes = new ArrayList<>();
+        if (precision == 0) {
+            prefixes.add("");
+            return prefixes;
+        }
+
+        Set<String> unique = new LinkedHashSet<>(); // Nearby samples often share a cell
+        for (int latStep = -1; latStep <= 1; latStep++) {
+            double lat = Math.max(-90, Math.min(90, latitude + latStep * latDelta));
+            for (int lngStep = -1; lngStep <= 1; lngStep++) {
+                unique.add(encode(lat, wrapLongitude(longitude + lngStep * lngDelta), precision));
+            }
+        }
+        prefixes.addAll(unique);
+        return prefixes;
+    }
+
+    /**
+     * Great-circle (haversine) distance between two points.
+     */
+    static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static double cellLatDegrees(int precision) {
+        return 180 / Math.pow(2, (precision * BITS_PER_CHAR) / 2);
+    }
+
+    private static double cellLngDegrees(int precision) {
+        return 360 / Math.pow(2, (precision * BITS_PER_CHAR + 1) / 2);
+    }
+
+    private static double wrapLongitude(double longitude) {
+        if (longitude >= 180) return longitude - 360;
+        if (longitude < -180) return longitude + 360;
+        return longitude;
+    }
+}
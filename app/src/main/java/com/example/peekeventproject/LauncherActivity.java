@@ -0,0 +1,38 @@
+package com.example.peekeventproject;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.os.Bundle;
+
+import com.google.firebase.auth.FirebaseAuth;
+
+/**
+ * Single MAIN/LAUNCHER entry point that routes to the right first screen.
+ * - Returning users (FirebaseAuth keeps the session cached on disk) go straight to MainActivity,
+ *   with the feed prefetch (started in PeekEventApplication) already running.
+ * - Everyone else goes to Welcome_page → SignIn / SignUp as before.
+ * Has no layout of its own (Theme.NoDisplay) and finishes immediately.
+ */
+public class LauncherActivity extends Activity {
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // getCurrentUser() is restored locally, no network round trip is needed here
+        boolean signedIn = BuildConfig.USE_SEEDED_EVENTS
+                || FirebaseAuth.getInstance().getCurrentUser() != null;
+
+        Intent next;
+        if (signedIn) {
+            StartupPrefetcher.getInstance().prefetchFeed(this); // No-op if the Application already started it
+            next = new Intent(this, MainActivity.class);
+        } else {
+            next = new Intent(this, Welcome_page.class);
+        }
+
+        startActivity(next);
+        finish();
+        overridePendingTransition(0, 0); // No flash between the router and the first screen
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.peekeventproject;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * SQLite copy of the feed summaries, kept current by EventSyncer so a launch only downloads
+ * what changed since the last sync. One row per event: the summary as JSON (the keys of
+ * EventSummary.toMap()), with its end time as a column so ended events can be dropped in SQL.
+ *
+ * Called from EventSyncer's disk thread only.
+ */
+final class LocalEventStore extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "events.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private static final String TABLE = "summaries";
+    private static final String COL_EVENT_ID = "event_id";
+    private static final String COL_END_EPOCH_MILLIS = "end_epoch_millis";
+    private static final String COL_JSON = "json";
+
+    LocalEventStore(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + COL_EVENT_ID + " TEXT PRIMARY KEY, "
+                + COL_END_EPOCH_MILLIS + " INTEGER NOT NULL, "
+                + COL_JSON + " TEXT NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Only version 1 exists so far
+    }
+
+    /**
+     * @return every stored summary (unordered)
+     */
+    List<EventSummary> readAll() {
+        List<EventSummary> summaries = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE, new String[]{COL_JSON},
+                null, null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                EventSummary summary = fromJson(cursor.getString(0));
+                if (summary != null) summaries.add(summary);
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Applies one sync in a single transaction: upserts first, then removals.
+     * @param replace whether this was a full download that replaces every row
+     * @param endedBefore rows of events that ended before this are dropped too
+     */
+    void apply(boolean replace, Collection<EventSummary> upserts, Collection<String> removals, long endedBefore) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            if (replace) {
+                db.delete(TABLE, null, null);
+            }
+            for (EventSummary summary : upserts) {
+                ContentValues values = new ContentValues();
+                values.put(COL_EVENT_ID, summary.getEventId());
+                values.put(COL_END_EPOCH_MILLIS, summary.getEndEpochMillis());
+                values.put(COL_JSON, new JSONObject(summary.toMap()).toString());
+                db.insertWithOnConflict(TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            for (String eventId : removals) {
+                db.delete(TABLE, COL_EVENT_ID + " = ?", new String[]{eventId});
+            }
+            // Unknown end times (0) are kept, like the feed keeps them
+            db.delete(TABLE, COL_END_EPOCH_MILLIS + " > 0 AND " + COL_END_EPOCH_MILLIS + " < ?",
+                    new String[]{String.valueOf(endedBefore)});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static EventSummary fromJson(String text) {
+        try {
+            JSONObject json = new JSONObject(text);
+            return new EventSummary(string(json, "eventId"), string(json, "title"), string(json, "category"),
+                    pooled(json, "date"), pooled(json, "time"), pooled(json, "location"), pooled(json, "zone"),
+                    string(json, "imageUrl"), json.optInt("attendeeCount", 0), json.optInt("capacity", 0),
+                    json.optLong("startEpochMillis", EventTimeCodec.UNKNOWN),
+                    json.optLong("endEpochMillis", EventTimeCodec.UNKNOWN),
+                    json.isNull("latitude") ? null : json.optDouble("latitude"),
+                    json.isNull("longitude") ? null : json.optDouble("longitude"),
+                    string(json, "geohash"));
+        } catch (JSONException e) {
+            return null; // Corrupt row; the next full sync replaces it
+        }
+    }
+
+    /**
+     * optString turns JSON null into "null"; missing and null values both read as null here.
+     */
+    private static String string(JSONObject json, String key) {
+        return json.isNull(key) ? null : json.optString(key);
+    }
+
+    private static String pooled(JSONObject json, String key) {
+        return StringPool.canonical(string(json, key)); // Values repeated across events share one copy
+    }
+}
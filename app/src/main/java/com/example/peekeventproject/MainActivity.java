@@ -1,5 +1,6 @@
 package com.example.peekeventproject;
 
+import android.app.DatePickerDialog;
 import android.content.Intent;
 import android.os.Bundle;
 import android.text.Editable;
@@ -12,49 +13,51 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.bottomnavigation.BottomNavigationView;
-import com.google.firebase.database.ValueEventListener;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
-public class MainActivity extends AppCompatActivity {
+public class MainActivity extends AppCompatActivity implements AttendeeCountSubscriptions.CountListener {
     private static final int REQUEST_CREATE_EVENT = 1; // Request code to identify event creation result
 
     // RecyclerView components
     private RecyclerView recyclerView;
+    private LinearLayoutManager layoutManager;
     private EventAdapter adapter;
-    private List<Event> eventList;           // List displayed to the user (filtered)
-    private List<Event> originalEventList;   // Full unfiltered list of events from Firebase
+    private List<EventSummary> eventList;         // List displayed to the user (filtered, in start-time order)
+    private EventTimeIndex shownIndex = new EventTimeIndex(); // Feed of the selected category chip
 
     // Search and filter components
     private EditText searchEditText;
-    private String currentCategory = "All";   // Default filter is "All categories"
     private String currentSearchQuery = "";   // Current text from search bar
 
-    // Firebase loader
-    private EventLoader eventLoader;          // Handles retrieving events from Firebase
-    private ValueEventListener realtimeListener; // Optional listener for real-time updates
+    // Feed state (indexes, category queries), kept across rotations
+    private EventFeedViewModel feedViewModel;
+    private boolean reportedFullyDrawn = false;  // reportFullyDrawn() is only meaningful once
+    private VisibleEventTracker visibleEventTracker; // Live attendee counts for cards on screen
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        // Initialize event loader class (custom helper for Firebase)
-        eventLoader = new EventLoader();
+        feedViewModel = new ViewModelProvider(this).get(EventFeedViewModel.class);
 
         // Setup UI components
         setupBottomNavigation();  // Bottom navigation bar (home, create event, profile)
         setupSearchBar();         // Search bar to filter events by text
+        setupJumpToDate();        // Calendar button that scrolls to a date
         setupCategoryButtons();   // Category buttons (All, Music, Art, etc.)
         setupRecyclerView();      // RecyclerView for listing events
 
-        // Load events from Firebase and display them
-        loadEventsFromFirebase();
+        // Show the feed (loaded by the ViewModel, at most once across rotations)
+        observeFeed();
     }
 
     /**
@@ -62,68 +65,74 @@ public class MainActivity extends AppCompatActivity {
      */
     private void setupRecyclerView() {
         recyclerView = findViewById(R.id.events_recycler_view);
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
 
         eventList = new ArrayList<>();
-        originalEventList = new ArrayList<>();
-        adapter = new EventAdapter(MainActivity.this, eventList, false);
+        adapter = new EventAdapter(MainActivity.this, eventList, false, true); // Grouped under Today / This week / Later
 
         recyclerView.setAdapter(adapter);
+
+        // Subscribe to live attendee counts only for the cards currently visible, while started
+        visibleEventTracker = new VisibleEventTracker(recyclerView, layoutManager,
+                adapter::getEventIdAt, this);
+        getLifecycle().addObserver(visibleEventTracker);
     }
 
     /**
-     * Loads events from Firebase using EventLoader
+     * Live count update for a visible card (already throttled by AttendeeCountSubscriptions).
      */
-    private void loadEventsFromFirebase() {
-        eventLoader.loadAllEvents(new EventLoader.EventLoadCallback() {
-            @Override
-            public void onEventsLoaded(List<Event> events) {
-                // Runs on UI thread because Firebase callbacks are asynchronous
-                runOnUiThread(() -> {
-                    originalEventList.clear();
-                    originalEventList.addAll(events); // Store the full list
-                    applySearchAndFilter();          // Apply any filters immediately
-                });
-            }
+    @Override
+    public void onAttendeeCountChanged(String eventId, int newCount) {
+        EventSummary current = shownIndex.get(eventId);
+
+        // Swap in updated copies (summaries are immutable); the start time is unchanged,
+        // so every list keeps its order and the slots are found by binary search
+        feedViewModel.updateAttendeeCount(eventId, newCount);
+
+        if (current == null || current.getAttendeeCount() == newCount) return;
+        EventSummary updated = current.withAttendeeCount(newCount);
+        shownIndex.upsert(updated); // Also covers an uncached fallback index
+        int index = EventTimeIndex.indexOf(eventList, current);
+        if (index >= 0) {
+            eventList.set(index, updated);
+            adapter.notifyItemChanged(adapter.adapterPositionOf(index), EventAdapter.PAYLOAD_ATTENDEE_COUNT);
+        }
+    }
 
-            @Override
-            public void onError(String error) {
-                runOnUiThread(() -> {
-                    Toast.makeText(MainActivity.this,
-                            "Failed to load events: " + error,
-                            Toast.LENGTH_LONG).show();
-                });
-            }
+    /**
+     * Shows the selected category's feed whenever the ViewModel has a new one (first load, refresh,
+     * category switch). The ViewModel loads summaries through EventSyncer, which downloads only what
+     * changed since the last launch; full events are never downloaded here.
+     */
+    private void observeFeed() {
+        feedViewModel.shownFeed().observe(this, index -> {
+            shownIndex = index;
+            applySearchAndFilter();
+            if (index == feedViewModel.timeIndex()) reportFeedDrawn();
         });
-
-        //   listen for real-time updates
-        /*
-        realtimeListener = eventLoader.loadEventsRealtime(new EventLoader.EventLoadCallback() {
-            @Override
-            public void onEventsLoaded(List<Event> events) {
-                runOnUiThread(() -> {
-                    originalEventList.clear();
-                    originalEventList.addAll(events);
-                    applySearchAndFilter();
-                });
-            }
-
-            @Override
-            public void onError(String error) {
-                runOnUiThread(() -> {
-                    Toast.makeText(MainActivity.this,
-                        "Real-time update error: " + error,
-                        Toast.LENGTH_LONG).show();
-                });
-            }
+        feedViewModel.errors().observe(this, error -> {
+            if (error == null) return;
+            Toast.makeText(this, error, Toast.LENGTH_LONG).show();
+            feedViewModel.errorShown(); // Not shown again after a rotation
         });
-        */
+    }
+
+    /**
+     * Marks the first time the feed has real content, so startup benchmarks
+     * (timeToFullDisplay) measure up to the first event card rather than the empty layout.
+     */
+    private void reportFeedDrawn() {
+        if (!reportedFullyDrawn) {
+            reportedFullyDrawn = true;
+            recyclerView.post(this::reportFullyDrawn);
+        }
     }
 
     /**
      * Handles clicking an event card to open details
      */
-    private void onEventClick(Event event) {
+    private void onEventClick(EventSummary event) {
         // Ensure event has a valid ID
         if (event.getEventId() == null || event.getEventId().isEmpty()) {
             Toast.makeText(this,
@@ -132,9 +141,9 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
-        // Pass event object to detail screen
+        // Pass the summary to the detail screen, which fetches the full event
         Intent intent = new Intent(this, EventDetailActivity.class);
-        intent.putExtra("event", event);
+        intent.putExtra("summary", event);
         startActivity(intent);
     }
 
@@ -163,22 +172,48 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Applies both search text filter and category filter
+     * Lets the user pick a date and scrolls to the first event starting on or after it.
      */
-    private void applySearchAndFilter() {
-        List<Event> filteredList = new ArrayList<>();
+    private void setupJumpToDate() {
+        findViewById(R.id.jump_to_date_button).setOnClickListener(v -> {
+            LocalDate today = LocalDate.now();
+            new DatePickerDialog(this,
+                    (view, year, month, dayOfMonth) -> jumpToDate(LocalDate.of(year, month + 1, dayOfMonth)),
+                    today.getYear(), today.getMonthValue() - 1, today.getDayOfMonth()).show();
+        });
+    }
 
-        for (Event event : originalEventList) {
-            boolean matchesCategory = currentCategory.equals("All") ||
-                    (event.getCategory() != null && event.getCategory().equalsIgnoreCase(currentCategory));
+    /**
+     * Binary search on the start-time ordered list, so this is O(log n) however long the feed is.
+     */
+    private void jumpToDate(LocalDate date) {
+        int index = EventTimeIndex.firstStartingAtOrAfter(eventList, EventTimeCodec.startOfDayMillis(date));
+        if (index == eventList.size() || eventList.get(index).getStartEpochMillis() == EventTimeCodec.UNKNOWN) {
+            Toast.makeText(this, "No events on or after " + EventTimeCodec.formatDate(date),
+                    Toast.LENGTH_SHORT).show();
+            return;
+        }
+        layoutManager.scrollToPositionWithOffset(adapter.adapterPositionOf(index), 0);
+        visibleEventTracker.refreshAfterLayout();
+    }
 
-            boolean matchesSearch = currentSearchQuery.isEmpty() ||
-                    (event.getTitle() != null && event.getTitle().toLowerCase().contains(currentSearchQuery.toLowerCase())) ||
-                    (event.getDescription() != null && event.getDescription().toLowerCase().contains(currentSearchQuery.toLowerCase())) ||
-                    (event.getLocation() != null && event.getLocation().toLowerCase().contains(currentSearchQuery.toLowerCase()));
+    /**
+     * Applies the search text filter to the selected category's feed.
+     * Search matches title, location and zone (descriptions are not part of the feed summary).
+     * The category itself was already applied by the query that built shownIndex, and the index
+     * is in start-time order, so the filtered list is too (no sorting here).
+     */
+    private void applySearchAndFilter() {
+        List<EventSummary> filteredList = new ArrayList<>();
+        String query = currentSearchQuery.toLowerCase();
 
-            // Add event if it matches both filters
-            if (matchesCategory && matchesSearch) {
+        for (EventSummary event : shownIndex.events()) {
+            boolean matchesSearch = query.isEmpty() ||
+                    (event.getTitle() != null && event.getTitle().toLowerCase().contains(query)) ||
+                    (event.getLocation() != null && event.getLocation().toLowerCase().contains(query)) ||
+                    (event.getZone() != null && event.getZone().toLowerCase().contains(query));
+
+            if (matchesSearch) {
                 filteredList.add(event);
             }
         }
@@ -186,7 +221,8 @@ public class MainActivity extends AppCompatActivity {
         // Refresh RecyclerView with filtered events
         eventList.clear();
         eventList.addAll(filteredList);
-        adapter.notifyDataSetChanged();
+        adapter.notifyEventsChanged(); // Also recomputes the section headers
+        visibleEventTracker.refreshAfterLayout(); // Different cards may now be on screen
     }
 
     /**
@@ -220,20 +256,20 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    private static final int[] CATEGORY_IDS = {
+            R.id.category_all,
+            R.id.category_music,
+            R.id.category_art,
+            R.id.category_technology,
+            R.id.category_food,
+            R.id.category_sports
+    };
+
     /**
      * Sets up click listeners for category filter buttons
      */
     private void setupCategoryButtons() {
-        int[] categoryIds = {
-                R.id.category_all,
-                R.id.category_music,
-                R.id.category_art,
-                R.id.category_technology,
-                R.id.category_food,
-                R.id.category_sports
-        };
-
-        for (int id : categoryIds) {
+        for (int id : CATEGORY_IDS) {
             TextView category = findViewById(id);
             category.setOnClickListener(new View.OnClickListener() {
                 @Override
@@ -241,6 +277,10 @@ public class MainActivity extends AppCompatActivity {
                     highlightCategory((TextView) v); // Change UI highlight and filter
                 }
             });
+            // After a rotation the ViewModel still has the chip the user picked
+            if (category.getText().toString().equals(feedViewModel.category())) {
+                styleCategoryButtons(id);
+            }
         }
     }
 
@@ -248,22 +288,20 @@ public class MainActivity extends AppCompatActivity {
      * Highlights the selected category and applies filter
      */
     private void highlightCategory(TextView selectedCategory) {
-        int[] categoryIds = {
-                R.id.category_all,
-                R.id.category_music,
-                R.id.category_art,
-                R.id.category_technology,
-                R.id.category_food,
-                R.id.category_sports
-        };
-
-        // Update current filter
-        currentCategory = selectedCategory.getText().toString();
-
-        // Update button styles for selected/unselected
-        for (int id : categoryIds) {
+        // Update current filter; the ViewModel publishes the category's feed (cached or queried)
+        feedViewModel.showCategory(selectedCategory.getText().toString());
+        styleCategoryButtons(selectedCategory.getId());
+
+        Toast.makeText(this, selectedCategory.getText() + " selected", Toast.LENGTH_SHORT).show();
+    }
+
+    /**
+     * Update button styles for selected/unselected
+     */
+    private void styleCategoryButtons(int selectedId) {
+        for (int id : CATEGORY_IDS) {
             TextView category = findViewById(id);
-            if (category.getId() == selectedCategory.getId()) {
+            if (id == selectedId) {
                 category.setBackgroundResource(R.drawable.category_button_selected);
                 category.setTextColor(getResources().getColor(android.R.color.white));
             } else {
@@ -271,9 +309,6 @@ public class MainActivity extends AppCompatActivity {
                 category.setTextColor(getResources().getColor(R.color.dark_text));
             }
         }
-
-        applySearchAndFilter(); // Refresh list by category
-        Toast.makeText(this, selectedCategory.getText() + " selected", Toast.LENGTH_SHORT).show();
     }
 
     /**
@@ -286,10 +321,14 @@ public class MainActivity extends AppCompatActivity {
         if (requestCode == REQUEST_CREATE_EVENT && resultCode == RESULT_OK && data != null) {
             Event newEvent = (Event) data.getSerializableExtra("event");
             if (newEvent != null && newEvent.getEventId() != null) {
-                // Insert at the top of list
-                originalEventList.add(0, newEvent);
+                // Insert at its start-time slot and scroll to it
+                EventSummary summary = EventSummary.from(newEvent);
+                feedViewModel.addCreated(summary);
                 applySearchAndFilter();
-                recyclerView.scrollToPosition(0);
+                int index = EventTimeIndex.indexOf(eventList, summary);
+                if (index >= 0) {
+                    recyclerView.scrollToPosition(adapter.adapterPositionOf(index));
+                }
 
                 Toast.makeText(this, "Event created successfully!", Toast.LENGTH_SHORT).show();
             } else {
@@ -297,15 +336,4 @@ public class MainActivity extends AppCompatActivity {
             }
         }
     }
-
-    /**
-     * Cleanup listeners to avoid memory leaks
-     */
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (realtimeListener != null && eventLoader != null) {
-            eventLoader.removeListener(realtimeListener);
-        }
-    }
 }
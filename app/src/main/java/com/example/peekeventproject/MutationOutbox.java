@@ -0,0 +1,573 @@
+package com.example.peekeventproject;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.widget.Toast;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageException;
+import com.google.firebase.storage.StorageReference;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * MutationOutbox makes user writes feel instant and keeps them until the server has them.
+ * - Screens apply a change locally and queue it here (event creates, event edits, RSVPs);
+ *   nothing waits on the network.
+ * - Queued mutations are stored in SQLite (OutboxDatabase), so they survive the app being killed
+ *   and are replayed on the next start.
+ * - Mutations are sent one at a time, oldest first. Network failures are retried with exponential
+ *   backoff, and straight away once connectivity returns.
+ * - Redundant mutations are merged before they are sent: edits of the same event fold into one
+ *   (or into the still-queued create), and an RSVP followed by its undo cancels out.
+ * - RSVP listeners hear back once the server confirms or rejects a write, to reconcile or roll back.
+ *   Rejected event writes are reported with a Toast, since their screen is usually gone by then.
+ *
+ * Public methods and listener callbacks run on the main thread; disk work runs on a single
+ * background thread.
+ */
+public final class MutationOutbox {
+
+    /**
+     * Receives the outcome of queued RSVP writes.
+     */
+    public interface RsvpListener {
+        void onRsvpConfirmed(String eventId, RSVPManager.RsvpStatus status, int attendeeCount);
+        void onRsvpRejected(String eventId, boolean attending, String error);
+    }
+
+    /**
+     * Tells the create screen when its event is safely on disk and the screen can close.
+     */
+    public interface QueueCallback {
+        void onQueued(Uri localImage); // The app's copy of the image, to show until the upload is done
+        void onError(String error);
+    }
+
+    static final String TYPE_RSVP = "rsvp";
+    static final String TYPE_CREATE_EVENT = "create_event";
+    static final String TYPE_EDIT_EVENT = "edit_event";
+
+    private static final long BASE_BACKOFF_MS = 2_000;
+    private static final long MAX_BACKOFF_MS = 5 * 60_000;
+    private static final String IMAGE_DIR = "outbox_images"; // Copies of images waiting to be uploaded
+
+    private static MutationOutbox instance;
+
+    private final Context context;
+    private final OutboxDatabase database;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable retryRunnable = this::retryNow;
+    private final Set<RsvpListener> rsvpListeners = new LinkedHashSet<>();
+    // Desired RSVP state per dedupe key, mirrored in memory so screens can render it synchronously
+    private final Map<String, Boolean> pendingRsvps = new HashMap<>();
+    private final EventWriter eventWriter = new EventWriter();
+    private final StorageReference storageRef;
+    private RSVPManager rsvpManager;
+    private boolean draining = false;
+    private boolean waitingForRetry = false;
+    private long sendingId = -1; // Row currently being sent, never merged into; disk thread only
+
+    private MutationOutbox(Context context) {
+        this.context = context;
+        database = new OutboxDatabase(context);
+        storageRef = FirebaseStorage.getInstance().getReference("event_images");
+        loadPendingRsvps();
+        watchConnectivity();
+    }
+
+    public static synchronized MutationOutbox getInstance(Context context) {
+        if (instance == null) {
+            instance = new MutationOutbox(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public void addRsvpListener(RsvpListener listener) {
+        rsvpListeners.add(listener);
+    }
+
+    public void removeRsvpListener(RsvpListener listener) {
+        rsvpListeners.remove(listener);
+    }
+
+    /**
+     * Queues the user's desired RSVP state for an event and starts sending it.
+     */
+    public void enqueueRsvp(String eventId, String userId, boolean attending) {
+        String dedupeKey = rsvpKey(eventId, userId);
+        pendingRsvps.put(dedupeKey, attending);
+
+        JSONObject payload = new JSONObject();
+        try {
+            payload.put("userId", userId).put("attending", attending);
+        } catch (JSONException e) {
+            throw new IllegalStateException(e); // Only thrown for non-finite numbers
+        }
+
+        diskExecutor.execute(() -> {
+            enqueueOnDisk(TYPE_RSVP, dedupeKey, eventId, payload);
+            boolean stillQueued = !database.findByKey(dedupeKey).isEmpty();
+            mainHandler.post(() -> {
+                if (!stillQueued) completeRsvp(dedupeKey, attending); // Cancelled out by a toggle pair
+                drain();
+            });
+        });
+    }
+
+    /**
+     * @return the RSVP state still waiting for the server, or null if nothing is pending
+     */
+    public Boolean getPendingRsvp(String eventId, String userId) {
+        return pendingRsvps.get(rsvpKey(eventId, userId));
+    }
+
+    /**
+     * Queues a new event. The picked image is copied into app storage first, because the
+     * permission to read it ends with the picking screen; it is uploaded when the create is sent.
+     * @param event The event to create (its imageUrl is ignored and filled in after upload).
+     * @param imageUri Image picked by the user.
+     * @param imageExtension File extension used for the uploaded image.
+     * @param callback Told when the event is safely queued, with the copy of the image to show meanwhile
+     *                 (the picked Uri may stop being readable once the picking screen is gone).
+     */
+    public void enqueueCreate(Event event, Uri imageUri, String imageExtension, QueueCallback callback) {
+        String eventId = event.getEventId();
+        JSONObject eventJson = new JSONObject(event.toMap());
+        eventJson.remove("imageUrl");
+
+        diskExecutor.execute(() -> {
+            try {
+                File image = copyImage(imageUri, eventId + "." + imageExtension);
+                JSONObject payload = new JSONObject()
+                        .put("event", eventJson)
+                        .put("imagePath", image.getAbsolutePath());
+                database.insert(TYPE_CREATE_EVENT, eventKey(eventId), eventId, payload.toString());
+                Uri localImage = Uri.fromFile(image);
+                mainHandler.post(() -> {
+                    callback.onQueued(localImage);
+                    drain();
+                });
+            } catch (IOException | JSONException e) {
+                mainHandler.post(() -> callback.onError("Failed to save event: " + e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Queues changed fields of an existing event.
+     * @param eventId The event being edited.
+     * @param changes Field name → new value, using the keys of Event.toMap(); null removes the field.
+     */
+    public void enqueueEdit(String eventId, Map<String, Object> changes) {
+        JSONObject payload = new JSONObject();
+        try {
+            JSONObject changesJson = new JSONObject();
+            for (Map.Entry<String, Object> change : changes.entrySet()) {
+                // Removals (null) are stored as JSON null; sendEdit reads them back as null
+                changesJson.put(change.getKey(), change.getValue() != null ? change.getValue() : JSONObject.NULL);
+            }
+            payload.put("changes", changesJson);
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+
+        diskExecutor.execute(() -> {
+            enqueueOnDisk(TYPE_EDIT_EVENT, eventKey(eventId), eventId, payload);
+            mainHandler.post(this::drain);
+        });
+    }
+
+    /**
+     * Sends queued mutations until the queue is empty or a send fails.
+     * Safe to call any time (app start, after enqueueing); a running drain is not restarted,
+     * and a drain waiting out its backoff is not cut short.
+     */
+    public void drain() {
+        if (draining || waitingForRetry) return;
+        if (FirebaseAuth.getInstance().getCurrentUser() == null) return; // Writes need a signed-in user
+        draining = true;
+        sendNext();
+    }
+
+    // ---------------------------
+    // Queueing (disk thread)
+    // ---------------------------
+
+    /**
+     * Adds a mutation, merging it into a queued one with the same dedupe key where possible.
+     * A row that is currently being sent is never touched; the new mutation goes after it.
+     */
+    private void enqueueOnDisk(String type, String dedupeKey, String targetId, JSONObject payload) {
+        OutboxDatabase.Entry queued = null;
+        for (OutboxDatabase.Entry entry : database.findByKey(dedupeKey)) {
+            if (entry.id != sendingId) queued = entry;
+        }
+
+        if (queued == null) {
+            database.insert(type, dedupeKey, targetId, payload.toString());
+            return;
+        }
+
+        try {
+            JSONObject queuedPayload = new JSONObject(queued.payload);
+            if (TYPE_RSVP.equals(type)) {
+                if (queuedPayload.getBoolean("attending") != payload.getBoolean("attending")) {
+                    database.delete(queued.id); // RSVP then undo: nothing left to send
+                }
+                return;
+            }
+
+            // An edit: fold the changed fields into the queued create or edit
+            JSONObject target = TYPE_CREATE_EVENT.equals(queued.type)
+                    ? queuedPayload.getJSONObject("event")
+                    : queuedPayload.getJSONObject("changes");
+            JSONObject changes = payload.getJSONObject("changes");
+            for (Iterator<String> keys = changes.keys(); keys.hasNext(); ) {
+                String key = keys.next();
+                target.put(key, changes.get(key));
+            }
+            database.updatePayload(queued.id, queued.type, queuedPayload.toString());
+        } catch (JSONException e) {
+            // Queued row is unreadable (it is dropped when sent); queue the new mutation on its own
+            database.insert(type, dedupeKey, targetId, payload.toString());
+        }
+    }
+
+    private File copyImage(Uri imageUri, String fileName) throws IOException {
+        File directory = new File(context.getFilesDir(), IMAGE_DIR);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+
+        File image = new File(directory, fileName);
+        try (InputStream in = context.getContentResolver().openInputStream(imageUri);
+             OutputStream out = new FileOutputStream(image)) {
+            if (in == null) throw new IOException("Cannot read image");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return image;
+    }
+
+    // ---------------------------
+    // Sending (main thread)
+    // ---------------------------
+
+    private void sendNext() {
+        diskExecutor.execute(() -> {
+            OutboxDatabase.Entry entry = database.peek();
+            sendingId = entry != null ? entry.id : -1;
+            mainHandler.post(() -> send(entry));
+        });
+    }
+
+    private void send(OutboxDatabase.Entry entry) {
+        if (entry == null) {
+            draining = false; // Queue is empty
+            return;
+        }
+
+        try {
+            JSONObject payload = new JSONObject(entry.payload);
+            switch (entry.type) {
+                case TYPE_RSVP:
+                    sendRsvp(entry, payload);
+                    break;
+                case TYPE_CREATE_EVENT:
+                    sendCreate(entry, payload);
+                    break;
+                case TYPE_EDIT_EVENT:
+                    sendEdit(entry, payload);
+                    break;
+                default:
+                    finish(entry); // Written by a newer app version; nothing here can send it
+                    break;
+            }
+        } catch (JSONException e) {
+            finish(entry); // Corrupt row, nothing to replay
+        }
+    }
+
+    private void sendRsvp(OutboxDatabase.Entry entry, JSONObject payload) throws JSONException {
+        String userId = payload.getString("userId");
+        boolean attending = payload.getBoolean("attending");
+
+        if (rsvpManager == null) {
+            rsvpManager = new RSVPManager();
+        }
+        rsvpManager.setRsvp(entry.targetId, userId, attending, new RSVPManager.WriteCallback() {
+            @Override
+            public void onSuccess(RSVPManager.RsvpStatus status, int newAttendeeCount) {
+                completeRsvp(entry.dedupeKey, status.wantsToAttend()); // Waitlisted also fulfils "attend"
+                for (RsvpListener listener : new ArrayList<>(rsvpListeners)) {
+                    listener.onRsvpConfirmed(entry.targetId, status, newAttendeeCount);
+                }
+                finish(entry);
+            }
+
+            @Override
+            public void onError(String error, boolean retryable) {
+                if (retryable) {
+                    retryLater(entry);
+                    return;
+                }
+
+                completeRsvp(entry.dedupeKey, attending);
+                for (RsvpListener listener : new ArrayList<>(rsvpListeners)) {
+                    listener.onRsvpRejected(entry.targetId, attending, error);
+                }
+                finish(entry);
+            }
+        });
+    }
+
+    /**
+     * Uploads the image (unless an earlier attempt already did), then writes the event and its summary.
+     */
+    private void sendCreate(OutboxDatabase.Entry entry, JSONObject payload) throws JSONException {
+        JSONObject eventJson = payload.getJSONObject("event");
+        String imagePath = string(payload, "imagePath");
+        File image = new File(imagePath != null ? imagePath : "");
+
+        if (!eventJson.isNull("imageUrl") || !image.isFile()) {
+            writeCreate(entry, eventFromJson(eventJson), imagePath);
+            return;
+        }
+
+        String fileName = image.getName();
+        StorageReference fileRef = storageRef.child(entry.targetId + "/" + System.currentTimeMillis()
+                + fileName.substring(fileName.lastIndexOf('.')));
+        fileRef.putFile(Uri.fromFile(image))
+                .addOnSuccessListener(taskSnapshot ->
+                        fileRef.getDownloadUrl().addOnSuccessListener(uri -> {
+                            try {
+                                eventJson.put("imageUrl", uri.toString());
+                            } catch (JSONException e) {
+                                throw new IllegalStateException(e);
+                            }
+                            // Remember the URL, so a retry does not upload the image again
+                            String updated = payload.toString();
+                            diskExecutor.execute(() -> database.updatePayload(entry.id, entry.type, updated));
+                            writeCreate(entry, eventFromJson(eventJson), imagePath);
+                        }).addOnFailureListener(e -> onStorageFailure(entry, eventJson, e)))
+                .addOnFailureListener(e -> onStorageFailure(entry, eventJson, e));
+    }
+
+    private void writeCreate(OutboxDatabase.Entry entry, Event event, String imagePath) {
+        // The event and its feed summary go out as one atomic write
+        eventWriter.create(event, (error, ref) -> {
+            if (error != null) {
+                onDatabaseFailure(entry, event.getTitle(), error);
+                return;
+            }
+            if (imagePath != null) {
+                diskExecutor.execute(() -> new File(imagePath).delete());
+            }
+            finish(entry);
+        });
+    }
+
+    /**
+     * Writes only the changed fields (and their summary copies) in one atomic update, so concurrent
+     * RSVPs on the same event are never overwritten.
+     */
+    private void sendEdit(OutboxDatabase.Entry entry, JSONObject payload) throws JSONException {
+        JSONObject changesJson = payload.getJSONObject("changes");
+        String title = changesJson.optString("title", "event");
+
+        Map<String, Object> changes = new HashMap<>();
+        for (Iterator<String> keys = changesJson.keys(); keys.hasNext(); ) {
+            String key = keys.next();
+            changes.put(key, changesJson.isNull(key) ? null : changesJson.get(key));
+        }
+
+        eventWriter.edit(entry.targetId, changes, (error, ref) -> {
+            if (error != null) {
+                onDatabaseFailure(entry, title, error);
+            } else {
+                finish(entry);
+            }
+        });
+    }
+
+    private void onDatabaseFailure(OutboxDatabase.Entry entry, String title, DatabaseError error) {
+        if (RSVPManager.isRetryable(error)) {
+            retryLater(entry);
+        } else {
+            rejectEventWrite(entry, title, error.getMessage());
+        }
+    }
+
+    private void onStorageFailure(OutboxDatabase.Entry entry, JSONObject eventJson, Exception e) {
+        int code = e instanceof StorageException ? ((StorageException) e).getErrorCode() : 0;
+        if (code == StorageException.ERROR_NOT_AUTHORIZED || code == StorageException.ERROR_QUOTA_EXCEEDED) {
+            rejectEventWrite(entry, eventJson.optString("title", "event"), e.getMessage());
+        } else {
+            retryLater(entry); // Most upload failures are the network
+        }
+    }
+
+    /**
+     * Drops an event write the server refused and tells the user, whichever screen they are on.
+     */
+    private void rejectEventWrite(OutboxDatabase.Entry entry, String title, String error) {
+        Toast.makeText(context, "Couldn't save \"" + title + "\": " + error, Toast.LENGTH_LONG).show();
+        if (TYPE_CREATE_EVENT.equals(entry.type)) {
+            diskExecutor.execute(() -> deleteImageOf(entry));
+        }
+        finish(entry);
+    }
+
+    /**
+     * Removes a sent (or unsendable) row and moves on to the next one.
+     */
+    private void finish(OutboxDatabase.Entry entry) {
+        diskExecutor.execute(() -> database.delete(entry.id));
+        sendNext();
+    }
+
+    /**
+     * Keeps the row and pauses the queue, doubling the wait after each failed attempt.
+     * Order is preserved: nothing behind the failed row is sent before it.
+     */
+    private void retryLater(OutboxDatabase.Entry entry) {
+        diskExecutor.execute(() -> {
+            database.recordFailedAttempt(entry.id);
+            sendingId = -1;
+        });
+
+        long delay = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(entry.attempts, 10));
+        delay += (long) (Math.random() * delay / 5); // Jitter, so devices do not retry in lockstep
+
+        draining = false;
+        waitingForRetry = true;
+        mainHandler.postDelayed(retryRunnable, delay);
+    }
+
+    private void retryNow() {
+        mainHandler.removeCallbacks(retryRunnable);
+        waitingForRetry = false;
+        drain();
+    }
+
+    /**
+     * Retries immediately when a network comes back instead of waiting out the backoff.
+     */
+    private void watchConnectivity() {
+        ConnectivityManager connectivityManager = context.getSystemService(ConnectivityManager.class);
+        if (connectivityManager == null) return;
+
+        connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                mainHandler.post(MutationOutbox.this::retryNow);
+            }
+        });
+    }
+
+    /**
+     * Clears the in-memory pending state, unless the user has since asked for something else.
+     */
+    private void completeRsvp(String dedupeKey, boolean sentState) {
+        Boolean desired = pendingRsvps.get(dedupeKey);
+        if (desired != null && desired == sentState) {
+            pendingRsvps.remove(dedupeKey);
+        }
+    }
+
+    /**
+     * Restores the pending RSVP states written before the process was last killed.
+     */
+    private void loadPendingRsvps() {
+        diskExecutor.execute(() -> {
+            Map<String, Boolean> stored = new HashMap<>();
+            for (OutboxDatabase.Entry entry : database.pending(TYPE_RSVP)) {
+                try {
+                    stored.put(entry.dedupeKey, new JSONObject(entry.payload).getBoolean("attending"));
+                } catch (JSONException ignored) {
+                    // Unreadable rows are dropped when the drain reaches them
+                }
+            }
+            mainHandler.post(() -> {
+                for (Map.Entry<String, Boolean> pending : stored.entrySet()) {
+                    // Anything enqueued meanwhile is newer than what was on disk
+                    if (!pendingRsvps.containsKey(pending.getKey())) {
+                        pendingRsvps.put(pending.getKey(), pending.getValue());
+                    }
+                }
+            });
+        });
+    }
+
+    private void deleteImageOf(OutboxDatabase.Entry entry) {
+        try {
+            String imagePath = string(new JSONObject(entry.payload), "imagePath");
+            if (imagePath != null) new File(imagePath).delete();
+        } catch (JSONException ignored) {
+            // Nothing to clean up
+        }
+    }
+
+    private static Event eventFromJson(JSONObject json) {
+        Event event = new Event();
+        event.setEventId(string(json, "eventId"));
+        event.setTitle(string(json, "title"));
+        event.setCategory(string(json, "category"));
+        event.setDescription(string(json, "description"));
+        event.setDate(string(json, "date"));
+        event.setTime(string(json, "time"));
+        event.setLocation(string(json, "location"));
+        event.setZone(string(json, "zone"));
+        event.setAttendeeCount(json.optInt("attendeeCount", 0));
+        event.setCapacity(json.optInt("capacity", 0));
+        event.setImageUrl(string(json, "imageUrl"));
+        event.setCreatorId(string(json, "creatorId"));
+        event.setStartEpochMillis(json.optLong("startEpochMillis", EventTimeCodec.UNKNOWN));
+        event.setEndEpochMillis(json.optLong("endEpochMillis", EventTimeCodec.UNKNOWN));
+        event.setLatitude(json.isNull("latitude") ? null : json.optDouble("latitude"));
+        event.setLongitude(json.isNull("longitude") ? null : json.optDouble("longitude"));
+        event.setGeohash(string(json, "geohash"));
+        return event;
+    }
+
+    /**
+     * optString turns JSON null into "null"; missing and null values both read as null here.
+     */
+    private static String string(JSONObject json, String key) {
+        return json.isNull(key) ? null : json.optString(key);
+    }
+
+    private static String rsvpKey(String eventId, String userId) {
+        return TYPE_RSVP + ":" + eventId + ":" + userId;
+    }
+
+    private static String eventKey(String eventId) {
+        return "event:" + eventId;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.peekeventproject;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQLite storage behind MutationOutbox, so queued writes survive process death.
+ * One row per pending mutation, replayed in ID order. Rows that touch the same thing share
+ * a dedupe key, which MutationOutbox uses to merge redundant mutations.
+ *
+ * Called from the outbox's disk thread only.
+ */
+final class OutboxDatabase extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "outbox.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private static final String TABLE = "mutations";
+    private static final String COL_ID = "id";
+    private static final String COL_TYPE = "type";
+    private static final String COL_DEDUPE_KEY = "dedupe_key";
+    private static final String COL_TARGET_ID = "target_id";
+    private static final String COL_PAYLOAD = "payload";
+    private static final String COL_ATTEMPTS = "attempts";
+    private static final String COL_CREATED_AT = "created_at";
+
+    private static final String[] COLUMNS = {
+            COL_ID, COL_TYPE, COL_DEDUPE_KEY, COL_TARGET_ID, COL_PAYLOAD, COL_ATTEMPTS
+    };
+
+    /**
+     * One queued mutation as stored on disk.
+     */
+    static final class Entry {
+        final long id;
+        final String type;
+        final String dedupeKey;
+        final String targetId;
+        final String payload;   // JSON, shape depends on type
+        final int attempts;
+
+        Entry(long id, String type, String dedupeKey, String targetId, String payload, int attempts) {
+            this.id = id;
+            this.type = type;
+            this.dedupeKey = dedupeKey;
+            this.targetId = targetId;
+            this.payload = payload;
+            this.attempts = attempts;
+        }
+    }
+
+    OutboxDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + COL_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COL_TYPE + " TEXT NOT NULL, "
+                + COL_DEDUPE_KEY + " TEXT NOT NULL, "
+                + COL_TARGET_ID + " TEXT NOT NULL, "
+                + COL_PAYLOAD + " TEXT NOT NULL, "
+                + COL_ATTEMPTS + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_CREATED_AT + " INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX idx_" + TABLE + "_" + COL_DEDUPE_KEY
+                + " ON " + TABLE + " (" + COL_DEDUPE_KEY + ")");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Only version 1 exists so far
+    }
+
+    /**
+     * Appends a mutation to the back of the queue.
+     * @return the row ID
+     */
+    long insert(String type, String dedupeKey, String targetId, String payload) {
+        ContentValues values = new ContentValues();
+        values.put(COL_TYPE, type);
+        values.put(COL_DEDUPE_KEY, dedupeKey);
+        values.put(COL_TARGET_ID, targetId);
+        values.put(COL_PAYLOAD, payload);
+        values.put(COL_CREATED_AT, System.currentTimeMillis());
+        return getWritableDatabase().insert(TABLE, null, values);
+    }
+
+    /**
+     * Rewrites a queued mutation in place, keeping its position in the queue.
+     */
+    void updatePayload(long id, String type, String payload) {
+        ContentValues values = new ContentValues();
+        values.put(COL_TYPE, type);
+        values.put(COL_PAYLOAD, payload);
+        getWritableDatabase().update(TABLE, values, COL_ID + " = ?", new String[]{String.valueOf(id)});
+    }
+
+    /**
+     * @return the queued mutations sharing a dedupe key, oldest first
+     */
+    List<Entry> findByKey(String dedupeKey) {
+        return query(COL_DEDUPE_KEY + " = ?", new String[]{dedupeKey});
+    }
+
+    /**
+     * @return the oldest pending mutation, or null if the queue is empty
+     */
+    Entry peek() {
+        try (Cursor cursor = getReadableDatabase().query(TABLE, COLUMNS, null, null,
+                null, null, COL_ID + " ASC", "1")) {
+            return cursor.moveToFirst() ? read(cursor) : null;
+        }
+    }
+
+    /**
+     * @return every pending mutation of one type, oldest first
+     */
+    List<Entry> pending(String type) {
+        return query(COL_TYPE + " = ?", new String[]{type});
+    }
+
+    void delete(long id) {
+        getWritableDatabase().delete(TABLE, COL_ID + " = ?", new String[]{String.valueOf(id)});
+    }
+
+    void recordFailedAttempt(long id) {
+        getWritableDatabase().execSQL("UPDATE " + TABLE + " SET " + COL_ATTEMPTS + " = "
+                + COL_ATTEMPTS + " + 1 WHERE " + COL_ID + " = " + id);
+    }
+
+    private List<Entry> query(String selection, String[] args) {
+        List<Entry> entries = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE, COLUMNS, selection, args,
+                null, null, COL_ID + " ASC")) {
+            while (cursor.moveToNext()) {
+                entries.add(read(cursor));
+            }
+        }
+        return entries;
+    }
+
+    private static Entry read(Cursor cursor) {
+        return new Entry(
+                cursor.getLong(cursor.getColumnIndexOrThrow(COL_ID)),
+                cursor.getString(cursor.getColumnIndexOrThrow(COL_TYPE)),
+                cursor.getString(cursor.getColumnIndexOrThrow(COL_DEDUPE_KEY)),
+                cursor.getString(cursor.getColumnIndexOrThrow(COL_TARGET_ID)),
+                cursor.getString(cursor.getColumnIndexOrThrow(COL_PAYLOAD)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(COL_ATTEMPTS)));
+    }
+}
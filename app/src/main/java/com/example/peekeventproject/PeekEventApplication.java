@@ -0,0 +1,36 @@
+package com.example.peekeventproject;
+
+import android.app.Application;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+/**
+ * Application class: the earliest point in the process where app code runs.
+ * For a signed-in user it starts the feed query and the profile read right away,
+ * so they are in flight while the first activity is created and inflated.
+ * Results are cached in StartupPrefetcher for the first screen that asks.
+ * It also resumes sending any writes still queued in MutationOutbox from the last session.
+ * Once a day it prunes expired event tombstones (EventIndexChecker.pruneTombstonesDaily).
+ */
+public class PeekEventApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        if (BuildConfig.USE_SEEDED_EVENTS) {
+            StartupPrefetcher.getInstance().prefetchFeed(this); // Served locally, no auth involved
+            return;
+        }
+
+        // The session is restored from disk; database rules require auth, so skip signed-out users
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user != null) {
+            StartupPrefetcher.getInstance().prefetchFeed(this);
+            StartupPrefetcher.getInstance().prefetchProfile(user.getUid());
+            MutationOutbox.getInstance(this).drain();
+            EventIndexChecker.pruneTombstonesDaily(this);
+        }
+    }
+}
@@ -39,8 +39,8 @@ public class ProfileActivity extends AppCompatActivity {
 
     // RecyclerView to display user events
     private RecyclerView recyclerView;
-    private List<Event> myEvents = new ArrayList<>();       // Events created by the user
-    private List<Event> rsvpedEvents = new ArrayList<>();   // Events user RSVP'd for (but didn't create)
+    private List<EventSummary> myEvents = new ArrayList<>();     // Events created by the user
+    private List<EventSummary> rsvpedEvents = new ArrayList<>(); // Events user RSVP'd for (but didn't create)
     private EventAdapter eventAdapter;                     // Adapter for RecyclerView
 
     @Override
@@ -92,6 +92,7 @@ public class ProfileActivity extends AppCompatActivity {
         menuButton.setOnClickListener(v -> {
             PopupMenu popupMenu = new PopupMenu(ProfileActivity.this, v);
             popupMenu.getMenuInflater().inflate(R.menu.profile_menu, popupMenu.getMenu());
+            popupMenu.getMenu().findItem(R.id.menu_check_events).setVisible(BuildConfig.DEBUG);
             popupMenu.setOnMenuItemClickListener(item -> {
                 int id = item.getItemId();
                 if (id == R.id.menu_about_us) {
@@ -100,12 +101,16 @@ public class ProfileActivity extends AppCompatActivity {
                     return true;
                 } else if (id == R.id.menu_logout) {
                     // Logout user and return to Welcome Page
+                    StartupPrefetcher.getInstance().clear(); // Nothing of this user may reach the next one
                     FirebaseAuth.getInstance().signOut();
                     Intent intent = new Intent(ProfileActivity.this, Welcome_page.class);
                     intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
                     startActivity(intent);
                     finish();
                     return true;
+                } else if (id == R.id.menu_check_events) {
+                    checkEventData();
+                    return true;
                 }
                 return false;
             });
@@ -120,25 +125,34 @@ public class ProfileActivity extends AppCompatActivity {
             String uid = user.getUid();
             userRef = FirebaseDatabase.getInstance().getReference("Users").child(uid);
 
-            // Fetch and display user profile fields
-            userRef.addListenerForSingleValueEvent(new ValueEventListener() {
-                @Override
-                public void onDataChange(@NonNull DataSnapshot snapshot) {
-                    if (snapshot.exists()) {
-                        profileName.setText(snapshot.child("name").getValue(String.class));
-                        profileEmail.setText(snapshot.child("email").getValue(String.class));
-                        profilePhone.setText(snapshot.child("phone").getValue(String.class));
-                        profileDate.setText(snapshot.child("dateCreated").getValue(String.class));
-                    } else {
-                        Toast.makeText(ProfileActivity.this, "User data not found", Toast.LENGTH_SHORT).show();
+            // Use the profile prefetched at app start if there is one, otherwise fetch it now
+            boolean prefetched = StartupPrefetcher.getInstance().consumeProfile(uid,
+                    new StartupPrefetcher.ProfileCallback() {
+                        @Override
+                        public void onProfileLoaded(DataSnapshot snapshot) {
+                            showProfile(snapshot);
+                        }
+
+                        @Override
+                        public void onError(String error) {
+                            Toast.makeText(ProfileActivity.this, "Failed to load profile.", Toast.LENGTH_SHORT).show();
+                        }
+                    });
+
+            if (!prefetched) {
+                // Fetch and display user profile fields
+                userRef.addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        showProfile(snapshot);
                     }
-                }
 
-                @Override
-                public void onCancelled(@NonNull DatabaseError error) {
-                    Toast.makeText(ProfileActivity.this, "Failed to load profile.", Toast.LENGTH_SHORT).show();
-                }
-            });
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        Toast.makeText(ProfileActivity.this, "Failed to load profile.", Toast.LENGTH_SHORT).show();
+                    }
+                });
+            }
 
             // Load user's events (both created and RSVP'd)
             loadUserEvents(uid);
@@ -150,6 +164,38 @@ public class ProfileActivity extends AppCompatActivity {
         setupBottomNavigation();
     }
 
+    /**
+     * Displays the "Users/{uid}" profile fields.
+     */
+    private void showProfile(DataSnapshot snapshot) {
+        if (snapshot.exists()) {
+            profileName.setText(snapshot.child("name").getValue(String.class));
+            profileEmail.setText(snapshot.child("email").getValue(String.class));
+            profilePhone.setText(snapshot.child("phone").getValue(String.class));
+            profileDate.setText(snapshot.child("dateCreated").getValue(String.class));
+        } else {
+            Toast.makeText(ProfileActivity.this, "User data not found", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    /**
+     * Debug builds: checks the derived event nodes and writes the repairs (see EventIndexChecker).
+     */
+    private void checkEventData() {
+        new EventIndexChecker().check(true, new EventIndexChecker.Callback() {
+            @Override
+            public void onChecked(EventIndexChecker.Report report) {
+                String result = report.isConsistent() ? "Event data is consistent" : "Repaired " + report;
+                Toast.makeText(ProfileActivity.this, result, Toast.LENGTH_LONG).show();
+            }
+
+            @Override
+            public void onError(String error) {
+                Toast.makeText(ProfileActivity.this, error, Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
     /**
      * Loads events related to the user:
      * - myEvents: events created by this user.
@@ -165,18 +211,17 @@ public class ProfileActivity extends AppCompatActivity {
                 rsvpedEvents.clear();
 
                 for (DataSnapshot eventSnapshot : snapshot.getChildren()) {
-                    Event event = eventSnapshot.getValue(Event.class);
+                    EventSnapshot event = EventMapper.snapshotOf(eventSnapshot);
                     if (event == null) continue;
 
                     // Check if the current user is the creator
                     boolean isCreator = userId.equals(event.getCreatorId());
 
                     // Check if the user RSVP'd to this event
-                    boolean hasRsvpd = event.getRsvpList() != null
-                            && Boolean.TRUE.equals(event.getRsvpList().get(userId));
+                    boolean hasRsvpd = event.hasUserRsvpd(userId);
 
-                    if (isCreator) myEvents.add(event);
-                    if (hasRsvpd && !isCreator) rsvpedEvents.add(event);
+                    if (isCreator) myEvents.add(EventSummary.from(event));
+                    if (hasRsvpd && !isCreator) rsvpedEvents.add(EventSummary.from(event));
                 }
 
                 // Default view: show "My Events" first
@@ -1,42 +1,67 @@
 package com.example.peekeventproject;
 
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Transaction;
 import com.google.firebase.database.ValueEventListener;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * RSVPManager handles all RSVP (attendee) logic for events.
  * It connects to Firebase Realtime Database and:
- * - Toggles RSVP status for the logged-in user.
- * - Checks if the user has RSVP'd to an event.
- * - Listens to attendee count changes in real-time.
+ * - Sets a user's RSVP to a desired state, entry and count in one write (used by MutationOutbox).
+ * - Admits users to events with a capacity up to that capacity; later users join the event's
+ *   waitlist (EventWaitlist) and are promoted in order when seats free up.
+ * - Listens to the current user's own RSVP entry in real-time (counts: AttendeeCountSubscriptions).
  * - Removes event listeners to prevent memory leaks.
  */
 public class RSVPManager { // RSVPManager handles all RSVP (attendee) logic for events.
 
     // Reference to the "events" node in Firebase
     private DatabaseReference eventsRef;
+    // Mirrors counts into the denormalized "eventSummaries" node read by the feed
+    private final EventWriter eventWriter = new EventWriter();
+    // attendeeCount, or its shards once the event is busy
+    private final AttendeeCounter attendeeCounter = new AttendeeCounter();
+    // Users waiting for a seat of a full event
+    private final EventWaitlist waitlist = new EventWaitlist();
 
     // Firebase Authentication to get current user ID
     private FirebaseAuth auth;
     private String currentUserId;
 
     /**
-     * Callback interface for RSVP actions like toggling or checking RSVP status.
+     * Where a user stands with an event after an RSVP write.
      */
-    public interface RSVPCallback {
-        void onSuccess(boolean isRsvpd, int newAttendeeCount); // Called when operation succeeds
-        void onError(String error);                            // Called if operation fails
+    public enum RsvpStatus {
+        GOING,
+        WAITLISTED,  // Asked to attend a full event; promoted to GOING when a seat frees up
+        NOT_GOING;
+
+        /**
+         * @return whether the user asked to attend (the state RSVP taps toggle)
+         */
+        public boolean wantsToAttend() {
+            return this != NOT_GOING;
+        }
     }
 
     /**
-     * Listener interface for real-time attendee count changes.
+     * Callback for setRsvp. retryable tells the outbox whether the write may succeed later
+     * (network trouble) or was rejected for good (permissions, deleted event).
      */
-    public interface AttendeeCountListener {
-        void onAttendeeCountChanged(int newCount, boolean userHasRsvpd);
+    public interface WriteCallback {
+        void onSuccess(RsvpStatus status, int newAttendeeCount);
+        void onError(String error, boolean retryable);
     }
 
     /**
@@ -49,129 +74,488 @@ public class RSVPManager { // RSVPManager handles all RSVP (attendee) logic for
     }
 
     /**
-     * Toggles RSVP status for the current user on a given event.
-     * If the user has RSVP'd -> remove RSVP.
-     * If the user hasn't RSVP'd -> add RSVP.
-     * @param eventId The ID of the event to toggle RSVP for.
-     * @param callback The callback to handle success or failure.
+     * Puts a user's RSVP into the requested state. A replay (the outbox retrying after an error or
+     * a restart) changes nothing that the first attempt already wrote:
+     * - Events without a capacity write "events/{id}/rsvpList/{userId}" (true, or removed when
+     *   un-RSVPing) and the attendee count (see AttendeeCounter) in one atomic update, and only if
+     *   the entry is not already in the requested state.
+     * - Events with a capacity take a seat first (see attend), so the count never passes the capacity.
+     *   Seats name their holder, so a replay reuses a seat taken by an attempt that stopped
+     *   halfway, and un-RSVPing frees the seat and removes the entry in one update (see leaveSeat).
+     * The feed summary's count is then set from the new total.
+     * @param eventId The event to RSVP to.
+     * @param userId The user whose RSVP is written (stored with the queued mutation).
+     * @param attending Desired state: attend (or wait for a seat), or neither.
+     * @param callback Receives the resulting status and attendee count.
      */
-    public void toggleRSVP(String eventId, RSVPCallback callback) {
-        // Ensure user is logged in
-        if (currentUserId == null) {
-            callback.onError("User not authenticated");
-            return;
-        }
-        DatabaseReference eventRef = eventsRef.child(eventId);
-        // Get current event data once to determine RSVP state
-        eventRef.addListenerForSingleValueEvent(new ValueEventListener() {
+    public void setRsvp(String eventId, String userId, boolean attending, WriteCallback callback) {
+        attendeeCounter.readCapacity(eventId, new AttendeeCounter.CapacityCallback() {
             @Override
-            public void onDataChange(DataSnapshot snapshot) {
-                if (snapshot.exists()) {
-                    Event event = snapshot.getValue(Event.class);
-                    if (event != null) {
-                        boolean currentlyRsvpd = event.hasUserRsvpd(currentUserId);
-
-                        // Toggle RSVP in the event object
-                        if (currentlyRsvpd) {
-                            event.removeRsvp(currentUserId); // User already RSVP'd → un-RSVP
-                        } else {
-                            event.addRsvp(currentUserId);    // User not RSVP'd → RSVP
+            public void onCapacity(int capacity) {
+                if (capacity <= 0) {
+                    writeRsvp(eventId, userId, attending, 0, callback);
+                } else if (attending) {
+                    attend(eventId, userId, capacity, callback);
+                } else {
+                    // Leave the waitlist first, so a promotion running now cannot pick the user
+                    waitlist.leave(eventId, userId, new EventWaitlist.WriteCallback() {
+                        @Override
+                        public void onDone() {
+                            leaveSeat(eventId, userId, capacity, callback);
+                        }
+
+                        @Override
+                        public void onError(DatabaseError error) {
+                            callback.onError("Failed to leave the waitlist: " + error.getMessage(), isRetryable(error));
                         }
+                    });
+                }
+            }
 
-                        // Save updated event back to Firebase
-                        eventRef.setValue(event)
-                                .addOnSuccessListener(aVoid -> {
-                                    // Pass updated RSVP state and attendee count
-                                    callback.onSuccess(!currentlyRsvpd, event.getAttendeeCount());
-                                })
-                                .addOnFailureListener(e -> {
-                                    callback.onError("Failed to update RSVP: " + e.getMessage());
-                                });
-                    } else {
-                        callback.onError("Event data not found");
+            @Override
+            public void onError(DatabaseError error) {
+                callback.onError("Database error: " + error.getMessage(), isRetryable(error));
+            }
+        });
+    }
+
+    /**
+     * Sets or removes the rsvpList entry together with the count, if the entry is not already so.
+     * The check is a read, not part of the write: the same user changing their RSVP from two
+     * devices at the same instant could move the count twice (EventIndexChecker recounts it).
+     * @param capacity the event's capacity; a seat freed on an event with one goes to the waitlist
+     */
+    private void writeRsvp(String eventId, String userId, boolean attending, int capacity,
+                           WriteCallback callback) {
+        RsvpStatus status = attending ? RsvpStatus.GOING : RsvpStatus.NOT_GOING;
+        eventsRef.child(eventId).child("rsvpList").child(userId)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(DataSnapshot snapshot) {
+                        if (Boolean.TRUE.equals(snapshot.getValue()) == attending) {
+                            reportCurrentCount(eventId, status, callback); // Nothing to change
+                            return;
+                        }
+                        Map<String, Object> entry = new HashMap<>();
+                        entry.put("rsvpList/" + userId, attending ? Boolean.TRUE : null);
+                        attendeeCounter.writeWithCount(eventId, entry, attending ? 1 : -1,
+                                countCallback(eventId, status, capacity, callback));
                     }
-                } else {
-                    callback.onError("Event not found");
+
+                    @Override
+                    public void onCancelled(DatabaseError error) {
+                        callback.onError("Database error: " + error.getMessage(), isRetryable(error));
+                    }
+                });
+    }
+
+    /**
+     * Reports an RSVP write that moved the count, mirroring the new total into the feed summary.
+     */
+    private AttendeeCounter.Callback countCallback(String eventId, RsvpStatus status, int capacity,
+                                                   WriteCallback callback) {
+        return new AttendeeCounter.Callback() {
+            @Override
+            public void onCommitted(int newTotal) {
+                // Keep the feed summary's count in sync
+                eventWriter.attendeeCount(eventId, newTotal);
+                if (capacity > 0 && newTotal < capacity) {
+                    promoteWaitlist(eventId, capacity);
                 }
+                callback.onSuccess(status, newTotal);
             }
 
             @Override
-            public void onCancelled(DatabaseError error) {
-                callback.onError("Database error: " + error.getMessage());
+            public void onEventMissing() {
+                callback.onError("Event not found", false);
+            }
+
+            @Override
+            public void onError(DatabaseError error) {
+                callback.onError("Failed to update RSVP: " + error.getMessage(), isRetryable(error));
+            }
+        };
+    }
+
+    /**
+     * Un-RSVPs a user from an event with a capacity: removes their seat and rsvpList entry together.
+     * Users admitted before seats named their holder have no recorded seat and are uncounted
+     * like on events without a capacity.
+     */
+    private void leaveSeat(String eventId, String userId, int capacity, WriteCallback callback) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("rsvpList/" + userId, null);
+        AttendeeCounter.Callback counted = countCallback(eventId, RsvpStatus.NOT_GOING, capacity, callback);
+        attendeeCounter.releaseSeat(eventId, userId, entry, new AttendeeCounter.ReleaseCallback() {
+            @Override
+            public void onNoSeat() {
+                writeRsvp(eventId, userId, false, capacity, callback);
+            }
+
+            @Override
+            public void onCommitted(int newTotal) {
+                counted.onCommitted(newTotal);
+            }
+
+            @Override
+            public void onEventMissing() {
+                counted.onEventMissing();
+            }
+
+            @Override
+            public void onError(DatabaseError error) {
+                counted.onError(error);
             }
         });
     }
 
     /**
-     * Adds a real-time listener for changes to an event's attendee count.
-     * This updates UI instantly when other users RSVP/un-RSVP.
-     *
-     * @param eventId The ID of the event to listen for.
-     * @param listener Callback to receive attendee count and user RSVP state.
-     * @return The ValueEventListener to allow later removal.
+     * Result of admit.
      */
-    public ValueEventListener listenToAttendeeCount(String eventId, AttendeeCountListener listener) {
-        DatabaseReference eventRef = eventsRef.child(eventId);
+    private interface AdmitCallback {
+        void onAdmitted(int newTotal);        // The rsvpList entry was set by this call
+        void onAlreadyGoing(int newTotal);    // It was set already (any extra seat was given back)
+        void onError(String error, boolean retryable);
+    }
 
-        ValueEventListener valueEventListener = new ValueEventListener() {
+    /**
+     * RSVP to an event with a capacity. Many users may try at once right after an announcement:
+     * - the seat is taken first, recorded with the user as its holder (AttendeeCounter.reserveSeat,
+     *   spread over shards, never past the capacity); a seat the user already holds is reused
+     * - then the rsvpList entry is set (see admit)
+     * - with no seat left the user joins the waitlist instead
+     */
+    private void attend(String eventId, String userId, int capacity, WriteCallback callback) {
+        DatabaseReference rsvpRef = eventsRef.child(eventId).child("rsvpList").child(userId);
+        rsvpRef.addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot snapshot) {
-                if (snapshot.exists()) {
-                    Event event = snapshot.getValue(Event.class);
-                    if (event != null) {
-                        // Check if current user has RSVP'd
-                        boolean userHasRsvpd = currentUserId != null && event.hasUserRsvpd(currentUserId);
-                        // Notify callback with current attendee count and user state
-                        listener.onAttendeeCountChanged(event.getAttendeeCount(), userHasRsvpd);
-                    }
+                if (Boolean.TRUE.equals(snapshot.getValue())) {
+                    reportCurrentCount(eventId, RsvpStatus.GOING, callback); // Already has a seat
+                    return;
                 }
+                attendeeCounter.reserveSeat(eventId, userId, new AttendeeCounter.SeatCallback() {
+                    @Override
+                    public void onSeated(int newTotal, boolean newSeat) {
+                        admit(eventId, userId, newTotal, newSeat, new AdmitCallback() {
+                            @Override
+                            public void onAdmitted(int total) {
+                                waitlist.leave(eventId, userId); // In case they were waiting too
+                                callback.onSuccess(RsvpStatus.GOING, total);
+                            }
+
+                            @Override
+                            public void onAlreadyGoing(int total) {
+                                callback.onSuccess(RsvpStatus.GOING, total);
+                            }
+
+                            @Override
+                            public void onError(String error, boolean retryable) {
+                                callback.onError(error, retryable);
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onFull() {
+                        joinWaitlist(eventId, userId, capacity, callback);
+                    }
+
+                    @Override
+                    public void onEventMissing() {
+                        callback.onError("Event not found", false);
+                    }
+
+                    @Override
+                    public void onError(DatabaseError error) {
+                        callback.onError("Failed to reserve a seat: " + error.getMessage(), isRetryable(error));
+                    }
+                });
             }
 
             @Override
             public void onCancelled(DatabaseError error) {
-                // Listener error is usually ignored unless debugging
+                callback.onError("Database error: " + error.getMessage(), isRetryable(error));
             }
-        };
+        });
+    }
+
+    /**
+     * Sets the rsvpList entry of a user who holds a seat.
+     * Used both for the user's own RSVP and for waitlist promotions by other clients.
+     * - A retryable failure keeps the seat: it names the user, so the retry reuses it.
+     * - A final failure gives the seat back, since nothing will retry.
+     * - If the user turns out to be going already, a seat taken just now (newSeat) is given back;
+     *   that only happens to users admitted before seats named their holder.
+     */
+    private void admit(String eventId, String userId, int totalWithSeat, boolean newSeat,
+                       AdmitCallback callback) {
+        DatabaseReference rsvpRef = eventsRef.child(eventId).child("rsvpList").child(userId);
+        rsvpRef.runTransaction(new Transaction.Handler() {
+            private boolean changed;
 
-        // Attach the listener to Firebase
-        eventRef.addValueEventListener(valueEventListener);
-        return valueEventListener;
+            @Override
+            public Transaction.Result doTransaction(MutableData currentData) {
+                changed = !Boolean.TRUE.equals(currentData.getValue());
+                if (changed) {
+                    currentData.setValue(Boolean.TRUE);
+                }
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                if (error != null) {
+                    if (!isRetryable(error)) {
+                        attendeeCounter.releaseSeat(eventId, userId, new HashMap<>(), ignoring());
+                    }
+                    callback.onError("Failed to update RSVP: " + error.getMessage(), isRetryable(error));
+                } else if (committed && changed) {
+                    eventWriter.attendeeCount(eventId, totalWithSeat);
+                    callback.onAdmitted(totalWithSeat);
+                } else if (newSeat) {
+                    attendeeCounter.releaseSeat(eventId, userId, new HashMap<>(), ignoring());
+                    callback.onAlreadyGoing(totalWithSeat - 1);
+                } else {
+                    callback.onAlreadyGoing(totalWithSeat);
+                }
+            }
+        });
     }
 
+    /**
+     * For a best-effort seat release; a seat left behind still names the user, who frees it by
+     * un-RSVPing, and a waitlist promotion reuses it.
+     */
+    private static AttendeeCounter.ReleaseCallback ignoring() {
+        return new AttendeeCounter.ReleaseCallback() {
+            @Override
+            public void onNoSeat() {
+            }
+
+            @Override
+            public void onCommitted(int newTotal) {
+            }
 
-    public void removeListener(String eventId, ValueEventListener listener) { // Detaches a real-time listener to avoid memory leaks when activity is destroyed.
-        if (listener != null) {
-            eventsRef.child(eventId).removeEventListener(listener);
-        }
+            @Override
+            public void onEventMissing() {
+            }
+
+            @Override
+            public void onError(DatabaseError error) {
+            }
+        };
     }
 
+    /**
+     * Puts the user on the waitlist of a full event, then checks once for a seat freed meanwhile:
+     * a seat released just before the user joined would otherwise stay empty. The promotion only
+     * starts if the total shows a free seat, so a burst of joins does not claim the head over and over.
+     */
+    private void joinWaitlist(String eventId, String userId, int capacity, WriteCallback callback) {
+        waitlist.join(eventId, userId, new EventWaitlist.WriteCallback() {
+            @Override
+            public void onDone() {
+                attendeeCounter.readTotal(eventId, new AttendeeCounter.TotalCallback() {
+                    @Override
+                    public void onTotal(Integer total) {
+                        if (total == null) {
+                            callback.onError("Event not found", false);
+                            return;
+                        }
+                        if (total < capacity) {
+                            promoteWaitlist(eventId, capacity);
+                        }
+                        callback.onSuccess(RsvpStatus.WAITLISTED, total);
+                    }
 
-    public void checkRSVPStatus(String eventId, RSVPCallback callback) {
-        if (currentUserId == null) { // Checks if the current user has RSVP'd for an event (without toggling)
-            callback.onError("User not authenticated");
-            return;
-        }
+                    @Override
+                    public void onError(DatabaseError error) {
+                        callback.onError("Database error: " + error.getMessage(), isRetryable(error));
+                    }
+                });
+            }
 
-        eventsRef.child(eventId).addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
-            public void onDataChange(DataSnapshot snapshot) {
-                if (snapshot.exists()) {
-                    Event event = snapshot.getValue(Event.class);
-                    if (event != null) {
-                        boolean hasRsvpd = event.hasUserRsvpd(currentUserId);
-                        callback.onSuccess(hasRsvpd, event.getAttendeeCount());
-                    } else {
-                        callback.onError("Event data not found");
+            public void onError(DatabaseError error) {
+                callback.onError("Failed to join the waitlist: " + error.getMessage(), isRetryable(error));
+            }
+        });
+    }
+
+    /**
+     * Admits waiting users, earliest first, while seats are free. Any client may run it
+     * (whoever frees a seat or joins the waitlist while one is free); each user is claimed by
+     * exactly one client, and a claimed user who finds no seat keeps their place.
+     */
+    void promoteWaitlist(String eventId, int capacity) {
+        waitlist.readHead(eventId, new EventWaitlist.HeadCallback() {
+            @Override
+            public void onHead(String userId) {
+                waitlist.claim(eventId, userId, new EventWaitlist.ClaimCallback() {
+                    @Override
+                    public void onClaimed(String claim) {
+                        promote(eventId, userId, capacity, claim);
+                    }
+
+                    @Override
+                    public void onGone() {
+                        promoteWaitlist(eventId, capacity); // Someone else took this one; look at the next
+                    }
+
+                    @Override
+                    public void onError(DatabaseError error) {
+                        // Left for the next leave or join to retry
                     }
+                });
+            }
+
+            @Override
+            public void onEmpty() {
+            }
+
+            @Override
+            public void onError(DatabaseError error) {
+            }
+        });
+    }
+
+    private void promote(String eventId, String userId, int capacity, String claim) {
+        attendeeCounter.reserveSeat(eventId, userId, new AttendeeCounter.SeatCallback() {
+            @Override
+            public void onSeated(int newTotal, boolean newSeat) {
+                admit(eventId, userId, newTotal, newSeat, new AdmitCallback() {
+                    @Override
+                    public void onAdmitted(int total) {
+                        finishPromotion(eventId, userId, capacity, claim, true, total);
+                    }
+
+                    @Override
+                    public void onAlreadyGoing(int total) {
+                        finishPromotion(eventId, userId, capacity, claim, false, total);
+                    }
+
+                    @Override
+                    public void onError(String error, boolean retryable) {
+                        waitlist.restore(eventId, userId, claim); // The next promoter reuses a kept seat
+                    }
+                });
+            }
+
+            @Override
+            public void onFull() {
+                waitlist.restore(eventId, userId, claim);
+            }
+
+            @Override
+            public void onEventMissing() {
+                // Nothing to wait for any more
+            }
+
+            @Override
+            public void onError(DatabaseError error) {
+                waitlist.restore(eventId, userId, claim);
+            }
+        });
+    }
+
+    /**
+     * Removes the promoted user's waitlist entry. If the user left the waitlist while we admitted
+     * them, they asked not to attend: the admission is undone (which frees the seat for the next user).
+     */
+    private void finishPromotion(String eventId, String userId, int capacity, String claim,
+                                 boolean admitted, int total) {
+        waitlist.finish(eventId, userId, claim, new EventWaitlist.FinishCallback() {
+            @Override
+            public void onFinished() {
+                if (total < capacity) {
+                    promoteWaitlist(eventId, capacity); // More seats may be free
+                }
+            }
+
+            @Override
+            public void onLeft() {
+                if (admitted) {
+                    leaveSeat(eventId, userId, capacity, new WriteCallback() {
+                        @Override
+                        public void onSuccess(RsvpStatus status, int newAttendeeCount) {
+                        }
+
+                        @Override
+                        public void onError(String error, boolean retryable) {
+                            // Best effort: the user then shows as going and can un-RSVP again
+                        }
+                    });
+                }
+            }
+
+            @Override
+            public void onError(DatabaseError error) {
+                // The claim times out and the next promoter finishes it (admit finds the user going)
+            }
+        });
+    }
+
+    private void reportCurrentCount(String eventId, RsvpStatus status, WriteCallback callback) {
+        attendeeCounter.readTotal(eventId, new AttendeeCounter.TotalCallback() {
+            @Override
+            public void onTotal(Integer total) {
+                if (total == null) {
+                    callback.onError("Event not found", false);
                 } else {
-                    callback.onError("Event not found");
+                    callback.onSuccess(status, total);
                 }
             }
 
             @Override
-            public void onCancelled(DatabaseError error) {
-                callback.onError("Database error: " + error.getMessage());
+            public void onError(DatabaseError error) {
+                callback.onError("Database error: " + error.getMessage(), isRetryable(error));
             }
         });
     }
+
+    /**
+     * Errors worth retrying later; everything else (e.g. PERMISSION_DENIED) is final.
+     */
+    static boolean isRetryable(DatabaseError error) {
+        switch (error.getCode()) {
+            case DatabaseError.DISCONNECTED:
+            case DatabaseError.NETWORK_ERROR:
+            case DatabaseError.UNAVAILABLE:
+            case DatabaseError.MAX_RETRIES:
+            case DatabaseError.OVERRIDDEN_BY_SET:
+            case DatabaseError.WRITE_CANCELED:
+            case DatabaseError.EXPIRED_TOKEN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Live RSVP state of the current user: the "events/{id}/rsvpList/{userId}" entry.
+     * Only that one leaf is synced, not the event or the rest of its rsvpList.
+     * The listener is attached only while an observer is started (see FirebaseQueryLiveData).
+     *
+     * @return A LiveData that never emits if nobody is signed in.
+     */
+    public LiveData<Boolean> userRsvp(String eventId) {
+        if (currentUserId == null) return new MutableLiveData<>();
+        return new FirebaseQueryLiveData<>(userRsvpRef(eventId),
+                snapshot -> Boolean.TRUE.equals(snapshot.getValue()));
+    }
+
+    /**
+     * Live waitlist state of the current user for an event (only relevant for events with a capacity).
+     *
+     * @return A LiveData that never emits if nobody is signed in.
+     */
+    public LiveData<Boolean> userWaitlist(String eventId) {
+        if (currentUserId == null) return new MutableLiveData<>();
+        return waitlist.watch(eventId, currentUserId);
+    }
+
+    private DatabaseReference userRsvpRef(String eventId) {
+        return eventsRef.child(eventId).child("rsvpList").child(currentUserId);
+    }
 }
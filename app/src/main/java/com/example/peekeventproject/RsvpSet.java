@@ -0,0 +1,173 @@
+package com.example.peekeventproject;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact set of the user IDs attending an event (present = attending).
+ * Replaces the HashMap<String, Boolean> Event used to hold, which cost a map entry object
+ * per user and kept "false" entries around after un-RSVPs.
+ * - User IDs live in one sorted String[]; lookups are a binary search.
+ * - Nothing but the array (and the strings) is allocated per entry.
+ * - Firebase's wire format ("rsvpList": {userId: true}) is produced by toMap().
+ *
+ * Not thread-safe, like the rest of Event. EventSnapshot shares a set only while nobody changes
+ * it: its Builder copies the set before the first change.
+ */
+public final class RsvpSet implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final String[] NO_IDS = new String[0];
+
+    private transient String[] userIds; // Sorted; slots from size onwards are unused
+    private transient int size;
+
+    public RsvpSet() {
+        userIds = NO_IDS;
+    }
+
+    private RsvpSet(String[] sortedIds, int size) {
+        this.userIds = sortedIds;
+        this.size = size;
+    }
+
+    /**
+     * Builds a set from IDs in any order (e.g. the children of a snapshot) with one sort,
+     * instead of one insertion per ID.
+     * @param ids Array holding the IDs in its first count slots; it is taken over, not copied.
+     */
+    static RsvpSet fromUnsorted(String[] ids, int count) {
+        Arrays.sort(ids, 0, count);
+
+        // Drop duplicates in place
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || !ids[i].equals(ids[unique - 1])) {
+                ids[unique++] = ids[i];
+            }
+        }
+        Arrays.fill(ids, unique, count, null);
+        return new RsvpSet(ids, unique);
+    }
+
+    /**
+     * Builds a set from the wire format, keeping only users mapped to true.
+     */
+    public static RsvpSet fromMap(Map<String, Boolean> rsvpList) {
+        String[] ids = new String[rsvpList.size()];
+        int count = 0;
+        for (Map.Entry<String, Boolean> entry : rsvpList.entrySet()) {
+            if (Boolean.TRUE.equals(entry.getValue()) && entry.getKey() != null) {
+                ids[count++] = entry.getKey();
+            }
+        }
+        return fromUnsorted(ids, count);
+    }
+
+    /**
+     * @return an independent set with the same users (for copy-on-write, see EventSnapshot.Builder)
+     */
+    RsvpSet copy() {
+        return new RsvpSet(Arrays.copyOf(userIds, size), size);
+    }
+
+    public boolean contains(String userId) {
+        return userId != null && indexOf(userId) >= 0;
+    }
+
+    /**
+     * @return true if the user was not in the set yet
+     */
+    public boolean add(String userId) {
+        int index = indexOf(userId);
+        if (index >= 0) return false;
+
+        int insertAt = -(index + 1);
+        if (size == userIds.length) {
+            userIds = Arrays.copyOf(userIds, Math.max(4, size + (size >> 1)));
+        }
+        System.arraycopy(userIds, insertAt, userIds, insertAt + 1, size - insertAt);
+        userIds[insertAt] = userId;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return true if the user was in the set
+     */
+    public boolean remove(String userId) {
+        int index = indexOf(userId);
+        if (index < 0) return false;
+
+        System.arraycopy(userIds, index + 1, userIds, index, size - index - 1);
+        userIds[--size] = null;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Wire format for "events/{id}/rsvpList": every attending user mapped to true.
+     */
+    public Map<String, Boolean> toMap() {
+        Map<String, Boolean> map = new HashMap<>((int) (size / 0.75f) + 1);
+        for (int i = 0; i < size; i++) {
+            map.put(userIds[i], Boolean.TRUE);
+        }
+        return map;
+    }
+
+    private int indexOf(String userId) {
+        return Arrays.binarySearch(userIds, 0, size, userId);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof RsvpSet)) return false;
+        RsvpSet that = (RsvpSet) other;
+        if (size != that.size) return false;
+        for (int i = 0; i < size; i++) {
+            if (!userIds[i].equals(that.userIds[i])) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + userIds[i].hashCode();
+        }
+        return hash;
+    }
+
+    // Only the used part of the array is written when an Event is passed in an Intent
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeUTF(userIds[i]);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        size = in.readInt();
+        userIds = new String[size];
+        for (int i = 0; i < size; i++) {
+            userIds[i] = in.readUTF();
+        }
+    }
+}
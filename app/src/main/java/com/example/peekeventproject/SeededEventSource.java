@@ -0,0 +1,59 @@
+package com.example.peekeventproject;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * SeededEventSource is a deterministic, in-memory stand-in for the "events" node.
+ * It is only used when BuildConfig.USE_SEEDED_EVENTS is true (the "benchmark" build type),
+ * so macrobenchmarks measure the same feed on every run without touching the network.
+ */
+final class SeededEventSource {
+
+    static final int EVENT_COUNT = 200; // Enough cards to fling through several screens
+
+    private static final String[] CATEGORIES = {"Music", "Art", "Technology", "Food", "Sports"};
+    private static final String[] LOCATIONS = {
+            "KICC, Nairobi", "Sarit Centre, Westlands", "Nyali Beach, Mombasa",
+            "Kisumu Impala Park", "Nakuru Athletic Club", "The Alchemist, Westlands"
+    };
+    private static final String[] ZONES = {"Stage A", "Main Gate", "Parking Lot", "Food Court"};
+    private static final String[] TIMES = {"09:00 AM - 12:00 PM", "02:00 PM - 05:00 PM", "07:00 PM - 11:00 PM"};
+
+    private SeededEventSource() {
+    }
+
+    /**
+     * Builds the seeded event list. Dates start today so nothing is filtered out as past.
+     * A fresh list is returned on every call because callers keep and mutate their own copies.
+     */
+    static List<Event> events() {
+        LocalDate day = LocalDate.now();
+        List<Event> events = new ArrayList<>(EVENT_COUNT);
+
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            String category = CATEGORIES[i % CATEGORIES.length];
+            Event event = new Event(
+                    "seed-" + i,
+                    category + " Night #" + i,
+                    category,
+                    "Seeded " + category.toLowerCase(Locale.US) + " event used for benchmarking.",
+                    EventTimeCodec.formatDate(day),
+                    TIMES[i % TIMES.length],
+                    LOCATIONS[i % LOCATIONS.length],
+                    ZONES[i % ZONES.length],
+                    (i * 7) % 150);
+            event.setCreatorId("seed-user");
+            EventTimeCodec.applyTo(event);
+            events.add(event);
+
+            // Spread events over the coming weeks, three per day
+            if (i % 3 == 2) {
+                day = day.plusDays(1);
+            }
+        }
+        return events;
+    }
+}
@@ -90,6 +90,10 @@ public class SignIn extends AppCompatActivity {
                     if (task.isSuccessful()) {
                         FirebaseUser user = mAuth.getCurrentUser();
                         Toast.makeText(com.example.peekeventproject.SignIn.this, "Login successful!", Toast.LENGTH_SHORT).show();
+                        StartupPrefetcher.getInstance().prefetchFeed(com.example.peekeventproject.SignIn.this); // Load the feed while MainActivity starts
+                        if (user != null) {
+                            StartupPrefetcher.getInstance().prefetchProfile(user.getUid());
+                        }
                         startActivity(new Intent(com.example.peekeventproject.SignIn.this, MainActivity.class));
                         finish();
                     } else {
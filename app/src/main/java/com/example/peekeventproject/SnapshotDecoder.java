@@ -0,0 +1,75 @@
+package com.example.peekeventproject;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the CPU work on a downloaded snapshot (mapping children, dropping ended events, sorting)
+ * off the main thread, and hands the finished result back on the main thread.
+ * Firebase delivers onDataChange on the main thread and a DataSnapshot is immutable, so a
+ * listener just passes its snapshot here instead of walking a large feed while the UI waits.
+ * - At most THREADS decodes run at once, at background priority; later ones queue in order.
+ * - Results should be immutable (or at least no longer touched by the work) once returned.
+ * - Threads exit after KEEP_ALIVE_SECONDS idle, so nothing stays alive between syncs.
+ * - If the work throws (e.g. a malformed record), the failure is posted instead of the result,
+ *   so callers always hear back and can report the error.
+ */
+final class SnapshotDecoder {
+
+    interface Work<T> {
+        T run();                  // Called on a decode thread
+    }
+
+    interface Result<T> {
+        void onDecoded(T result); // Called on the main thread
+    }
+
+    interface Failure {
+        void onFailed(String error); // Called on the main thread
+    }
+
+    // Leaves a core for the UI thread; two is plenty for a few large reads at a time
+    private static final int THREADS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final ExecutorService executor = createExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private SnapshotDecoder() {
+    }
+
+    private static ExecutorService createExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(THREADS, THREADS,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> new Thread(() -> {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }, "snapshot-decode-" + count.incrementAndGet()));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Runs work on a decode thread and posts its result, or why it failed, to the main thread.
+     */
+    static <T> void decode(Work<T> work, Result<T> result, Failure failure) {
+        executor.execute(() -> {
+            T value;
+            try {
+                value = work.run();
+            } catch (Throwable t) {
+                mainHandler.post(() -> failure.onFailed("Failed to read events: " + t));
+                return;
+            }
+            mainHandler.post(() -> result.onDecoded(value));
+        });
+    }
+}
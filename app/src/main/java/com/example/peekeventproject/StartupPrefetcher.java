@@ -0,0 +1,227 @@
+package com.example.peekeventproject;
+
+import android.content.Context;
+import android.os.SystemClock;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.List;
+
+/**
+ * StartupPrefetcher starts the first reads before any screen asks for them
+ * and hands each result to whoever asks first:
+ *   - the upcoming-events feed (MainActivity), synced through EventSyncer
+ *   - the signed-in user's "Users/{uid}" profile (ProfileActivity)
+ * PeekEventApplication starts both as soon as the process starts, so network time overlaps
+ * with activity creation and layout inflation instead of following it.
+ * A prefetch nobody consumed within MAX_AGE_MILLIS is dropped (the screen loads fresh data and
+ * a new prefetch may start), and clear() drops everything on sign-out.
+ *
+ * All methods are called on the main thread (Firebase delivers callbacks there too).
+ */
+final class StartupPrefetcher {
+
+    /**
+     * Receives a prefetched profile snapshot.
+     */
+    interface ProfileCallback {
+        void onProfileLoaded(DataSnapshot snapshot);
+        void onError(String error);
+    }
+
+    // Covers a slow cold start; anything older is not worth showing instead of a fresh read
+    private static final long MAX_AGE_MILLIS = 60_000;
+
+    private static StartupPrefetcher instance;
+
+    private final Slot<List<EventSummary>> feed = new Slot<>();
+    private final Slot<DataSnapshot> profile = new Slot<>();
+    private String profileUid; // Whose profile is in the profile slot
+
+    private StartupPrefetcher() {
+    }
+
+    static synchronized StartupPrefetcher getInstance() {
+        if (instance == null) {
+            instance = new StartupPrefetcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Drops every prefetched or pending result (e.g. on sign-out); late results are ignored.
+     */
+    void clear() {
+        feed.reset();
+        profile.reset();
+        profileUid = null;
+    }
+
+    /**
+     * Starts syncing the feed summaries unless a prefetch is already pending.
+     */
+    void prefetchFeed(Context context) {
+        int started = feed.start();
+        if (started == Slot.NOT_STARTED) return;
+
+        EventSyncer.getInstance(context).sync(new EventLoader.SummaryLoadCallback() {
+            @Override
+            public void onSummariesLoaded(List<EventSummary> summaries) {
+                feed.complete(started, summaries, null);
+            }
+
+            @Override
+            public void onError(String error) {
+                feed.complete(started, null, error);
+            }
+        });
+    }
+
+    /**
+     * Hands the prefetched feed to the caller, now or as soon as it arrives.
+     * The result is given out once; later screens load fresh data.
+     *
+     * @return false if no prefetch was started, in which case the caller should load normally
+     */
+    boolean consumeFeed(EventLoader.SummaryLoadCallback callback) {
+        return feed.consume(new Slot.Receiver<List<EventSummary>>() {
+            @Override
+            public void onResult(List<EventSummary> result) {
+                callback.onSummariesLoaded(result);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Starts reading "Users/{uid}" unless a prefetch is already pending.
+     */
+    void prefetchProfile(String uid) {
+        int started = profile.start();
+        if (started == Slot.NOT_STARTED) return;
+        profileUid = uid;
+
+        FirebaseDatabase.getInstance().getReference("Users").child(uid)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(DataSnapshot snapshot) {
+                        profile.complete(started, snapshot, null);
+                    }
+
+                    @Override
+                    public void onCancelled(DatabaseError error) {
+                        profile.complete(started, null, error.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Hands the prefetched profile of uid to the caller, once.
+     *
+     * @return false if no prefetch for this user was started; the caller should read it itself
+     */
+    boolean consumeProfile(String uid, ProfileCallback callback) {
+        if (!uid.equals(profileUid)) return false;
+
+        return profile.consume(new Slot.Receiver<DataSnapshot>() {
+            @Override
+            public void onResult(DataSnapshot result) {
+                callback.onProfileLoaded(result);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+
+    /**
+     * One prefetched value: started once, delivered once to the first consumer, then reset.
+     * A prefetch older than MAX_AGE_MILLIS that nobody is waiting for counts as not started.
+     */
+    private static final class Slot<T> {
+
+        interface Receiver<T> {
+            void onResult(T result);
+            void onError(String error);
+        }
+
+        static final int NOT_STARTED = -1;
+
+        private boolean requested = false; // A prefetch is running or finished
+        private boolean completed = false;
+        private long startedAt;            // SystemClock.elapsedRealtime() of the running prefetch
+        private int generation = 0;        // Bumped on every reset, so late results can be ignored
+        private T result;
+        private String error;
+        private Receiver<T> receiver;      // Consumer that asked before the result arrived
+
+        /** @return the generation to complete with, or NOT_STARTED if a prefetch is already pending */
+        int start() {
+            if (requested && !isExpired()) return NOT_STARTED;
+            reset();
+            requested = true;
+            startedAt = SystemClock.elapsedRealtime();
+            return generation;
+        }
+
+        void complete(int started, T value, String errorMessage) {
+            if (started != generation) return; // Reset since; nobody wants this result
+            completed = true;
+            result = value;
+            error = errorMessage;
+            deliver();
+        }
+
+        boolean consume(Receiver<T> consumer) {
+            if (!requested) return false;
+            if (isExpired()) {
+                reset();
+                return false;
+            }
+
+            receiver = consumer;
+            if (completed) {
+                deliver();
+            }
+            return true;
+        }
+
+        private void deliver() {
+            if (receiver == null) return; // Nobody asked yet; keep the result
+
+            Receiver<T> consumer = receiver;
+            T value = result;
+            String errorMessage = error;
+
+            reset(); // So the next screen triggers a fresh load
+
+            if (errorMessage == null) {
+                consumer.onResult(value);
+            } else {
+                consumer.onError(errorMessage);
+            }
+        }
+
+        private boolean isExpired() {
+            return receiver == null && SystemClock.elapsedRealtime() - startedAt > MAX_AGE_MILLIS;
+        }
+
+        void reset() {
+            generation++;
+            requested = false;
+            completed = false;
+            result = null;
+            error = null;
+            receiver = null;
+        }
+    }
+}
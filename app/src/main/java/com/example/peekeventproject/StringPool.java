@@ -0,0 +1,46 @@
+package com.example.peekeventproject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Canonical instances of the short, often repeated strings of decoded events (zone, location,
+ * creatorId, date, time and unknown categories), so a large feed holds each distinct value once
+ * instead of one copy per event per refresh.
+ * - Applied where events are decoded: EventMapper, LocalEventStore and BundledEvents.
+ * - Bounded LRU (MAX_ENTRIES): values that stop appearing are dropped, and a value evicted while
+ *   events still hold it just costs a second copy, never a wrong result.
+ * - Unlike String.intern(), entries are ordinary heap objects that can be collected.
+ *
+ * Thread-safe (decoding runs on SnapshotDecoder and disk threads).
+ */
+final class StringPool {
+
+    // Far more than the distinct values of these fields in a city's feed; ~100 B per entry
+    static final int MAX_ENTRIES = 4096;
+    private static final int MAX_LENGTH = 64; // Longer strings are unlikely to repeat
+
+    private static final Map<String, String> pool = new LinkedHashMap<String, String>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private StringPool() {
+    }
+
+    /**
+     * @return the pooled instance equal to value (value itself the first time), or value if it
+     *         is null or too long to be worth pooling
+     */
+    static String canonical(String value) {
+        if (value == null || value.length() > MAX_LENGTH) return value;
+        synchronized (pool) {
+            String pooled = pool.get(value);
+            if (pooled != null) return pooled;
+            pool.put(value, value);
+            return value;
+        }
+    }
+}
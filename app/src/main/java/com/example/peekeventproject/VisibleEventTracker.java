@@ -0,0 +1,98 @@
+package com.example.peekeventproject;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Keeps AttendeeCountSubscriptions in step with the cards currently on screen.
+ * As the RecyclerView scrolls, events that come into view are subscribed and events
+ * that leave are unsubscribed, so live counts only cost bandwidth for visible cards.
+ * Observe it from the screen's lifecycle: tracking runs only while the screen is started.
+ */
+final class VisibleEventTracker extends RecyclerView.OnScrollListener implements DefaultLifecycleObserver {
+
+    /**
+     * Maps an adapter position to the event shown there (null for non-event rows).
+     */
+    interface EventIdSource {
+        String eventIdAt(int position);
+    }
+
+    private final RecyclerView recyclerView;
+    private final LinearLayoutManager layoutManager;
+    private final EventIdSource source;
+    private final AttendeeCountSubscriptions.CountListener listener;
+    private final Set<String> visibleIds = new HashSet<>();
+    private boolean started = false;
+
+    VisibleEventTracker(RecyclerView recyclerView, LinearLayoutManager layoutManager,
+                        EventIdSource source, AttendeeCountSubscriptions.CountListener listener) {
+        this.recyclerView = recyclerView;
+        this.layoutManager = layoutManager;
+        this.source = source;
+        this.listener = listener;
+        recyclerView.addOnScrollListener(this);
+    }
+
+    /**
+     * Starts tracking.
+     */
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        started = true;
+        refresh();
+    }
+
+    /**
+     * Drops every subscription; no live counts while the feed is not visible.
+     */
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        started = false;
+        AttendeeCountSubscriptions.getInstance().unsubscribeAll(listener);
+        visibleIds.clear();
+    }
+
+    /**
+     * Re-evaluates the visible range once the list has been laid out (call after data changes).
+     */
+    void refreshAfterLayout() {
+        recyclerView.post(this::refresh);
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+        refresh();
+    }
+
+    private void refresh() {
+        if (!started) return;
+
+        Set<String> nowVisible = new HashSet<>();
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first != RecyclerView.NO_POSITION) {
+            for (int position = first; position <= last; position++) {
+                String eventId = source.eventIdAt(position);
+                if (eventId != null) nowVisible.add(eventId);
+            }
+        }
+
+        AttendeeCountSubscriptions subscriptions = AttendeeCountSubscriptions.getInstance();
+        for (String eventId : visibleIds) {
+            if (!nowVisible.contains(eventId)) subscriptions.unsubscribe(eventId, listener);
+        }
+        for (String eventId : nowVisible) {
+            if (!visibleIds.contains(eventId)) subscriptions.subscribe(eventId, listener);
+        }
+
+        visibleIds.clear();
+        visibleIds.addAll(nowVisible);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.peekeventproject;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * How the seats of an event with a capacity are split over the count shards.
+ */
+public class AttendeeCounterTest {
+
+    @Test
+    public void seatSharesAddUpToCapacity() {
+        int[] capacities = {1, 2, 9, 10, 11, 57, 100, 1_003};
+        for (int capacity : capacities) {
+            int shards = AttendeeCounter.seatShardCount(capacity);
+            assertTrue(shards >= 1 && shards <= AttendeeCounter.SHARD_COUNT);
+
+            int sum = 0;
+            for (int shard = 0; shard < shards; shard++) {
+                int seats = AttendeeCounter.seatsInShard(capacity, shards, shard);
+                assertTrue("Every shard holds a seat", seats >= 1);
+                sum += seats;
+            }
+            assertEquals(capacity, sum);
+        }
+    }
+
+    @Test
+    public void seatSharesDifferByAtMostOne() {
+        int shards = AttendeeCounter.seatShardCount(57);
+        assertEquals(6, AttendeeCounter.seatsInShard(57, shards, 0));
+        assertEquals(5, AttendeeCounter.seatsInShard(57, shards, shards - 1));
+    }
+
+    @Test
+    public void totalNeverNegative() {
+        assertEquals(0, AttendeeCounter.total(0, -2));
+        assertEquals(7, AttendeeCounter.total(5, 2));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.peekeventproject;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Deriving events from immutable snapshots without changing the ones already handed out.
+ */
+public class EventSnapshotTest {
+
+    @Test
+    public void buildUponSharesUnchangedFields() {
+        EventSnapshot original = event().build();
+        EventSnapshot renamed = original.buildUpon().title("Jazz brunch").build();
+
+        assertEquals("Jazz night", original.getTitle());
+        assertEquals("Jazz brunch", renamed.getTitle());
+        assertSame(original.getLocation(), renamed.getLocation());
+        assertTrue(renamed.hasUserRsvpd("u1"));
+    }
+
+    @Test
+    public void rsvpChangesCopyTheSetFirst() {
+        EventSnapshot original = event().build();
+        EventSnapshot.Builder builder = original.buildUpon().addRsvp("u2");
+        EventSnapshot first = builder.build();
+        EventSnapshot second = builder.removeRsvp("u1").build();
+
+        assertEquals(1, original.getRsvpCount());
+        assertFalse(original.hasUserRsvpd("u2"));
+        assertEquals(2, first.getRsvpCount());
+        assertEquals(3, first.getAttendeeCount());
+        assertTrue(first.hasUserRsvpd("u1"));
+        assertEquals(1, second.getRsvpCount());
+        assertEquals(2, second.getAttendeeCount());
+    }
+
+    @Test
+    public void draftsNeverChangeASnapshot() {
+        EventSnapshot original = event().build();
+        Event draft = original.toEvent();
+        draft.addRsvp("u2");
+        draft.setTitle("Changed");
+
+        assertEquals("Jazz night", original.getTitle());
+        assertFalse(original.hasUserRsvpd("u2"));
+
+        // A decoded set handed to a draft is copied before the same builder builds a snapshot
+        EventSnapshot.Builder builder = event();
+        Event decoded = builder.toEvent();
+        EventSnapshot built = builder.build();
+        decoded.removeRsvp("u1");
+        assertTrue(built.hasUserRsvpd("u1"));
+    }
+
+    private static EventSnapshot.Builder event() {
+        RsvpSet rsvps = new RsvpSet();
+        rsvps.add("u1");
+        return new EventSnapshot.Builder()
+                .eventId("e1")
+                .title("Jazz night")
+                .category("Music")
+                .date("12/05/2026")
+                .time("06:00 PM - 09:00 PM")
+                .location("Nairobi")
+                .zone("A")
+                .attendeeCount(2)
+                .parseTimes()
+                .rsvps(rsvps);
+    }
+}
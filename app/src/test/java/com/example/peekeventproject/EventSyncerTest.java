@@ -0,0 +1,76 @@
+package com.example.peekeventproject;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Merging a delta sync into the local summaries.
+ */
+public class EventSyncerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 5);
+    private static final long START_OF_TODAY = EventTimeCodec.startOfDayMillis(TODAY);
+
+    @Test
+    public void upsertsReplaceAndAddInKeyOrder() {
+        Map<String, EventSummary> local = local(summary("b", "Old", TODAY), summary("c", "Quiz", TODAY));
+
+        List<EventSummary> feed = EventSyncer.merge(local,
+                Arrays.asList(summary("b", "New", TODAY), summary("a", "Jazz", TODAY)),
+                Collections.emptyList(), START_OF_TODAY);
+
+        assertEquals(Arrays.asList("a", "b", "c"), ids(feed));
+        assertEquals("New", local.get("b").getTitle());
+    }
+
+    @Test
+    public void tombstoneWinsOverUpsertOfSameSync() {
+        Map<String, EventSummary> local = local(summary("a", "Jazz", TODAY), summary("b", "Quiz", TODAY));
+
+        // Edited, then deleted, between two syncs
+        List<EventSummary> feed = EventSyncer.merge(local,
+                Collections.singletonList(summary("a", "Late jazz", TODAY)),
+                Arrays.asList("a", "unknown"), START_OF_TODAY);
+
+        assertEquals(Collections.singletonList("b"), ids(feed));
+        assertEquals(1, local.size());
+    }
+
+    @Test
+    public void endedEventsAreDroppedLocally() {
+        Map<String, EventSummary> local = local(summary("past", "Old fair", TODAY.minusDays(1)),
+                summary("today", "Jazz", TODAY));
+
+        List<EventSummary> feed = EventSyncer.merge(local, Collections.emptyList(),
+                Collections.emptyList(), START_OF_TODAY);
+
+        assertEquals(Collections.singletonList("today"), ids(feed));
+        assertEquals(1, local.size());
+    }
+
+    private static Map<String, EventSummary> local(EventSummary... summaries) {
+        Map<String, EventSummary> local = new TreeMap<>();
+        for (EventSummary summary : summaries) local.put(summary.getEventId(), summary);
+        return local;
+    }
+
+    private static EventSummary summary(String id, String title, LocalDate day) {
+        long start = EventTimeCodec.startOfDayMillis(day) + 60 * 60 * 1000; // 1 AM
+        return new EventSummary(id, title, "Music", null, null, null, null, null, 0, 0, start, start, null, null, null);
+    }
+
+    private static List<String> ids(List<EventSummary> events) {
+        List<String> ids = new ArrayList<>();
+        for (EventSummary event : events) ids.add(event.getEventId());
+        return ids;
+    }
+}
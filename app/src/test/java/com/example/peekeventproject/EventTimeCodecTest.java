@@ -0,0 +1,69 @@
+package com.example.peekeventproject;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Parsing of the date/time strings stored on events, in a fixed zone.
+ */
+public class EventTimeCodecTest {
+
+    private static final ZoneId ZONE = ZoneOffset.ofHours(12);
+
+    @Test
+    public void formatsPickedValuesInStoredFormat() {
+        assertEquals("05/03/2026", EventTimeCodec.formatDate(2026, 3, 5));
+        assertEquals("09:05 PM", EventTimeCodec.formatTime(21, 5));
+        assertEquals("09:05 AM - 09:05 PM",
+                EventTimeCodec.formatTimeRange(EventTimeCodec.formatTime(9, 5), EventTimeCodec.formatTime(21, 5)));
+    }
+
+    @Test
+    public void parsesPaddedAndUnpaddedDates() {
+        assertEquals(LocalDate.of(2026, 3, 5), EventTimeCodec.parseDate("05/03/2026"));
+        assertEquals(LocalDate.of(2026, 3, 5), EventTimeCodec.parseDate("5/3/2026"));
+        assertNull(EventTimeCodec.parseDate("31/02/2026"));
+        assertNull(EventTimeCodec.parseDate("next friday"));
+        assertNull(EventTimeCodec.parseDate(null));
+    }
+
+    @Test
+    public void parsesTimeRange() {
+        assertEquals(millis(2026, 3, 5, 9, 30),
+                EventTimeCodec.startMillis("05/03/2026", "09:30 AM - 11:00 pm", ZONE));
+        assertEquals(millis(2026, 3, 5, 23, 0),
+                EventTimeCodec.endMillis("05/03/2026", "9:30 am - 11:00 PM", ZONE));
+    }
+
+    @Test
+    public void overnightRangeEndsNextDay() {
+        assertEquals(millis(2026, 3, 6, 2, 0),
+                EventTimeCodec.endMillis("05/03/2026", "10:00 PM - 02:00 AM", ZONE));
+    }
+
+    @Test
+    public void missingTimeCoversWholeDay() {
+        assertEquals(millis(2026, 3, 5, 0, 0), EventTimeCodec.startMillis("05/03/2026", null, ZONE));
+        assertEquals(millis(2026, 3, 6, 0, 0) - 1, EventTimeCodec.endMillis("05/03/2026", "", ZONE));
+    }
+
+    @Test
+    public void invalidDateIsUnknownAndKept() {
+        assertEquals(EventTimeCodec.UNKNOWN, EventTimeCodec.endMillis("TBC", "09:00 AM - 10:00 AM", ZONE));
+        assertTrue(EventTimeCodec.isFutureOrToday(EventTimeCodec.UNKNOWN, millis(2026, 3, 5, 0, 0)));
+        assertFalse(EventTimeCodec.isFutureOrToday(millis(2026, 3, 4, 23, 0), millis(2026, 3, 5, 0, 0)));
+    }
+
+    private static long millis(int year, int month, int day, int hour, int minute) {
+        return ZonedDateTime.of(year, month, day, hour, minute, 0, 0, ZONE).toInstant().toEpochMilli();
+    }
+}
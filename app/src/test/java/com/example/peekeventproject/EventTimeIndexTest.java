@@ -0,0 +1,89 @@
+package com.example.peekeventproject;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Ordering, incremental updates and section boundaries of the feed index.
+ */
+public class EventTimeIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 5);
+
+    @Test
+    public void setAllSortsByStartWithUnknownLast() {
+        EventTimeIndex index = new EventTimeIndex();
+        index.setAll(Arrays.asList(
+                summary("tbc", EventTimeCodec.UNKNOWN),
+                summary("later", at(TODAY.plusDays(10))),
+                summary("today", at(TODAY))));
+
+        assertEquals(Arrays.asList("today", "later", "tbc"), ids(index.events()));
+    }
+
+    @Test
+    public void setAllKeepsTheLastCopyOfARepeatedId() {
+        EventTimeIndex index = new EventTimeIndex();
+        index.setAll(Arrays.asList(
+                summary("a", at(TODAY)),
+                summary("b", at(TODAY.plusDays(1))),
+                summary("a", at(TODAY.plusDays(2)))));
+
+        assertEquals(Arrays.asList("b", "a"), ids(index.events()));
+        assertEquals(at(TODAY.plusDays(2)), index.get("a").getStartEpochMillis());
+    }
+
+    @Test
+    public void upsertKeepsOrderWithoutResorting() {
+        EventTimeIndex index = new EventTimeIndex();
+        index.setAll(Arrays.asList(summary("a", at(TODAY)), summary("c", at(TODAY.plusDays(2)))));
+
+        assertEquals(1, index.upsert(summary("b", at(TODAY.plusDays(1)))));
+        assertEquals(Arrays.asList("a", "b", "c"), ids(index.events()));
+
+        // Moving an event's time moves it to its new slot
+        assertEquals(2, index.upsert(summary("a", at(TODAY.plusDays(3)))));
+        assertEquals(Arrays.asList("b", "c", "a"), ids(index.events()));
+
+        assertEquals(0, index.remove("b"));
+        assertEquals(-1, index.remove("b"));
+        assertEquals(Arrays.asList("c", "a"), ids(index.events()));
+    }
+
+    @Test
+    public void sectionsAndJumpToDate() {
+        EventTimeIndex index = new EventTimeIndex();
+        index.setAll(Arrays.asList(
+                summary("today", at(TODAY)),
+                summary("tomorrow", at(TODAY.plusDays(1))),
+                summary("in6days", at(TODAY.plusDays(6))),
+                summary("nextWeek", at(TODAY.plusDays(7))),
+                summary("tbc", EventTimeCodec.UNKNOWN)));
+        List<EventSummary> events = index.events();
+
+        assertArrayEquals(new int[]{0, 1, 3, 4}, EventTimeIndex.sectionStarts(events, TODAY));
+        assertEquals(2, EventTimeIndex.firstStartingAtOrAfter(events, at(TODAY.plusDays(2))));
+        assertEquals(4, EventTimeIndex.firstStartingAtOrAfter(events, at(TODAY.plusDays(30))));
+    }
+
+    private static long at(LocalDate day) {
+        return EventTimeCodec.startOfDayMillis(day) + 60 * 60 * 1000; // 1 AM
+    }
+
+    private static EventSummary summary(String id, long start) {
+        return new EventSummary(id, id, "Music", null, null, null, null, null, 0, 0, start, start, null, null, null);
+    }
+
+    private static List<String> ids(List<EventSummary> events) {
+        List<String> ids = new ArrayList<>();
+        for (EventSummary event : events) ids.add(event.getEventId());
+        return ids;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.peekeventproject;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reading waitlist entries, and which ones a promotion may claim.
+ */
+public class EventWaitlistTest {
+
+    @Test
+    public void olderEntriesAreBareTimestamps() {
+        assertEquals(1000L, EventWaitlist.joinedAt(1000L));
+        assertNull(EventWaitlist.claimedBy(1000L));
+        assertTrue(EventWaitlist.isClaimable(1000L, 5000L));
+        assertEquals(1000L, EventWaitlist.joinedAt(entry(null, 0)));
+    }
+
+    @Test
+    public void liveClaimsBlockOtherPromotersUntilTheyTimeOut() {
+        Map<String, Object> claimed = entry("c1", 10_000L);
+
+        assertEquals("c1", EventWaitlist.claimedBy(claimed));
+        assertFalse(EventWaitlist.isClaimable(claimed, 10_000L + EventWaitlist.CLAIM_TIMEOUT_MILLIS));
+        assertTrue(EventWaitlist.isClaimable(claimed, 10_001L + EventWaitlist.CLAIM_TIMEOUT_MILLIS));
+        assertTrue(EventWaitlist.isClaimable(entry(null, 0), 10_000L));
+        assertFalse(EventWaitlist.isClaimable(null, 10_000L)); // The user left
+    }
+
+    private static Map<String, Object> entry(String claimedBy, long claimedAt) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put(EventWaitlist.JOINED_AT, 1000L);
+        if (claimedBy != null) {
+            entry.put(EventWaitlist.CLAIMED_BY, claimedBy);
+            entry.put(EventWaitlist.CLAIMED_AT, claimedAt);
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.peekeventproject;
+
+import com.google.firebase.database.ServerValue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Multi-path updates built by EventWriter, and the index check that mirrors them.
+ */
+public class EventWriterTest {
+
+    @Test
+    public void createWritesEventAndSummary() {
+        Event event = event("e1", "Jazz night");
+        Map<String, Object> paths = EventWriter.createPaths(event);
+
+        assertEquals(2, paths.size());
+        assertEquals(EventWriter.stamped(event.toMap()), paths.get("events/e1"));
+        assertEquals(EventWriter.stamped(EventSummary.from(event).toMap()), paths.get("eventSummaries/e1"));
+        assertTrue(((Map<?, ?>) paths.get("eventSummaries/e1")).containsKey("updatedAt"));
+    }
+
+    @Test
+    public void editMirrorsOnlySummaryFields() {
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("title", "Late jazz");
+        changes.put("description", "Doors at nine");
+        changes.put("latitude", null);
+        Map<String, Object> paths = EventWriter.editPaths("e1", changes);
+
+        assertEquals("Late jazz", paths.get("events/e1/title"));
+        assertEquals("Late jazz", paths.get("eventSummaries/e1/title"));
+        assertEquals("Doors at nine", paths.get("events/e1/description"));
+        assertFalse(paths.containsKey("eventSummaries/e1/description"));
+        assertTrue(paths.containsKey("eventSummaries/e1/latitude")); // Removals are mirrored too
+        assertNull(paths.get("eventSummaries/e1/latitude"));
+        assertEquals(ServerValue.TIMESTAMP, paths.get("events/e1/updatedAt"));
+        assertEquals(ServerValue.TIMESTAMP, paths.get("eventSummaries/e1/updatedAt")); // Picked up by the next sync
+        assertEquals(7, paths.size());
+    }
+
+    @Test
+    public void deleteClearsEveryDerivedNode() {
+        Map<String, Object> paths = EventWriter.deletePaths("e1");
+        assertEquals(4, paths.size());
+        assertTrue(paths.containsKey("events/e1"));
+        assertTrue(paths.containsKey("eventSummaries/e1"));
+        assertTrue(paths.containsKey("eventWaitlists/e1"));
+        assertEquals(ServerValue.TIMESTAMP, paths.get("eventTombstones/e1"));
+    }
+
+    @Test
+    public void consistentIndexesNeedNoRepair() {
+        Event event = event("e1", "Jazz night");
+        EventIndexChecker.Report report = EventIndexChecker.diff(
+                Collections.singletonMap("e1", event),
+                Collections.singletonMap("e1", EventSummary.from(event)),
+                Collections.emptySet());
+
+        assertTrue(report.isConsistent());
+        assertEquals(1, report.events);
+    }
+
+    @Test
+    public void checkerRebuildsSummariesAndDropsOrphans() {
+        Map<String, Event> events = new HashMap<>();
+        events.put("e1", event("e1", "Jazz night"));
+        events.put("e2", event("e2", "Food fair"));
+        Map<String, EventSummary> summaries = new HashMap<>();
+        summaries.put("e1", EventSummary.from(event("e1", "Old title")));
+        summaries.put("gone", EventSummary.from(event("gone", "Deleted")));
+
+        EventIndexChecker.Report report = EventIndexChecker.diff(events, summaries,
+                new HashSet<>(Collections.singletonList("gone")));
+
+        assertEquals(1, report.missingSummaries);
+        assertEquals(1, report.staleSummaries);
+        assertEquals(1, report.orphanSummaries);
+        assertEquals(1, report.orphanWaitlists);
+        assertEquals(EventWriter.stamped(EventSummary.from(events.get("e1")).toMap()),
+                report.repairs.get("eventSummaries/e1"));
+        assertEquals(EventWriter.stamped(EventSummary.from(events.get("e2")).toMap()),
+                report.repairs.get("eventSummaries/e2"));
+        assertTrue(report.repairs.containsKey("eventSummaries/gone"));
+        assertNull(report.repairs.get("eventSummaries/gone"));
+        assertTrue(report.repairs.containsKey("eventTombstones/gone"));
+        assertTrue(report.repairs.containsKey("eventWaitlists/gone"));
+    }
+
+    @Test
+    public void checkerRecountsLeakedSeatsFromTheRsvpList() {
+        Event event = event("e1", "Jazz night");
+        event.setCapacity(5);
+        event.addRsvp("u1");
+        event.addRsvp("u2");
+        event.setAttendeeCount(3); // Counted before seats named their holder, and drifted
+
+        EventIndexChecker.Report report = EventIndexChecker.diff(Collections.singletonMap("e1", event),
+                Collections.singletonMap("e1", EventSummary.from(event)), Collections.emptySet());
+
+        assertEquals(1, report.recounts);
+        assertEquals(1, report.staleSummaries);
+        assertEquals(0, report.repairs.get("events/e1/attendeeCount"));
+        assertTrue(report.repairs.containsKey("events/e1/attendeeShards"));
+        assertNull(report.repairs.get("events/e1/attendeeShards"));
+        Map<?, ?> seats = (Map<?, ?>) report.repairs.get("events/e1/" + AttendeeCounter.SEATS_NODE);
+        assertEquals(2, seats.size()); // One seat per shard: two held, three free
+        Set<Object> holders = new HashSet<>();
+        holders.addAll(((Map<?, ?>) seats.get("0")).keySet());
+        holders.addAll(((Map<?, ?>) seats.get("1")).keySet());
+        assertEquals(new HashSet<>(Arrays.asList("u1", "u2")), holders);
+        assertEquals(2, ((Map<?, ?>) report.repairs.get("eventSummaries/e1")).get("attendeeCount"));
+    }
+
+    private static Event event(String id, String title) {
+        Event event = new Event(id, title, "Music", "", "12/05/2026", "18:00 - 21:00", "Nairobi", "A", 0);
+        EventTimeCodec.applyTo(event);
+        return event;
+    }
+}
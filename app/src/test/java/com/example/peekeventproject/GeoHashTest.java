@@ -0,0 +1,65 @@
+package com.example.peekeventproject;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Geohash encoding and the ranges planned for nearby queries.
+ */
+public class GeoHashTest {
+
+    @Test
+    public void encodesKnownPoint() {
+        assertEquals("u4pruydqqv", GeoHash.encode(57.64911, 10.40744, 10));
+        assertEquals("u4pru", GeoHash.encode(57.64911, 10.40744, 5));
+    }
+
+    @Test
+    public void distanceBetweenNairobiAndMombasa() {
+        double meters = GeoHash.distanceMeters(-1.2864, 36.8172, -4.0435, 39.6682);
+        assertEquals(440_000, meters, 10_000);
+    }
+
+    @Test
+    public void prefixesCoverEveryPointInRadius() {
+        Random random = new Random(42);
+        double[][] centers = {{-1.2864, 36.8172}, {51.5074, -0.1278}, {0.0, 179.99}, {-33.8688, 151.2093}};
+        double[] radii = {200, 2_000, 25_000, 150_000};
+
+        for (double[] center : centers) {
+            for (double radius : radii) {
+                List<String> prefixes = GeoHash.coveringPrefixes(center[0], center[1], radius);
+                assertTrue(prefixes.size() <= 9);
+
+                for (int i = 0; i < 500; i++) {
+                    double[] point = randomPointWithin(random, center, radius);
+                    String hash = GeoHash.encode(point[0], point[1], GeoHash.STORED_PRECISION);
+                    assertTrue(hash + " not covered by " + prefixes, startsWithAny(hash, prefixes));
+                }
+            }
+        }
+    }
+
+    private static double[] randomPointWithin(Random random, double[] center, double radius) {
+        while (true) {
+            double lat = center[0] + (random.nextDouble() * 2 - 1) * radius / 111_000;
+            double lng = center[1] + (random.nextDouble() * 2 - 1) * radius / (111_000 * Math.cos(Math.toRadians(center[0])));
+            if (lng >= 180) lng -= 360;
+            if (GeoHash.distanceMeters(center[0], center[1], lat, lng) <= radius) {
+                return new double[]{lat, lng};
+            }
+        }
+    }
+
+    private static boolean startsWithAny(String hash, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            if (hash.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.peekeventproject;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sharing repeated event strings, and storing categories compactly without changing them.
+ */
+public class StringPoolTest {
+
+    @Test
+    public void equalValuesShareOneInstance() {
+        String first = StringPool.canonical(new String("Main Gate"));
+        String second = StringPool.canonical(new String("Main Gate"));
+
+        assertSame(first, second);
+        assertNull(StringPool.canonical(null));
+    }
+
+    @Test
+    public void categoriesReadBackExactlyAsStored() {
+        assertSame(EventCategory.MUSIC.label(), summary(new String("Music")).getCategory());
+        // Not an exact label: kept as stored, so equalTo queries still match it
+        assertEquals("music", summary("music").getCategory());
+        assertEquals("Comedy", summary("Comedy").toMap().get("category"));
+        assertNull(summary(null).getCategory());
+        assertTrue(EventCategory.ordinalOf("Sports") >= 0);
+    }
+
+    private static EventSummary summary(String category) {
+        return new EventSummary("e1", "Quiz", category, "12/05/2026", "06:00 PM - 09:00 PM", "Nairobi", "A",
+                null, 0, 0, EventTimeCodec.UNKNOWN, EventTimeCodec.UNKNOWN, null, null, null);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.peekeventproject.baselineprofile;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Records the launch → feed → detail → RSVP journey into the app's baseline profile.
+ * Run with ./gradlew :app:generateBaselineProfile; the result lands in app/src/release/generated
+ * and is compiled ahead of time on install, covering MainActivity, EventAdapter binding and the
+ * detail and RSVP screens.
+ *
+ * The app's nonMinifiedRelease variant serves seeded events, so the journey never waits on the network.
+ * Seeded events are built in memory and have no images, so the Firebase decode path (EventMapper)
+ * and Glide are not recorded; they are compiled on the device as usual.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    private static final String PACKAGE = "com.example.peekeventproject";
+    private static final long WAIT_TIMEOUT_MS = 5_000;
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(
+                PACKAGE,
+                15,     // maxIterations
+                3,      // stableIterations
+                null,   // outputFilePrefix
+                true,   // includeInStartupProfile, so the startup part also drives dex layout
+                scope -> {
+                    UiDevice device = scope.getDevice();
+
+                    // Launch through LauncherActivity (routes to the feed) and wait for the first card
+                    scope.startActivityAndWait();
+                    waitFor(device, "event_title");
+
+                    // Scroll the feed so view holder creation and binding are recorded
+                    UiObject2 feed = device.findObject(By.res(PACKAGE, "events_recycler_view"));
+                    feed.setGestureMargin(device.getDisplayWidth() / 5);
+                    feed.fling(Direction.DOWN);
+                    device.waitForIdle();
+                    feed.fling(Direction.UP);
+                    device.waitForIdle();
+
+                    // Open the first event's detail screen
+                    device.findObject(By.res(PACKAGE, "event_title")).click();
+                    waitFor(device, "detail_title");
+
+                    // Tap RSVP; the result does not matter, only the code it runs
+                    device.findObject(By.res(PACKAGE, "rsvp_button")).click();
+                    device.waitForIdle();
+
+                    device.pressBack();
+                    waitFor(device, "events_recycler_view");
+                    return Unit.INSTANCE;
+                });
+    }
+
+    private static void waitFor(UiDevice device, String resourceId) {
+        if (!device.wait(Until.hasObject(By.res(PACKAGE, resourceId)), WAIT_TIMEOUT_MS)) {
+            throw new IllegalStateException("View did not appear: " + resourceId);
+        }
+    }
+}
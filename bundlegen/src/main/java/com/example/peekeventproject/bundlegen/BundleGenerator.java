@@ -0,0 +1,78 @@
+package com.example.peekeventproject.bundlegen;
+
+import com.example.peekeventproject.eventbundle.EventBundleWriter;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+
+/**
+ * Writes the bundle the app ships in assets/events.bundle (see BundledEvents in the app).
+ *
+ * Input is an export of "eventSummaries", or of the whole database:
+ *   firebase database:get /eventSummaries > summaries.json
+ * Only events that end today or later are kept. The bundle's timestamp is the largest "updatedAt"
+ * in the export, so the app's first delta sync fetches exactly what changed after it.
+ *
+ * Usage: BundleGenerator <export.json> <out.bundle> [--geohash-prefix <prefix>]
+ * A geohash prefix limits the bundle to one region (e.g. "kzf" around Nairobi).
+ */
+public final class BundleGenerator {
+
+    private BundleGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 && !(args.length == 4 && "--geohash-prefix".equals(args[2]))) {
+            System.err.println("Usage: BundleGenerator <export.json> <out.bundle> [--geohash-prefix <prefix>]");
+            System.exit(2);
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        String prefix = args.length == 4 ? args[3] : null;
+
+        JSONObject export = new JSONObject(new String(Files.readAllBytes(input), StandardCharsets.UTF_8));
+        JSONObject summaries = export.has("eventSummaries") ? export.getJSONObject("eventSummaries") : export;
+        long startOfToday = LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        // The timestamp covers every summary read, including the ones left out of the bundle
+        long createdAt = 0;
+        for (String key : summaries.keySet()) {
+            JSONObject summary = summaries.optJSONObject(key);
+            if (summary != null) createdAt = Math.max(createdAt, summary.optLong("updatedAt", 0));
+        }
+
+        EventBundleWriter writer = new EventBundleWriter(createdAt);
+        int skipped = 0;
+        for (String key : summaries.keySet()) {
+            JSONObject summary = summaries.optJSONObject(key);
+            // Summaries without an eventId are counts written after their event was deleted
+            if (summary == null || !summary.has("eventId")) {
+                skipped++;
+                continue;
+            }
+            long end = summary.optLong("endEpochMillis", 0);
+            if (end != 0 && end < startOfToday) continue; // Ended; 0 means unknown and is kept, as in the app
+            if (prefix != null && !summary.optString("geohash", "").startsWith(prefix)) continue;
+
+            Map<String, Object> fields = summary.toMap();
+            writer.add(fields);
+        }
+
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        try (OutputStream out = Files.newOutputStream(output)) {
+            writer.writeTo(out);
+        }
+        System.out.println("Wrote " + writer.size() + " events to " + output + " (current to " + createdAt
+                + ", " + skipped + " incomplete summaries skipped)");
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.peekeventproject.eventbundle;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only view of a precomputed bundle of event summaries, written by EventBundleWriter.
+ *
+ * Layout (big-endian):
+ *   - Header, HEADER_BYTES: magic, version, createdAt (server time the bundle is current to),
+ *     record count, string count, string table offset, records offset.
+ *   - String table: (string count + 1) int offsets relative to the end of the offsets, then the
+ *     UTF-8 bytes. Every distinct string is stored once (categories, zones and dates repeat a lot).
+ *   - Records, RECORD_BYTES each: nine string indexes (NO_STRING for null), attendeeCount,
+ *     capacity, startEpochMillis, endEpochMillis, latitude, longitude (NaN when unknown).
+ *     Records are sorted by event ID.
+ *
+ * Nothing is decoded up front: accessors read one field of one record from the buffer, so a
+ * memory-mapped bundle costs only the pages actually touched. Strings are decoded on first use
+ * and cached per string table entry. Safe to read from several threads.
+ * wrap() checks the header only; a record that points outside the string table is reported by
+ * its string accessors with an IllegalArgumentException, like a truncated bundle.
+ */
+public final class EventBundle {
+
+    static final int MAGIC = 0x50454231; // "PEB1"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+
+    public static final int NO_STRING = -1;
+
+    // String fields of a record, in stored order
+    static final int EVENT_ID = 0, TITLE = 1, CATEGORY = 2, DATE = 3, TIME = 4, LOCATION = 5,
+            ZONE = 6, IMAGE_URL = 7, GEOHASH = 8;
+    static final int STRING_FIELDS = 9;
+
+    static final int ATTENDEE_COUNT_OFFSET = STRING_FIELDS * 4;
+    static final int CAPACITY_OFFSET = ATTENDEE_COUNT_OFFSET + 4;
+    static final int START_OFFSET = CAPACITY_OFFSET + 4;
+    static final int END_OFFSET = START_OFFSET + 8;
+    static final int LATITUDE_OFFSET = END_OFFSET + 8;
+    static final int LONGITUDE_OFFSET = LATITUDE_OFFSET + 8;
+    static final int RECORD_BYTES = LONGITUDE_OFFSET + 8;
+
+    private final ByteBuffer buffer;
+    private final long createdAt;
+    private final int size;
+    private final int stringCount;
+    private final int stringOffsets; // Position of the string offset table
+    private final int stringData;    // Position of the first string byte
+    private final int records;
+    private final String[] strings;  // Decoded lazily
+
+    private EventBundle(ByteBuffer buffer) {
+        this.buffer = buffer;
+        createdAt = buffer.getLong(8);
+        size = buffer.getInt(16);
+        stringCount = buffer.getInt(20);
+        stringOffsets = buffer.getInt(24);
+        records = buffer.getInt(28);
+        stringData = stringOffsets + (stringCount + 1) * 4;
+        strings = new String[Math.max(stringCount, 0)]; // A negative count is rejected by wrap()
+    }
+
+    /**
+     * Reads the bundle in place; the buffer (typically a MappedByteBuffer) must not change afterwards.
+     * @throws IllegalArgumentException if the buffer does not hold a bundle of this version
+     */
+    public static EventBundle wrap(ByteBuffer buffer) {
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not an event bundle");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported event bundle version " + buffer.getInt(4));
+        }
+        EventBundle bundle = new EventBundle(buffer);
+        long end = (long) bundle.records + (long) bundle.size * RECORD_BYTES;
+        if (bundle.size < 0 || bundle.stringCount < 0 || bundle.stringOffsets < HEADER_BYTES
+                || bundle.stringData > bundle.records || end > buffer.limit()
+                || (long) bundle.stringData + bundle.stringStart(bundle.stringCount) > bundle.records) {
+            throw new IllegalArgumentException("Truncated event bundle");
+        }
+        return bundle;
+    }
+
+    /**
+     * @return server time of the newest write included; a delta sync continues from here
+     */
+    public long createdAt() { return createdAt; }
+
+    public int size() { return size; }
+
+    public String eventId(int index) { return string(index, EVENT_ID); }
+    public String title(int index) { return string(index, TITLE); }
+    public String category(int index) { return string(index, CATEGORY); }
+    public String date(int index) { return string(index, DATE); }
+    public String time(int index) { return string(index, TIME); }
+    public String location(int index) { return string(index, LOCATION); }
+    public String zone(int index) { return string(index, ZONE); }
+    public String imageUrl(int index) { return string(index, IMAGE_URL); }
+    public String geohash(int index) { return string(index, GEOHASH); }
+
+    public int attendeeCount(int index) { return buffer.getInt(record(index) + ATTENDEE_COUNT_OFFSET); }
+    public int capacity(int index) { return buffer.getInt(record(index) + CAPACITY_OFFSET); }
+    public long startEpochMillis(int index) { return buffer.getLong(record(index) + START_OFFSET); }
+    public long endEpochMillis(int index) { return buffer.getLong(record(index) + END_OFFSET); }
+
+    public boolean hasCoordinates(int index) {
+        return !Double.isNaN(latitude(index)) && !Double.isNaN(longitude(index));
+    }
+
+    public double latitude(int index) { return buffer.getDouble(record(index) + LATITUDE_OFFSET); }
+    public double longitude(int index) { return buffer.getDouble(record(index) + LONGITUDE_OFFSET); }
+
+    private int record(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + size);
+        }
+        return records + index * RECORD_BYTES;
+    }
+
+    private String string(int index, int field) {
+        int id = buffer.getInt(record(index) + field * 4);
+        if (id == NO_STRING) return null;
+        if (id < 0 || id >= stringCount) {
+            throw new IllegalArgumentException("Corrupt event bundle: string " + id + " of " + stringCount);
+        }
+
+        String value = strings[id];
+        if (value == null) {
+            int start = stringStart(id);
+            int end = stringStart(id + 1);
+            if (start < 0 || end < start || (long) stringData + end > records) {
+                throw new IllegalArgumentException("Corrupt event bundle: string " + id + " at " + start + ".." + end);
+            }
+            // Absolute bulk reads need API 33+, so copy through a duplicate's position instead
+            byte[] bytes = new byte[end - start];
+            ByteBuffer view = buffer.duplicate();
+            view.position(stringData + start);
+            view.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = value; // Racing readers decode the same value; either copy is fine
+        }
+        return value;
+    }
+
+    /**
+     * @return where string id starts within the string data; id == string count gives the total length
+     */
+    private int stringStart(int id) {
+        return buffer.getInt(stringOffsets + id * 4);
+    }
+}
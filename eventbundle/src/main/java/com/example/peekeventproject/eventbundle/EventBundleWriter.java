@@ -0,0 +1,124 @@
+package com.example.peekeventproject.eventbundle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an EventBundle from summaries in the shape of the "eventSummaries" node
+ * (the keys of EventSummary.toMap() in the app). Unknown keys are ignored.
+ */
+public final class EventBundleWriter {
+
+    private static final String[] STRING_KEYS = {
+            "eventId", "title", "category", "date", "time", "location", "zone", "imageUrl", "geohash"};
+
+    private final long createdAt;
+    private final List<Map<String, ?>> summaries = new ArrayList<>();
+
+    /**
+     * @param createdAt server time of the newest write in the export (its largest "updatedAt")
+     */
+    public EventBundleWriter(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the summary has no eventId
+     */
+    public void add(Map<String, ?> summary) {
+        if (!(summary.get("eventId") instanceof String)) {
+            throw new IllegalArgumentException("Summary without eventId: " + summary);
+        }
+        summaries.add(summary);
+    }
+
+    public int size() {
+        return summaries.size();
+    }
+
+    public byte[] toByteArray() {
+        List<Map<String, ?>> sorted = new ArrayList<>(summaries);
+        sorted.sort(Comparator.comparing(summary -> (String) summary.get("eventId")));
+
+        // Intern every string once, in first-use order
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        int[][] stringIds = new int[sorted.size()][STRING_KEYS.length];
+        int stringBytes = 0;
+        List<byte[]> encoded = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            for (int field = 0; field < STRING_KEYS.length; field++) {
+                Object value = sorted.get(i).get(STRING_KEYS[field]);
+                if (!(value instanceof String)) {
+                    stringIds[i][field] = EventBundle.NO_STRING;
+                    continue;
+                }
+                Integer id = ids.get(value);
+                if (id == null) {
+                    id = ids.size();
+                    ids.put((String) value, id);
+                    byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                    encoded.add(bytes);
+                    stringBytes += bytes.length;
+                }
+                stringIds[i][field] = id;
+            }
+        }
+
+        int stringOffsets = EventBundle.HEADER_BYTES;
+        int records = stringOffsets + (encoded.size() + 1) * 4 + stringBytes;
+        ByteBuffer out = ByteBuffer.allocate(records + sorted.size() * EventBundle.RECORD_BYTES);
+
+        out.putInt(EventBundle.MAGIC)
+                .putInt(EventBundle.VERSION)
+                .putLong(createdAt)
+                .putInt(sorted.size())
+                .putInt(encoded.size())
+                .putInt(stringOffsets)
+                .putInt(records);
+
+        int offset = 0;
+        for (byte[] bytes : encoded) {
+            out.putInt(offset);
+            offset += bytes.length;
+        }
+        out.putInt(offset);
+        for (byte[] bytes : encoded) {
+            out.put(bytes);
+        }
+
+        for (int i = 0; i < sorted.size(); i++) {
+            Map<String, ?> summary = sorted.get(i);
+            for (int id : stringIds[i]) {
+                out.putInt(id);
+            }
+            out.putInt((int) integer(summary, "attendeeCount"))
+                    .putInt((int) integer(summary, "capacity"))
+                    .putLong(integer(summary, "startEpochMillis"))
+                    .putLong(integer(summary, "endEpochMillis"))
+                    .putDouble(coordinate(summary, "latitude"))
+                    .putDouble(coordinate(summary, "longitude"));
+        }
+        return out.array();
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(toByteArray());
+    }
+
+    private static long integer(Map<String, ?> summary, String key) {
+        Object value = summary.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private static double coordinate(Map<String, ?> summary, String key) {
+        Object value = summary.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.peekeventproject.eventbundle;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Round trips through EventBundleWriter and EventBundle.
+ */
+public class EventBundleTest {
+
+    @Test
+    public void roundTripsEveryField() {
+        EventBundleWriter writer = new EventBundleWriter(1_750_000_000_000L);
+        Map<String, Object> jazz = summary("e2", "Jazz night ♪");
+        jazz.put("latitude", -1.2921);
+        jazz.put("longitude", 36.8219);
+        jazz.put("geohash", "kzf0t");
+        jazz.put("attendeeCount", 42L); // Firebase exports numbers as longs
+        jazz.put("capacity", 100L);
+        writer.add(jazz);
+        writer.add(summary("e1", "Food fair"));
+
+        EventBundle bundle = EventBundle.wrap(ByteBuffer.wrap(writer.toByteArray()));
+
+        assertEquals(1_750_000_000_000L, bundle.createdAt());
+        assertEquals(2, bundle.size());
+        assertEquals("e1", bundle.eventId(0)); // Sorted by ID
+        assertEquals("e2", bundle.eventId(1));
+        assertEquals("Jazz night ♪", bundle.title(1));
+        assertEquals("Music", bundle.category(1));
+        assertEquals(42, bundle.attendeeCount(1));
+        assertEquals(100, bundle.capacity(1));
+        assertEquals(1_760_000_000_000L, bundle.startEpochMillis(1));
+        assertEquals(1_760_010_800_000L, bundle.endEpochMillis(1));
+        assertTrue(bundle.hasCoordinates(1));
+        assertEquals(-1.2921, bundle.latitude(1), 0);
+        assertEquals("kzf0t", bundle.geohash(1));
+
+        assertFalse(bundle.hasCoordinates(0));
+        assertNull(bundle.geohash(0));
+        assertNull(bundle.imageUrl(0));
+    }
+
+    @Test
+    public void repeatedStringsAreStoredOnce() {
+        EventBundleWriter one = new EventBundleWriter(0);
+        one.add(summary("e1", "Same"));
+        EventBundleWriter two = new EventBundleWriter(0);
+        two.add(summary("e1", "Same"));
+        two.add(summary("e2", "Same"));
+
+        int perRecord = two.toByteArray().length - one.toByteArray().length;
+        // Only the new ID is added to the string table (4-byte offset + 2 bytes)
+        assertEquals(EventBundle.RECORD_BYTES + 4 + 2, perRecord);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOtherData() {
+        EventBundle.wrap(ByteBuffer.wrap(new byte[EventBundle.HEADER_BYTES]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTruncatedBundle() {
+        EventBundleWriter writer = new EventBundleWriter(0);
+        writer.add(summary("e1", "Food fair"));
+        byte[] bytes = writer.toByteArray();
+
+        ByteBuffer truncated = ByteBuffer.wrap(bytes, 0, bytes.length - 1).slice();
+        EventBundle.wrap(truncated);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsStringIndexOutsideTheTable() {
+        EventBundleWriter writer = new EventBundleWriter(0);
+        writer.add(summary("e1", "Food fair"));
+        ByteBuffer buffer = ByteBuffer.wrap(writer.toByteArray());
+        int records = buffer.getInt(28);
+        buffer.putInt(records + EventBundle.TITLE * 4, 1_000);
+
+        EventBundle.wrap(buffer).title(0);
+    }
+
+    private static Map<String, Object> summary(String id, String title) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("eventId", id);
+        summary.put("title", title);
+        summary.put("category", "Music");
+        summary.put("date", "12/10/2026");
+        summary.put("time", "18:00 - 21:00");
+        summary.put("location", "Nairobi");
+        summary.put("zone", "Stage A");
+        summary.put("startEpochMillis", 1_760_000_000_000L);
+        summary.put("endEpochMillis", 1_760_010_800_000L);
+        return summary;
+    }
+}
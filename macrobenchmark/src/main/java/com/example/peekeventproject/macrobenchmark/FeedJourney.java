@@ -0,0 +1,46 @@
+package com.example.peekeventproject.macrobenchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * Shared UI steps for the benchmarks.
+ * The target is the app's "benchmark" build type, which loads SeededEventSource
+ * instead of Firebase, so every run sees the same feed.
+ */
+final class FeedJourney {
+
+    static final String PACKAGE = "com.example.peekeventproject";
+    static final int ITERATIONS = 10;
+
+    private static final long WAIT_TIMEOUT_MS = 5_000;
+
+    private FeedJourney() {
+    }
+
+    /**
+     * Launches the app through LauncherActivity, which routes the seeded benchmark build
+     * straight to MainActivity, and blocks until the first event card is on screen.
+     */
+    static void startFeedAndWait(MacrobenchmarkScope scope) {
+        scope.startActivityAndWait();
+        waitForFirstCard(scope.getDevice());
+    }
+
+    static void waitForFirstCard(UiDevice device) {
+        if (!device.wait(Until.hasObject(By.res(PACKAGE, "event_title")), WAIT_TIMEOUT_MS)) {
+            throw new IllegalStateException("No event card appeared within " + WAIT_TIMEOUT_MS + " ms");
+        }
+    }
+
+    static UiObject2 findById(UiDevice device, String resourceId) {
+        UiObject2 view = device.findObject(By.res(PACKAGE, resourceId));
+        if (view == null) {
+            throw new IllegalStateException("View not found: " + resourceId);
+        }
+        return view;
+    }
+}
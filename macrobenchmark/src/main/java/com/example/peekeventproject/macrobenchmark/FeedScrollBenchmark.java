@@ -0,0 +1,61 @@
+package com.example.peekeventproject.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Measures frame timing while flinging through the event feed in MainActivity.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FeedScrollBenchmark {
+
+    private static final int FLINGS = 4; // Each direction, per iteration
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void flingFeed() {
+        benchmarkRule.measureRepeated(
+                FeedJourney.PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.None(),
+                StartupMode.WARM,
+                FeedJourney.ITERATIONS,
+                scope -> {
+                    FeedJourney.startFeedAndWait(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    UiDevice device = scope.getDevice();
+                    UiObject2 feed = FeedJourney.findById(device, "events_recycler_view");
+
+                    // Keep the gesture away from the system navigation edges
+                    feed.setGestureMargin(device.getDisplayWidth() / 5);
+
+                    for (int i = 0; i < FLINGS; i++) {
+                        feed.fling(Direction.DOWN);
+                        device.waitForIdle();
+                    }
+                    for (int i = 0; i < FLINGS; i++) {
+                        feed.fling(Direction.UP);
+                        device.waitForIdle();
+                    }
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.peekeventproject.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Measures frame timing while typing into search_edit_text.
+ * Every key stroke re-runs MainActivity.applySearchAndFilter() over the whole seeded feed.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SearchTypingBenchmark {
+
+    private static final String QUERY = "music night";
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void typeSearchQuery() {
+        benchmarkRule.measureRepeated(
+                FeedJourney.PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.None(),
+                StartupMode.WARM,
+                FeedJourney.ITERATIONS,
+                scope -> {
+                    FeedJourney.startFeedAndWait(scope);
+                    FeedJourney.findById(scope.getDevice(), "search_edit_text").click();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    UiDevice device = scope.getDevice();
+                    UiObject2 search = FeedJourney.findById(device, "search_edit_text");
+
+                    // Grow the query one character at a time, like a user typing
+                    for (int i = 1; i <= QUERY.length(); i++) {
+                        search.setText(QUERY.substring(0, i));
+                        device.waitForIdle();
+                    }
+                    search.setText("");
+                    device.waitForIdle();
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.peekeventproject.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Measures cold and warm start up to the first event card.
+ * MainActivity calls reportFullyDrawn() once the feed has content,
+ * so timeToFullDisplayMs is the number to watch; timeToInitialDisplayMs is the empty layout.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void coldStartToFirstCard() {
+        measureStartup(new CompilationMode.None(), StartupMode.COLD);
+    }
+
+    @Test
+    public void warmStartToFirstCard() {
+        measureStartup(new CompilationMode.None(), StartupMode.WARM);
+    }
+
+    /**
+     * Same cold start with the app's baseline profile installed; compare against coldStartToFirstCard.
+     */
+    @Test
+    public void coldStartToFirstCardWithBaselineProfile() {
+        measureStartup(new CompilationMode.Partial(), StartupMode.COLD);
+    }
+
+    private void measureStartup(CompilationMode compilationMode, StartupMode startupMode) {
+        benchmarkRule.measureRepeated(
+                FeedJourney.PACKAGE,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                startupMode,
+                FeedJourney.ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    FeedJourney.startFeedAndWait(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}